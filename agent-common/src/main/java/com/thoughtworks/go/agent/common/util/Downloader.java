@@ -21,10 +21,12 @@ public interface Downloader {
     String AGENT_BINARY = "agent.jar";
     String AGENT_LAUNCHER = "agent-launcher.jar";
     String AGENT_PLUGINS = "agent-plugins.zip";
+    String AGENT_PLUGINS_DIR = "agent-plugins";
     String TFS_IMPL = "tfs-impl.jar";
 
     File AGENT_BINARY_JAR = new File(AGENT_BINARY);
     File AGENT_LAUNCHER_JAR = new File(AGENT_LAUNCHER);
     File AGENT_PLUGINS_ZIP = new File(AGENT_PLUGINS);
+    File AGENT_PLUGINS_FOLDER = new File(AGENT_PLUGINS_DIR);
     File TFS_IMPL_JAR = new File(TFS_IMPL);
 }
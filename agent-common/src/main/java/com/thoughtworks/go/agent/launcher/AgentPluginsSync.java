@@ -0,0 +1,239 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.agent.launcher;
+
+import com.thoughtworks.go.agent.ServerUrlGenerator;
+import com.thoughtworks.go.agent.common.AgentBootstrapperArgs;
+import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClientBuilder;
+import com.thoughtworks.go.agent.common.util.Downloader;
+import com.thoughtworks.go.util.SslVerificationMode;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.thoughtworks.go.remote.StandardHeaders.RESPONSE_CONTENT_MD5;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Understands keeping a folder of agent plugin jars in step with the server one jar at a time, so that a change to one
+ * plugin downloads only that plugin rather than the whole agent-plugins.zip. The manifest of the last sync is kept in
+ * the folder, so jars that did not change are neither downloaded nor re-read.
+ */
+public class AgentPluginsSync {
+    private static final Logger LOG = LoggerFactory.getLogger(AgentPluginsSync.class);
+    private static final int HTTP_TIMEOUT_IN_MILLISECONDS = 5000;
+    private static final Pattern MANIFEST_LINE = Pattern.compile("^([0-9a-f]{32}) {2}((?:bundled|external)/[^/\\\\]+\\.jar)$");
+    static final String MANIFEST_FILE = "manifest.txt";
+    public static final String MD5_FILE = "agent-plugins.md5";
+
+    private final GoAgentServerHttpClientBuilder httpClientBuilder;
+    private final ServerUrlGenerator urlGenerator;
+    private final File folder;
+
+    AgentPluginsSync(GoAgentServerHttpClientBuilder httpClientBuilder, ServerUrlGenerator urlGenerator, File folder) {
+        this.httpClientBuilder = httpClientBuilder;
+        this.urlGenerator = urlGenerator;
+        this.folder = folder;
+    }
+
+    public AgentPluginsSync(ServerUrlGenerator urlGenerator, AgentBootstrapperArgs bootstrapperArgs) {
+        this(new GoAgentServerHttpClientBuilder(
+                bootstrapperArgs.getRootCertFile(),
+                SslVerificationMode.valueOf(bootstrapperArgs.getSslVerificationMode().name()),
+                bootstrapperArgs.getSslCertificateFile(),
+                bootstrapperArgs.getSslPrivateKeyFile(),
+                bootstrapperArgs.getSslPrivateKeyPassphraseFile()
+        ), urlGenerator, Downloader.AGENT_PLUGINS_FOLDER);
+    }
+
+    /**
+     * The md5 of the agent-plugins.zip whose plugins are in the folder, if a sync has completed.
+     */
+    public static Optional<String> syncedMd5(File folder) {
+        try {
+            return Optional.of(Files.readString(new File(folder, MD5_FILE).toPath(), UTF_8).trim()).filter(md5 -> !md5.isEmpty());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Brings the folder in step with the version of the agent plugins identified by the md5 of the agent-plugins.zip.
+     *
+     * @return false when the server can not serve plugins one at a time or the sync failed, in which case the folder
+     * must not be used and the whole zip should be downloaded instead
+     */
+    public boolean syncTo(String pluginsZipMd5) {
+        if (syncedMd5(folder).filter(pluginsZipMd5::equals).isPresent()) {
+            LOG.info("Agent plugins are up to date with md5 {}", pluginsZipMd5);
+            return true;
+        }
+
+        try {
+            Map<String, String> manifest = fetchManifest(pluginsZipMd5);
+            if (manifest == null) {
+                return false;
+            }
+            Map<String, String> synced = syncedManifest();
+
+            Files.deleteIfExists(new File(folder, MD5_FILE).toPath());
+            int downloaded = 0;
+            for (Map.Entry<String, String> jar : manifest.entrySet()) {
+                File local = new File(folder, jar.getKey());
+                if (local.isFile() && jar.getValue().equals(synced.get(jar.getKey()))) {
+                    continue;
+                }
+                download(jar.getKey(), jar.getValue(), local);
+                downloaded++;
+            }
+            int deleted = deleteJarsNotIn(manifest);
+
+            Files.writeString(new File(folder, MANIFEST_FILE).toPath(), asText(manifest), UTF_8);
+            Files.writeString(new File(folder, MD5_FILE).toPath(), pluginsZipMd5, UTF_8);
+            LOG.info("Synced agent plugins to md5 {}: downloaded {} and deleted {} of {} plugin jars", pluginsZipMd5, downloaded, deleted, manifest.size());
+            return true;
+        } catch (Exception e) {
+            LOG.warn("Could not sync agent plugins one at a time. Falling back to downloading {}.", Downloader.AGENT_PLUGINS, e);
+            return false;
+        }
+    }
+
+    private Map<String, String> fetchManifest(String pluginsZipMd5) throws IOException {
+        String url = urlGenerator.serverUrlFor("admin/agent-plugins/manifest");
+        try (CloseableHttpClient httpClient = httpClientBuilder.build();
+             CloseableHttpResponse response = httpClient.execute(get(url))) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                LOG.info("Server does not serve agent plugins one at a time.");
+                return null;
+            }
+            if (status != HttpURLConnection.HTTP_OK || response.getEntity() == null) {
+                throw new IOException("Got status " + status + " fetching " + url);
+            }
+            Header md5Header = response.getFirstHeader(RESPONSE_CONTENT_MD5);
+            String manifestMd5 = md5Header == null ? null : md5Header.getValue();
+            if (!pluginsZipMd5.equals(manifestMd5)) {
+                throw new IOException("Agent plugins changed on the server while syncing. Expected md5 " + pluginsZipMd5 + " but manifest was for " + manifestMd5);
+            }
+            try (InputStream in = response.getEntity().getContent()) {
+                return parse(new String(in.readAllBytes(), UTF_8));
+            }
+        }
+    }
+
+    private void download(String path, String expectedMd5, File local) throws IOException, NoSuchAlgorithmException {
+        String url = urlGenerator.serverUrlFor("admin/agent-plugins/" + path);
+        Path target = local.toPath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), local.getName(), ".tmp");
+        try (CloseableHttpClient httpClient = httpClientBuilder.build();
+             CloseableHttpResponse response = httpClient.execute(get(url))) {
+            HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() != HttpURLConnection.HTTP_OK || entity == null) {
+                throw new IOException("Got status " + response.getStatusLine().getStatusCode() + " fetching " + url);
+            }
+            MessageDigest digester = MessageDigest.getInstance("MD5");
+            try (InputStream in = new DigestInputStream(entity.getContent(), digester);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                in.transferTo(out);
+            }
+            String md5 = DownloadableFile.encodeHexString(digester.digest());
+            if (!expectedMd5.equalsIgnoreCase(md5)) {
+                throw new IOException("Downloaded " + path + " with md5 " + md5 + " but expected " + expectedMd5);
+            }
+            Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+            LOG.info("Downloaded agent plugin {}", path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private int deleteJarsNotIn(Map<String, String> manifest) throws IOException {
+        int deleted = 0;
+        for (String subFolder : List.of("bundled", "external")) {
+            Path path = new File(folder, subFolder).toPath();
+            if (!Files.isDirectory(path)) {
+                continue;
+            }
+            List<Path> stale;
+            try (Stream<Path> files = Files.list(path)) {
+                stale = files.filter(file -> !manifest.containsKey(subFolder + "/" + file.getFileName())).toList();
+            }
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private Map<String, String> syncedManifest() {
+        try {
+            return parse(Files.readString(new File(folder, MANIFEST_FILE).toPath(), UTF_8));
+        } catch (IOException e) {
+            return Map.of();
+        }
+    }
+
+    static Map<String, String> parse(String manifest) throws IOException {
+        Map<String, String> jars = new LinkedHashMap<>();
+        for (String line : manifest.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Matcher matcher = MANIFEST_LINE.matcher(line.trim());
+            if (!matcher.matches()) {
+                throw new IOException("Unexpected line in agent plugins manifest: " + line);
+            }
+            jars.put(matcher.group(2), matcher.group(1));
+        }
+        return jars;
+    }
+
+    private static String asText(Map<String, String> manifest) {
+        StringBuilder text = new StringBuilder();
+        manifest.forEach((path, md5) -> text.append(md5).append("  ").append(path).append('\n'));
+        return text.toString();
+    }
+
+    private static HttpGet get(String url) {
+        HttpGet request = new HttpGet(url);
+        request.setConfig(RequestConfig.custom().setConnectTimeout(HTTP_TIMEOUT_IN_MILLISECONDS).build());
+        return request;
+    }
+}
@@ -75,7 +75,7 @@ public enum DownloadableFile {
         }
     }
 
-    private static String encodeHexString(byte[] bytes) {
+    static String encodeHexString(byte[] bytes) {
         return String.format("%0" + (bytes.length << 1) + "x", new BigInteger(1, bytes));
     }
 
@@ -38,6 +38,7 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 import static com.thoughtworks.go.remote.StandardHeaders.RESPONSE_AGENT_EXTRA_PROPERTIES;
 import static com.thoughtworks.go.remote.StandardHeaders.RESPONSE_CONTENT_MD5;
@@ -101,6 +102,22 @@ public class ServerBinaryDownloader implements Downloader {
         return downloaded;
     }
 
+    /**
+     * Checks the server's version of the file and hands its md5 to the sync, for files that can be brought up to date
+     * without downloading them whole.
+     *
+     * @return false when the file should be downloaded instead
+     */
+    public boolean syncInsteadOfDownloading(DownloadableFile downloadableFile, Predicate<String> syncToMd5) {
+        try {
+            fetchUpdateCheckHeaders(downloadableFile);
+        } catch (Exception e) {
+            LOG.warn("Couldn't check for updates to {}. Downloading it instead.", downloadableFile, e);
+            return false;
+        }
+        return syncToMd5.test(md5);
+    }
+
     void fetchUpdateCheckHeaders(DownloadableFile downloadableFile) throws Exception {
         String url = downloadableFile.validatedUrl(urlGenerator);
         final HttpRequestBase request = new HttpHead(url);
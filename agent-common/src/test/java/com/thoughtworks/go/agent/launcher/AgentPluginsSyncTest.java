@@ -0,0 +1,174 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.agent.launcher;
+
+import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClientBuilder;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.thoughtworks.go.remote.StandardHeaders.RESPONSE_CONTENT_MD5;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AgentPluginsSyncTest {
+    private static final String SERVER = "http://localhost:8153/go/";
+
+    @TempDir
+    File folder;
+
+    private final Map<String, byte[]> jarsOnServer = new HashMap<>();
+    private final List<String> requestedUrls = new ArrayList<>();
+    private AgentPluginsSync sync;
+    private boolean serverSupportsManifest = true;
+    private boolean corruptNextDownload;
+    private String zipMd5OnServer;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        GoAgentServerHttpClientBuilder builder = mock(GoAgentServerHttpClientBuilder.class);
+        CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+        when(builder.build()).thenReturn(httpClient);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenAnswer(invocation -> respondTo(invocation.getArgument(0)));
+        sync = new AgentPluginsSync(builder, subPath -> SERVER + subPath, folder);
+    }
+
+    @Test
+    public void shouldDownloadAllPluginJarsOnFirstSync() throws Exception {
+        jarsOnServer.put("bundled/task.jar", "task".getBytes(UTF_8));
+        jarsOnServer.put("external/scm.jar", "scm".getBytes(UTF_8));
+
+        assertThat(syncTo("zip-md5")).isTrue();
+
+        assertThat(Files.readString(new File(folder, "bundled/task.jar").toPath())).isEqualTo("task");
+        assertThat(Files.readString(new File(folder, "external/scm.jar").toPath())).isEqualTo("scm");
+        assertThat(AgentPluginsSync.syncedMd5(folder)).contains("zip-md5");
+    }
+
+    @Test
+    public void shouldDownloadOnlyChangedPluginJarsAndDeleteRemovedOnes() throws Exception {
+        jarsOnServer.put("bundled/task.jar", "task".getBytes(UTF_8));
+        jarsOnServer.put("external/scm.jar", "scm".getBytes(UTF_8));
+        jarsOnServer.put("external/removed.jar", "removed".getBytes(UTF_8));
+        syncTo("first-md5");
+        requestedUrls.clear();
+
+        jarsOnServer.put("external/scm.jar", "scm v2".getBytes(UTF_8));
+        jarsOnServer.remove("external/removed.jar");
+        assertThat(syncTo("second-md5")).isTrue();
+
+        assertThat(requestedUrls).containsExactly(SERVER + "admin/agent-plugins/manifest", SERVER + "admin/agent-plugins/external/scm.jar");
+        assertThat(Files.readString(new File(folder, "external/scm.jar").toPath())).isEqualTo("scm v2");
+        assertThat(new File(folder, "external/removed.jar")).doesNotExist();
+        assertThat(AgentPluginsSync.syncedMd5(folder)).contains("second-md5");
+    }
+
+    @Test
+    public void shouldNotContactServerWhenAlreadySyncedToMd5() {
+        jarsOnServer.put("bundled/task.jar", "task".getBytes(UTF_8));
+        syncTo("zip-md5");
+        requestedUrls.clear();
+
+        assertThat(syncTo("zip-md5")).isTrue();
+        assertThat(requestedUrls).isEmpty();
+    }
+
+    @Test
+    public void shouldFallBackToZipWhenServerCanNotServePluginsOneAtATime() {
+        serverSupportsManifest = false;
+
+        assertThat(syncTo("zip-md5")).isFalse();
+        assertThat(AgentPluginsSync.syncedMd5(folder)).isEmpty();
+    }
+
+    @Test
+    public void shouldFallBackToZipWhenDownloadedJarDoesNotMatchManifest() throws Exception {
+        jarsOnServer.put("bundled/task.jar", "task".getBytes(UTF_8));
+        syncTo("first-md5");
+        jarsOnServer.put("bundled/task.jar", "task v2".getBytes(UTF_8));
+        corruptNextDownload = true;
+
+        assertThat(syncTo("second-md5")).isFalse();
+        assertThat(AgentPluginsSync.syncedMd5(folder)).isEmpty();
+    }
+
+    @Test
+    public void shouldRejectManifestEntriesOutsideThePluginFolders() {
+        assertThat(catchThrowable(() -> AgentPluginsSync.parse("0123456789abcdef0123456789abcdef  ../agent.jar\n")))
+            .isInstanceOf(IOException.class);
+    }
+
+    private CloseableHttpResponse respondTo(HttpUriRequest request) throws Exception {
+        String url = request.getURI().toString();
+        requestedUrls.add(url);
+        String path = url.substring((SERVER + "admin/agent-plugins/").length());
+        if (path.equals("manifest")) {
+            if (!serverSupportsManifest) {
+                return response(404, null, new byte[0]);
+            }
+            StringBuilder manifest = new StringBuilder();
+            jarsOnServer.forEach((jar, content) -> manifest.append(md5(content)).append("  ").append(jar).append('\n'));
+            return response(200, zipMd5OnServer, manifest.toString().getBytes(UTF_8));
+        }
+        byte[] content = jarsOnServer.get(path);
+        if (corruptNextDownload) {
+            corruptNextDownload = false;
+            content = "corrupt".getBytes(UTF_8);
+        }
+        return response(200, md5(content), content);
+    }
+
+    private boolean syncTo(String zipMd5) {
+        zipMd5OnServer = zipMd5;
+        return sync.syncTo(zipMd5);
+    }
+
+    private static CloseableHttpResponse response(int status, String md5, byte[] body) {
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, status, ""));
+        when(response.getEntity()).thenReturn(new ByteArrayEntity(body));
+        when(response.getFirstHeader(RESPONSE_CONTENT_MD5)).thenReturn(md5 == null ? null : new BasicHeader(RESPONSE_CONTENT_MD5, md5));
+        return response;
+    }
+
+    private static String md5(byte[] content) {
+        try {
+            return DownloadableFile.encodeHexString(MessageDigest.getInstance("MD5").digest(content));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
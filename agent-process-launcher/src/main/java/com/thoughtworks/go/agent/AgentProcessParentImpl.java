@@ -19,6 +19,7 @@ import com.thoughtworks.go.CurrentGoCDVersion;
 import com.thoughtworks.go.agent.common.AgentBootstrapperArgs;
 import com.thoughtworks.go.agent.common.launcher.AgentProcessParent;
 import com.thoughtworks.go.agent.common.util.Downloader;
+import com.thoughtworks.go.agent.launcher.AgentPluginsSync;
 import com.thoughtworks.go.agent.launcher.DownloadableFile;
 import com.thoughtworks.go.agent.launcher.ServerBinaryDownloader;
 import com.thoughtworks.go.util.SystemEnvironment;
@@ -53,7 +54,10 @@ public class AgentProcessParentImpl implements AgentProcessParent {
             agentDownloader.downloadIfNecessary(DownloadableFile.AGENT);
 
             ServerBinaryDownloader pluginZipDownloader = new ServerBinaryDownloader(urlGenerator, bootstrapperArgs);
-            pluginZipDownloader.downloadIfNecessary(DownloadableFile.AGENT_PLUGINS);
+            AgentPluginsSync pluginsSync = new AgentPluginsSync(urlGenerator, bootstrapperArgs);
+            if (!pluginZipDownloader.syncInsteadOfDownloading(DownloadableFile.AGENT_PLUGINS, pluginsSync::syncTo)) {
+                pluginZipDownloader.downloadIfNecessary(DownloadableFile.AGENT_PLUGINS);
+            }
 
             ServerBinaryDownloader tfsImplDownloader = new ServerBinaryDownloader(urlGenerator, bootstrapperArgs);
             tfsImplDownloader.downloadIfNecessary(DownloadableFile.TFS_IMPL);
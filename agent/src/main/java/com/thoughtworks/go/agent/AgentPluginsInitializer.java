@@ -15,6 +15,8 @@
  */
 package com.thoughtworks.go.agent;
 
+import com.thoughtworks.go.agent.common.util.Downloader;
+import com.thoughtworks.go.agent.launcher.AgentPluginsSync;
 import com.thoughtworks.go.agent.launcher.DownloadableFile;
 import com.thoughtworks.go.plugin.infra.PluginManager;
 import com.thoughtworks.go.plugin.infra.monitor.DefaultPluginJarLocationMonitor;
@@ -31,6 +33,10 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Component
 public class AgentPluginsInitializer implements ApplicationListener<ContextRefreshedEvent> {
@@ -54,11 +60,13 @@ public class AgentPluginsInitializer implements ApplicationListener<ContextRefre
         try {
             LOG.info("Agent plugins initializing...");
             File pluginsFolder = new File(systemEnvironment.get(SystemEnvironment.AGENT_PLUGINS_PATH));
+            String pluginsMd5 = systemEnvironment.getAgentPluginsMd5();
 
-            if (pluginsFolder.exists()) {
-                FileUtils.forceDelete(pluginsFolder);
+            if (hasMd5(pluginsMd5) && AgentPluginsSync.syncedMd5(pluginsFolder).filter(pluginsMd5::equals).isPresent()) {
+                LOG.info("Agent plugins with md5 {} are already extracted", pluginsMd5);
+            } else {
+                extractPlugins(pluginsFolder, pluginsMd5);
             }
-            zipUtil.unzip(DownloadableFile.AGENT_PLUGINS.getLocalFile(), pluginsFolder);
 
             PerfTimer timer = PerfTimer.start(LOG, "Agent plugins load");
             defaultPluginJarLocationMonitor.initialize();
@@ -70,4 +78,29 @@ public class AgentPluginsInitializer implements ApplicationListener<ContextRefre
             LOG.warn("error while initializing agent plugins", e);
         }
     }
+
+    private void extractPlugins(File pluginsFolder, String pluginsMd5) throws IOException {
+        if (pluginsFolder.exists()) {
+            FileUtils.forceDelete(pluginsFolder);
+        }
+        File syncedPlugins = Downloader.AGENT_PLUGINS_FOLDER;
+        if (hasMd5(pluginsMd5) && AgentPluginsSync.syncedMd5(syncedPlugins).filter(pluginsMd5::equals).isPresent()) {
+            for (String subFolder : List.of("bundled", "external")) {
+                File source = new File(syncedPlugins, subFolder);
+                if (source.isDirectory()) {
+                    FileUtils.copyDirectory(source, new File(pluginsFolder, subFolder));
+                }
+            }
+        } else {
+            zipUtil.unzip(DownloadableFile.AGENT_PLUGINS.getLocalFile(), pluginsFolder);
+        }
+        if (hasMd5(pluginsMd5)) {
+            Files.createDirectories(pluginsFolder.toPath());
+            Files.writeString(new File(pluginsFolder, AgentPluginsSync.MD5_FILE).toPath(), pluginsMd5, UTF_8);
+        }
+    }
+
+    private static boolean hasMd5(String pluginsMd5) {
+        return pluginsMd5 != null && !pluginsMd5.isBlank();
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.agent;
 
+import com.thoughtworks.go.agent.launcher.AgentPluginsSync;
 import com.thoughtworks.go.agent.launcher.DownloadableFile;
 import com.thoughtworks.go.plugin.infra.PluginManager;
 import com.thoughtworks.go.plugin.infra.monitor.DefaultPluginJarLocationMonitor;
@@ -23,13 +24,16 @@ import com.thoughtworks.go.util.ZipUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
@@ -67,6 +71,31 @@ class AgentPluginsInitializerTest {
         inOrder.verify(pluginManager).startInfrastructure(false);
     }
 
+    @Test
+    void shouldNotExtractPluginsAgainWhenPluginsWithSameMd5AreAlreadyExtracted(@TempDir File pluginsFolder) throws Exception {
+        Files.writeString(new File(pluginsFolder, AgentPluginsSync.MD5_FILE).toPath(), "plugins-md5");
+        when(systemEnvironment.get(SystemEnvironment.AGENT_PLUGINS_PATH)).thenReturn(pluginsFolder.getAbsolutePath());
+        when(systemEnvironment.getAgentPluginsMd5()).thenReturn("plugins-md5");
+
+        agentPluginsInitializer.onApplicationEvent(null);
+
+        verifyNoInteractions(zipUtil);
+        verify(pluginJarLocationMonitor).initialize();
+        verify(pluginManager).startInfrastructure(false);
+    }
+
+    @Test
+    void shouldExtractPluginsAndRememberTheirMd5WhenPluginsChanged(@TempDir File pluginsFolder) throws Exception {
+        Files.writeString(new File(pluginsFolder, AgentPluginsSync.MD5_FILE).toPath(), "old-md5");
+        when(systemEnvironment.get(SystemEnvironment.AGENT_PLUGINS_PATH)).thenReturn(pluginsFolder.getAbsolutePath());
+        when(systemEnvironment.getAgentPluginsMd5()).thenReturn("new-md5");
+
+        agentPluginsInitializer.onApplicationEvent(null);
+
+        verify(zipUtil).unzip(DownloadableFile.AGENT_PLUGINS.getLocalFile(), pluginsFolder);
+        assertThat(AgentPluginsSync.syncedMd5(pluginsFolder)).contains("new-md5");
+    }
+
     @Test
     void shouldHandleIOExceptionQuietly() throws Exception {
         doThrow(new IOException()).when(zipUtil).unzip(DownloadableFile.AGENT_PLUGINS.getLocalFile(), new File(SystemEnvironment.PLUGINS_PATH));
@@ -147,6 +147,10 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
 
     public static final GoSystemProperty<Integer> GO_ELASTIC_PLUGIN_CREATE_AGENT_THREADS = new GoIntSystemProperty("go.elasticplugin.createagent.threads", 5);
     public static final GoSystemProperty<Integer> GO_ELASTIC_PLUGIN_SERVER_PING_THREADS = new GoIntSystemProperty("go.elasticplugin.serverping.threads", 1);
+    public static final GoSystemProperty<Integer> AGENT_MATERIAL_CHECKOUT_THREADS = new GoIntSystemProperty("go.agent.material.checkout.threads", 4);
+    public static final GoSystemProperty<Boolean> AGENT_GIT_OBJECT_STORE_ENABLED = new GoBooleanSystemProperty("go.agent.git.object.store.enabled", false);
+    public static final GoSystemProperty<String> AGENT_GIT_OBJECT_STORE_DIR = new GoStringSystemProperty("go.agent.git.object.store.dir", "git-object-store");
+    public static final GoSystemProperty<Long> AGENT_GIT_OBJECT_STORE_MAX_SIZE_IN_MB = new GoLongSystemProperty("go.agent.git.object.store.max.size.mb", 10 * 1024L);
     public static final GoSystemProperty<Integer> GO_ENCRYPTION_API_MAX_REQUESTS = new GoIntSystemProperty("go.encryption.api.max.requests", 30);
 
     public static final GoSystemProperty<String> GO_ANALYTICS_PLUGIN_EXTERNAL_ASSETS = new GoStringSystemProperty("go.analytics.plugin.external.assets", "./analytics-assets");
@@ -155,12 +159,17 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Boolean> GO_SERVER_SHALLOW_CLONE = new GoBooleanSystemProperty("go.server.shallowClone", false);
 
     public static final GoSystemProperty<Integer> MAX_PENDING_AGENTS_ALLOWED = new GoIntSystemProperty("max.pending.agents.allowed", 100);
+    public static final GoSystemProperty<Boolean> MDU_SKIP_FETCH_WHEN_UPSTREAM_UNCHANGED = new GoBooleanSystemProperty("go.mdu.skip.fetch.when.upstream.unchanged", true);
     public static final GoSystemProperty<Boolean> CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS = new GoBooleanSystemProperty("go.modifications.removeDuplicates", true);
     public static final GoSystemProperty<Boolean> GO_DIAGNOSTICS_MODE = new GoBooleanSystemProperty("go.diagnostics.mode", false);
 
     public static final GoSystemProperty<Integer> DEPENDENCY_MATERIAL_UPDATE_LISTENERS = new GoIntSystemProperty("dependency.material.check.threads", 3);
 
     public static final GoSystemProperty<Integer> CONFIG_MATERIAL_POST_UPDATE_LISTENERS = new GoIntSystemProperty("config.material.post.update.threads", 2);
+    public static final GoSystemProperty<Long> CONFIG_ENTITY_SAVE_FULL_VALIDATION_INTERVAL_IN_MINUTES = new GoLongSystemProperty("config.entity.save.full.validation.interval.minutes", -1L);
+    public static final GoSystemProperty<Long> CONFIG_REPO_PARTIAL_MERGE_WINDOW_IN_MILLIS = new GoLongSystemProperty("config.repo.partial.merge.window.millis", 0L);
+    public static final GoSystemProperty<Integer> CONFIG_REPO_PARSES_PER_PLUGIN = new GoIntSystemProperty("config.repo.parses.per.plugin", 2);
+    public static final GoSystemProperty<Integer> CONFIG_PREPROCESS_THREADS = new GoIntSystemProperty("config.preprocess.threads", Math.min(4, Runtime.getRuntime().availableProcessors()));
 
     public static final GoSystemProperty<String> GO_SERVER_MODE = new GoStringSystemProperty("go.server.mode", "production");
     public static final GoSystemProperty<Boolean> REAUTHENTICATION_ENABLED = new GoBooleanSystemProperty("go.security.reauthentication.enabled", true);
@@ -178,6 +187,7 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
 
     private static final GoSystemProperty<Boolean> ENABLE_ANALYTICS_ONLY_FOR_ADMINS = new GoBooleanSystemProperty("go.enable.analytics.only.for.admins", false);
     public static final GoSystemProperty<Long> NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS = new GoLongSystemProperty("plugins.notification.message.ttl.millis", MINUTES.toMillis(2));
+    public static final GoSystemProperty<Boolean> NOTIFICATION_PLUGIN_COALESCE_AGENT_STATUS = new GoBooleanSystemProperty("plugins.notification.agent.status.coalesce", true);
     public static final GoSystemProperty<Boolean> ALLOW_EVERYONE_TO_VIEW_OPERATE_GROUPS_WITH_NO_GROUP_AUTHORIZATION_SETUP = new GoBooleanSystemProperty("allow.everyone.to.view.operate.groups.with.no.authorization.setup", false);
 
     public static final GoSystemProperty<Boolean> ENABLE_HSTS_HEADER = new GoBooleanSystemProperty("gocd.enable.hsts.header", false);
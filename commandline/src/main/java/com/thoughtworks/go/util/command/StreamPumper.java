@@ -25,80 +25,185 @@ import com.thoughtworks.go.util.SystemTimeClock;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
 import java.nio.charset.Charset;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
+import java.util.concurrent.*;
 
+/**
+ * Pumps a process stream into a {@link StreamConsumer} line by line. For charsets that encode line terminators as single
+ * ASCII bytes, lines are split directly on the bytes read into a pooled buffer rather than decoding the whole stream
+ * through a reader first.
+ */
 public class StreamPumper implements Runnable {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(64);
+    // a thread of its own per stream, as reads of process pipes block for as long as the process runs
+    private static final ThreadFactory PUMPS = Thread.ofPlatform().daemon().name("stream-pumper-", 0).factory();
 
-    private Reader in;
-
-    private boolean completed;
+    private final InputStream in;
+    private final Charset encoding;
+    private final CountDownLatch completed = new CountDownLatch(1);
     private final StreamConsumer streamConsumer;
     private final String prefix;
-    private long lastHeard;
+    private volatile long lastHeard;
     private final Clock clock;
 
+    private byte[] partialLine = new byte[256];
+    private int partialLineLength;
+    private boolean skipLineFeed;
+
     private StreamPumper(InputStream in, StreamConsumer streamConsumer, String prefix, Charset encoding) {
         this(in, streamConsumer, prefix, encoding, new SystemTimeClock());
     }
 
     StreamPumper(InputStream in, StreamConsumer streamConsumer, String prefix, Charset encoding, Clock clock) {
         this.streamConsumer = streamConsumer;
-        this.prefix = prefix;
+        this.prefix = prefix == null || prefix.isBlank() ? null : prefix;
         this.clock = clock;
         this.lastHeard = System.currentTimeMillis();
-        this.in = new InputStreamReader(in, encoding);
+        this.in = in;
+        this.encoding = encoding;
     }
 
     @Override
     public void run() {
-        try (LineIterator lineIterator = IOUtils.lineIterator(in)) {
-            while (lineIterator.hasNext()) {
-                consumeLine(lineIterator.next());
+        try {
+            if (terminatesLinesWithSingleBytes(encoding)) {
+                pumpBytes();
+            } else {
+                pumpDecodedLines();
             }
         } catch (Exception ignore) {
         } finally {
-            completed = true;
+            completed.countDown();
+        }
+    }
+
+    private void pumpBytes() throws IOException {
+        byte[] buffer = borrowBuffer();
+        try (in) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                splitLines(buffer, read);
+            }
+            if (partialLineLength > 0) {
+                consumeLine(partialLine, 0, partialLineLength);
+                partialLineLength = 0;
+            }
+        } finally {
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    // Treats \n, \r and \r\n as line terminators, the same as BufferedReader#readLine
+    private void splitLines(byte[] buffer, int length) {
+        int lineStart = 0;
+        if (skipLineFeed && length > 0) {
+            skipLineFeed = false;
+            if (buffer[0] == '\n') {
+                lineStart = 1;
+            }
+        }
+        for (int i = lineStart; i < length; i++) {
+            byte current = buffer[i];
+            if (current != '\n' && current != '\r') {
+                continue;
+            }
+            endLine(buffer, lineStart, i);
+            if (current == '\r') {
+                if (i + 1 == length) {
+                    skipLineFeed = true;
+                } else if (buffer[i + 1] == '\n') {
+                    i++;
+                }
+            }
+            lineStart = i + 1;
+        }
+        appendToPartialLine(buffer, lineStart, length);
+    }
+
+    private void endLine(byte[] buffer, int start, int end) {
+        if (partialLineLength == 0) {
+            consumeLine(buffer, start, end - start);
+            return;
+        }
+        appendToPartialLine(buffer, start, end);
+        consumeLine(partialLine, 0, partialLineLength);
+        partialLineLength = 0;
+    }
+
+    private void appendToPartialLine(byte[] buffer, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return;
+        }
+        if (partialLineLength + length > partialLine.length) {
+            partialLine = Arrays.copyOf(partialLine, Math.max(partialLine.length * 2, partialLineLength + length));
+        }
+        System.arraycopy(buffer, start, partialLine, partialLineLength, length);
+        partialLineLength += length;
+    }
+
+    private void consumeLine(byte[] bytes, int offset, int length) {
+        consumeLine(new String(bytes, offset, length, encoding));
+    }
+
+    private void pumpDecodedLines() {
+        try (LineIterator lineIterator = IOUtils.lineIterator(new InputStreamReader(in, encoding))) {
+            while (lineIterator.hasNext()) {
+                consumeLine(lineIterator.next());
+            }
+        } catch (IOException ignore) {
         }
     }
 
     private void consumeLine(String line) {
         lastHeard = System.currentTimeMillis();
         if (streamConsumer != null) {
-            if (prefix == null || prefix.isBlank()) {
-                streamConsumer.consumeLine(line);
-            } else {
-                streamConsumer.consumeLine(prefix + line);
-            }
+            streamConsumer.consumeLine(prefix == null ? line : prefix + line);
         }
     }
 
-
     public void readToEnd() {
-        while (!completed) {
+        boolean interrupted = false;
+        while (true) {
             try {
-                clock.sleepForMillis(100);
-            } catch (InterruptedException ignored) {
+                completed.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
             }
         }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public static StreamPumper pump(InputStream stream, StreamConsumer streamConsumer, String prefix, Charset encoding) {
         StreamPumper pumper = new StreamPumper(stream, streamConsumer, prefix, encoding);
-        new Thread(pumper).start();
+        PUMPS.newThread(pumper).start();
         return pumper;
     }
 
+    private static boolean terminatesLinesWithSingleBytes(Charset encoding) {
+        return Arrays.equals("\r\n".getBytes(encoding), new byte[]{'\r', '\n'});
+    }
+
+    private static byte[] borrowBuffer() {
+        byte[] buffer = BUFFERS.poll();
+        return buffer == null ? new byte[BUFFER_SIZE] : buffer;
+    }
+
     private Long timeSinceLastLine(TimeUnit unit) {
         long now = clock.currentTimeMillis();
         return unit.convert(now - lastHeard, TimeUnit.MILLISECONDS);
     }
 
     public boolean didTimeout(long duration, TimeUnit unit) {
-        if (completed) {
+        if (completed.getCount() == 0) {
             return false;
         }
         return timeSinceLastLine(unit) > duration;
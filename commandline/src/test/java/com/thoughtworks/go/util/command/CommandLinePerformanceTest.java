@@ -0,0 +1,72 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util.command;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Disabled("For adhoc running only")
+public class CommandLinePerformanceTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CommandLinePerformanceTest.class);
+    private static final int LINES = 1_000_000;
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    public void shouldCaptureAMillionLinesOfOutput() {
+        CountingConsumer consumer = new CountingConsumer();
+
+        long start = System.nanoTime();
+        int exitCode = CommandLine.createCommandLine("seq").withArgs("1", String.valueOf(LINES)).withEncoding(UTF_8).run(consumer, null);
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        assertThat(exitCode).isZero();
+        assertThat(consumer.stdLines.get()).isEqualTo(LINES);
+        LOG.info("Captured {} lines in {} ms ({} lines/s)", LINES, elapsedMillis, LINES * 1000L / elapsedMillis);
+    }
+
+    private static class CountingConsumer implements ConsoleOutputStreamConsumer {
+        private final AtomicLong stdLines = new AtomicLong();
+
+        @Override
+        public void stdOutput(String line) {
+            stdLines.incrementAndGet();
+        }
+
+        @Override
+        public void errOutput(String line) {
+        }
+
+        @Override
+        public void taggedStdOutput(String tag, String line) {
+            stdOutput(line);
+        }
+
+        @Override
+        public void taggedErrOutput(String tag, String line) {
+            errOutput(line);
+        }
+    }
+}
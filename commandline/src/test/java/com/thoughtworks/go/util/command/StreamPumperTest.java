@@ -23,6 +23,7 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -85,6 +86,40 @@ public class StreamPumperTest {
         assertThat(pumper.didTimeout(1L, TimeUnit.SECONDS)).isFalse();
     }
 
+    @Test
+    public void shouldSplitLinesOnAnyLineTerminator() {
+        assertThat(pumpAll("one\ntwo\r\nthree\rfour\n\nfive".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8))
+            .containsExactly("one", "two", "three", "four", "", "five");
+    }
+
+    @Test
+    public void shouldReassembleLinesAndMultiByteCharactersSpanningReads() {
+        String longLine = "\u00e9\u4e2d".repeat(10_000);
+        byte[] bytes = (longLine + "\r\nnext\n").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(pumpAll(bytes, StandardCharsets.UTF_8)).containsExactly(longLine, "next");
+    }
+
+    @Test
+    public void shouldPumpCharsetsWhoseLineTerminatorsAreNotSingleBytes() {
+        assertThat(pumpAll("one\ntwo\r\nthree".getBytes(StandardCharsets.UTF_16), StandardCharsets.UTF_16))
+            .containsExactly("one", "two", "three");
+    }
+
+    @Test
+    public void shouldPrefixLinesWhenPrefixIsNotBlank() {
+        List<String> lines = new ArrayList<>();
+        StreamPumper.pump(new ByteArrayInputStream("one\ntwo".getBytes()), lines::add, "STDERR: ", StandardCharsets.UTF_8).readToEnd();
+
+        assertThat(lines).containsExactly("STDERR: one", "STDERR: two");
+    }
+
+    private static List<String> pumpAll(byte[] bytes, Charset charset) {
+        List<String> lines = new ArrayList<>();
+        StreamPumper.pump(new ByteArrayInputStream(bytes), lines::add, "", charset).readToEnd();
+        return lines;
+    }
+
     /**
      * Used by the test to track whether a line actually got consumed or not.
      */
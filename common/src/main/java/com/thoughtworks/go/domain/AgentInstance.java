@@ -64,6 +64,7 @@ public class AgentInstance implements Comparable<AgentInstance> {
     private final AtomicBoolean killRunningTasks = new AtomicBoolean(false);
     private volatile @Nullable Date lastHeardTime;
     private volatile @Nullable Date cancelledAt;
+    private volatile @Nullable String verifiedCookie;
 
     @VisibleForTesting
     AgentInstance(@NotNull Agent agent, AgentType agentType, SystemEnvironment systemEnvironment,
@@ -250,6 +251,26 @@ public class AgentInstance implements Comparable<AgentInstance> {
         this.agentRuntimeInfo.updateSelf(newRuntimeInfo);
     }
 
+    /**
+     * Whether the runtime info is only a heartbeat: it comes with the cookie the agent was last verified with, from the
+     * same ip, and reports nothing new apart from usable space.
+     */
+    public boolean isHeartbeat(AgentRuntimeInfo newRuntimeInfo) {
+        String cookie = verifiedCookie;
+        return cookie != null && cookie.equals(newRuntimeInfo.getCookie()) &&
+            !isIpChangeRequired(newRuntimeInfo.getIpAddress()) &&
+            agentRuntimeInfo.hasSameStateAs(newRuntimeInfo);
+    }
+
+    public void heartbeat(AgentRuntimeInfo newRuntimeInfo) {
+        this.lastHeardTime = new Date();
+        this.agentRuntimeInfo.setUsableSpace(newRuntimeInfo.getUsableSpace());
+    }
+
+    public void cookieVerified(String cookie) {
+        this.verifiedCookie = cookie;
+    }
+
     private void syncIp(AgentRuntimeInfo info) {
         String ipAddress = agentType == AgentType.LOCAL || agentType == AgentType.REMOTE ? info.getIpAddress() : agent.getIpaddress();
         this.agent.setIpaddress(ipAddress);
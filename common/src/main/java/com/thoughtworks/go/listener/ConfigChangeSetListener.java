@@ -0,0 +1,27 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.listener;
+
+import com.thoughtworks.go.config.ConfigChangeSet;
+import com.thoughtworks.go.config.CruiseConfig;
+
+/**
+ * A config listener that is told what changed, so that it can update only what depends on the changed parts. It is
+ * still sent {@link #onConfigChange(CruiseConfig)} when it is registered.
+ */
+public interface ConfigChangeSetListener extends ConfigChangedListener {
+    void onConfigChange(CruiseConfig newCruiseConfig, ConfigChangeSet changes);
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.remote.work;
+
+import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
+import com.thoughtworks.go.config.materials.ScmMaterial;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.MaterialAgentFactory;
+import com.thoughtworks.go.plugin.access.scm.SCMExtension;
+import com.thoughtworks.go.remote.AgentIdentifier;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import com.thoughtworks.go.work.GoPublisher;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.thoughtworks.go.util.command.TaggedStreamConsumer.PREP;
+import static java.lang.String.format;
+
+/**
+ * Understands checking out the materials of a job on the agent. Materials whose destination folders do not overlap are
+ * checked out concurrently on a bounded pool, with their console output labeled by material. Materials that share or
+ * nest folders are checked out one after the other, in the order they are configured.
+ */
+class MaterialCheckout {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final File workingDirectory;
+    private final AgentIdentifier agentIdentifier;
+    private final SCMExtension scmExtension;
+    private final GoPublisher goPublisher;
+    private final ConsoleOutputStreamConsumer consumer;
+    private final int maxThreads;
+
+    MaterialCheckout(File workingDirectory, AgentIdentifier agentIdentifier, SCMExtension scmExtension, GoPublisher goPublisher, ConsoleOutputStreamConsumer consumer, int maxThreads) {
+        this.workingDirectory = workingDirectory;
+        this.agentIdentifier = agentIdentifier;
+        this.scmExtension = scmExtension;
+        this.goPublisher = goPublisher;
+        this.consumer = consumer;
+        this.maxThreads = maxThreads;
+    }
+
+    void checkout(List<MaterialRevision> revisions) {
+        List<List<MaterialRevision>> groups = groupByOverlappingFolders(revisions);
+        int threads = Math.min(maxThreads, groups.size());
+        if (threads <= 1) {
+            for (MaterialRevision revision : revisions) {
+                prepare(revision, consumer);
+            }
+            return;
+        }
+
+        // materials without a folder (dependency and package materials) have nothing to check out, so preparing them
+        // ahead of the others does not change what ends up on disk
+        for (MaterialRevision revision : revisions) {
+            if (destinationFolder(revision.getMaterial()) == null) {
+                prepare(revision, consumer);
+            }
+        }
+        checkoutConcurrently(groups, threads);
+    }
+
+    private void checkoutConcurrently(List<List<MaterialRevision>> groups, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "material-checkout-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicBoolean failed = new AtomicBoolean();
+        try {
+            List<Future<?>> checkouts = new ArrayList<>();
+            for (List<MaterialRevision> group : groups) {
+                checkouts.add(executor.submit(() -> {
+                    for (MaterialRevision revision : group) {
+                        if (failed.get()) {
+                            return;
+                        }
+                        try {
+                            prepare(revision, new MaterialLabeledOutputStreamConsumer(revision.getMaterial().getDisplayName(), consumer));
+                        } catch (RuntimeException | Error e) {
+                            failed.set(true);
+                            throw e;
+                        }
+                    }
+                }));
+            }
+            waitFor(checkouts);
+        } finally {
+            stop(executor);
+        }
+    }
+
+    // checkouts still running when the job is cancelled or a sibling fails are interrupted, and waited for, so that
+    // none of them carries on writing into the working directory after the job has moved on
+    private void stop(ExecutorService executor) {
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitFor(List<Future<?>> checkouts) {
+        Throwable firstFailure = null;
+        for (Future<?> checkout : checkouts) {
+            try {
+                checkout.get();
+            } catch (CancellationException ignored) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while checking out materials", e);
+            } catch (ExecutionException e) {
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                    checkouts.forEach(pending -> pending.cancel(true));
+                }
+            }
+        }
+        if (firstFailure instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (firstFailure instanceof Error error) {
+            throw error;
+        }
+        if (firstFailure != null) {
+            throw new RuntimeException(firstFailure);
+        }
+    }
+
+    private void prepare(MaterialRevision revision, ConsoleOutputStreamConsumer materialConsumer) {
+        long start = System.nanoTime();
+        new MaterialAgentFactory(materialConsumer, workingDirectory, agentIdentifier, scmExtension).createAgent(revision).prepare();
+        if (destinationFolder(revision.getMaterial()) != null) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            goPublisher.taggedConsumeLineWithPrefix(PREP, format("Finished updating material %s in %d ms.", revision.getMaterial().getDisplayName(), elapsedMillis));
+        }
+    }
+
+    private List<List<MaterialRevision>> groupByOverlappingFolders(List<MaterialRevision> revisions) {
+        List<List<FolderCheckout>> groups = new ArrayList<>();
+        for (int i = 0; i < revisions.size(); i++) {
+            MaterialRevision revision = revisions.get(i);
+            File folder = destinationFolder(revision.getMaterial());
+            if (folder == null) {
+                continue;
+            }
+            FolderCheckout checkout = new FolderCheckout(i, revision, folder.toPath().toAbsolutePath().normalize());
+
+            List<FolderCheckout> merged = new ArrayList<>();
+            for (Iterator<List<FolderCheckout>> iterator = groups.iterator(); iterator.hasNext(); ) {
+                List<FolderCheckout> group = iterator.next();
+                if (group.stream().anyMatch(checkout::overlaps)) {
+                    merged.addAll(group);
+                    iterator.remove();
+                }
+            }
+            merged.add(checkout);
+            merged.sort(Comparator.comparingInt(FolderCheckout::order));
+            groups.add(merged);
+        }
+
+        List<List<MaterialRevision>> result = new ArrayList<>();
+        for (List<FolderCheckout> group : groups) {
+            result.add(group.stream().map(FolderCheckout::revision).toList());
+        }
+        return result;
+    }
+
+    private File destinationFolder(Material material) {
+        if (material instanceof PluggableSCMMaterial pluggableSCMMaterial) {
+            return pluggableSCMMaterial.workingDirectory(workingDirectory);
+        }
+        if (material instanceof ScmMaterial scmMaterial) {
+            return scmMaterial.workingdir(workingDirectory);
+        }
+        return null;
+    }
+
+    private record FolderCheckout(int order, MaterialRevision revision, Path folder) {
+        boolean overlaps(FolderCheckout other) {
+            return folder.startsWith(other.folder) || other.folder.startsWith(folder);
+        }
+    }
+
+    private static class MaterialLabeledOutputStreamConsumer implements ConsoleOutputStreamConsumer {
+        private final String label;
+        private final ConsoleOutputStreamConsumer consumer;
+
+        MaterialLabeledOutputStreamConsumer(String materialName, ConsoleOutputStreamConsumer consumer) {
+            this.label = "[" + materialName + "] ";
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void stdOutput(String line) {
+            consumer.stdOutput(labeled(line));
+        }
+
+        @Override
+        public void errOutput(String line) {
+            consumer.errOutput(labeled(line));
+        }
+
+        @Override
+        public void taggedStdOutput(String tag, String line) {
+            consumer.taggedStdOutput(tag, labeled(line));
+        }
+
+        @Override
+        public void taggedErrOutput(String tag, String line) {
+            consumer.taggedErrOutput(tag, labeled(line));
+        }
+
+        private String labeled(String line) {
+            if (line == null) {
+                return label;
+            }
+            boolean endsWithNewLine = line.endsWith("\n");
+            String body = endsWithNewLine ? line.substring(0, line.length() - 1) : line;
+            return label + body.replace("\n", "\n" + label) + (endsWithNewLine ? "\n" : "");
+        }
+    }
+}
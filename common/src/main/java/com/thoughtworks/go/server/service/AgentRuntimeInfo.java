@@ -130,6 +130,20 @@ public class AgentRuntimeInfo implements Serializable {
         return runtimeStatus == Cancelled;
     }
 
+    /**
+     * Whether the other runtime info reports the same state as this one, leaving aside usable space, which changes
+     * with nearly every ping, and the cookie, which is verified separately.
+     */
+    public boolean hasSameStateAs(AgentRuntimeInfo other) {
+        return other != null && getClass() == other.getClass() &&
+                runtimeStatus == other.runtimeStatus &&
+                Objects.equals(buildingInfo, other.buildingInfo) &&
+                Objects.equals(location, other.location) &&
+                Objects.equals(operatingSystemName, other.operatingSystemName) &&
+                Objects.equals(agentBootstrapperVersion, other.agentBootstrapperVersion) &&
+                Objects.equals(agentVersion, other.agentVersion);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -86,6 +86,13 @@ public class ElasticAgentRuntimeInfo extends AgentRuntimeInfo implements Seriali
         return elasticPluginId;
     }
 
+    @Override
+    public boolean hasSameStateAs(AgentRuntimeInfo other) {
+        return super.hasSameStateAs(other) &&
+            Objects.equals(elasticAgentId, ((ElasticAgentRuntimeInfo) other).elasticAgentId) &&
+            Objects.equals(elasticPluginId, ((ElasticAgentRuntimeInfo) other).elasticPluginId);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
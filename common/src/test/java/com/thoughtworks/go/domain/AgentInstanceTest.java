@@ -360,6 +360,33 @@ public class AgentInstanceTest {
         assertThat(instance.isIpChangeRequired(DEFAULT_IP_ADDRESS)).isFalse();
     }
 
+    @Test
+    void shouldTreatPingWithVerifiedCookieAndNoNewStateAsHeartbeat() {
+        AgentInstance instance = AgentInstance.createFromAgent(agent, systemEnvironment, mock(AgentStatusChangeListener.class));
+        AgentRuntimeInfo info = new AgentRuntimeInfo(agent.getAgentIdentifier(), AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie");
+        instance.update(info);
+        assertThat(instance.isHeartbeat(info)).isFalse();
+
+        instance.cookieVerified("cookie");
+        AgentRuntimeInfo ping = new AgentRuntimeInfo(agent.getAgentIdentifier(), AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie");
+        ping.setUsableSpace(1024L);
+        assertThat(instance.isHeartbeat(ping)).isTrue();
+
+        instance.heartbeat(ping);
+        assertThat(instance.freeDiskSpace().space()).isEqualTo(1024L);
+    }
+
+    @Test
+    void shouldNotTreatPingReportingNewStateOrCookieAsHeartbeat() {
+        AgentInstance instance = AgentInstance.createFromAgent(agent, systemEnvironment, mock(AgentStatusChangeListener.class));
+        instance.update(new AgentRuntimeInfo(agent.getAgentIdentifier(), AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie"));
+        instance.cookieVerified("cookie");
+
+        assertThat(instance.isHeartbeat(new AgentRuntimeInfo(agent.getAgentIdentifier(), AgentRuntimeStatus.Building, currentWorkingDirectory(), "cookie"))).isFalse();
+        assertThat(instance.isHeartbeat(new AgentRuntimeInfo(agent.getAgentIdentifier(), AgentRuntimeStatus.Idle, currentWorkingDirectory(), "other-cookie"))).isFalse();
+        assertThat(instance.isHeartbeat(new AgentRuntimeInfo(new AgentIdentifier("CCeDev01", "10.18.7.52", "uuid2"), AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie"))).isFalse();
+    }
+
     @Test
     void shouldDefaultToMissingStatusWhenSyncAnApprovedAgent() {
         AgentInstance instance = AgentInstance.createFromAgent(agent, systemEnvironment, mock(AgentStatusChangeListener.class));
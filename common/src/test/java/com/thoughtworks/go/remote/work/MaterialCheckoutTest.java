@@ -0,0 +1,187 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.remote.work;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.remote.AgentIdentifier;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import com.thoughtworks.go.work.GoPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.thoughtworks.go.util.command.TaggedStreamConsumer.PREP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MaterialCheckoutTest {
+    @TempDir
+    File workingDirectory;
+
+    private GoPublisher goPublisher;
+    private ConsoleOutputStreamConsumer consumer;
+
+    @BeforeEach
+    public void setUp() {
+        goPublisher = mock(GoPublisher.class);
+        consumer = mock(ConsoleOutputStreamConsumer.class);
+    }
+
+    @Test
+    public void shouldCheckoutMaterialsInDisjointFoldersConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        MaterialRevision service = revision("service", "service", () -> awaitOther(bothStarted));
+        MaterialRevision library = revision("library", "library", () -> awaitOther(bothStarted));
+
+        checkout(4, service, library);
+
+        assertThat(bothStarted.getCount()).isZero();
+        verify(goPublisher).taggedConsumeLineWithPrefix(eq(PREP), startsWith("Finished updating material service in"));
+        verify(goPublisher).taggedConsumeLineWithPrefix(eq(PREP), startsWith("Finished updating material library in"));
+    }
+
+    @Test
+    public void shouldCheckoutMaterialsInNestedFoldersOneAfterTheOtherInConfiguredOrder() {
+        List<String> order = new CopyOnWriteArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        MaterialRevision parent = revision("parent", "app", () -> record("parent", order, running, maxRunning));
+        MaterialRevision child = revision("child", "app/lib", () -> record("child", order, running, maxRunning));
+        MaterialRevision sibling = revision("sibling", "app", () -> record("sibling", order, running, maxRunning));
+        MaterialRevision other = revision("other", "other", () -> {
+        });
+
+        checkout(4, parent, child, other, sibling);
+
+        assertThat(order).containsExactly("parent", "child", "sibling");
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldLabelConsoleOutputWithMaterialNameWhenCheckingOutConcurrently() {
+        MaterialRevision service = revision("service", "service", () -> {
+        });
+        MaterialRevision library = revision("library", "library", () -> {
+        });
+        doAnswer(invocation -> {
+            ConsoleOutputStreamConsumer materialConsumer = invocation.getArgument(1);
+            materialConsumer.stdOutput("line one\nline two\n");
+            return null;
+        }).when(service).updateTo(any(), any(), any());
+
+        checkout(4, service, library);
+
+        verify(consumer).taggedStdOutput(PREP, "[service] line one\n[service] line two\n");
+    }
+
+    @Test
+    public void shouldNotLabelConsoleOutputWhenCheckingOutOneAfterTheOther() {
+        MaterialRevision service = revision("service", "service", () -> {
+        });
+        doAnswer(invocation -> {
+            ConsoleOutputStreamConsumer materialConsumer = invocation.getArgument(1);
+            materialConsumer.stdOutput("line one");
+            return null;
+        }).when(service).updateTo(any(), any(), any());
+
+        checkout(1, service, revision("library", "library", () -> {
+        }));
+
+        verify(consumer).taggedStdOutput(PREP, "line one");
+    }
+
+    @Test
+    public void shouldFailCheckoutWhenAnyMaterialFails() {
+        MaterialRevision service = revision("service", "service", () -> {
+            throw new RuntimeException("checkout failed");
+        });
+        MaterialRevision library = revision("library", "library", () -> {
+        });
+
+        assertThatThrownBy(() -> checkout(4, service, library))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessage("checkout failed");
+    }
+
+    @Test
+    public void shouldStopRunningCheckoutsBeforeReturningWhenInterrupted() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch stopped = new CountDownLatch(2);
+        Runnable blockUntilInterrupted = () -> {
+            bothStarted.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                stopped.countDown();
+            }
+        };
+        MaterialRevision service = revision("service", "service", blockUntilInterrupted);
+        MaterialRevision library = revision("library", "library", blockUntilInterrupted);
+
+        Thread job = new Thread(() -> assertThatThrownBy(() -> checkout(4, service, library))
+            .hasMessage("Interrupted while checking out materials"));
+        job.start();
+        assertThat(bothStarted.await(10, TimeUnit.SECONDS)).isTrue();
+        job.interrupt();
+        job.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertThat(job.isAlive()).isFalse();
+        assertThat(stopped.getCount()).isZero();
+    }
+
+    private void checkout(int threads, MaterialRevision... revisions) {
+        new MaterialCheckout(workingDirectory, new AgentIdentifier("localhost", "127.0.0.1", "uuid"), null, goPublisher, consumer, threads).checkout(List.of(revisions));
+    }
+
+    private MaterialRevision revision(String name, String folder, Runnable onUpdate) {
+        GitMaterial material = new GitMaterial("https://example.com/" + name + ".git");
+        material.setName(new CaseInsensitiveString(name));
+        material.setFolder(folder);
+        MaterialRevision revision = mock(MaterialRevision.class);
+        when(revision.getMaterial()).thenReturn(material);
+        doAnswer(invocation -> {
+            onUpdate.run();
+            return null;
+        }).when(revision).updateTo(any(), any(), any());
+        return revision;
+    }
+
+    private static void awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void record(String name, List<String> order, AtomicInteger running, AtomicInteger maxRunning) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        order.add(name);
+        running.decrementAndGet();
+    }
+}
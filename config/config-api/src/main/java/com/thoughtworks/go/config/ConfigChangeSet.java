@@ -0,0 +1,223 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Understands what changed between two versions of the config, by comparing pipelines, pipeline groups, environments
+ * and templates by name. Everything else in the config is compared as a whole.
+ * <p>
+ * Templates are expanded into the pipelines that use them, so a pipeline whose template changed is itself changed.
+ */
+public class ConfigChangeSet {
+    private static final ConfigChangeSet EVERYTHING = new ConfigChangeSet(true, Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), false, null);
+
+    private final boolean everything;
+    private final Set<CaseInsensitiveString> addedPipelines;
+    private final Set<CaseInsensitiveString> removedPipelines;
+    private final Set<CaseInsensitiveString> changedPipelines;
+    private final Set<String> changedGroups;
+    private final Set<CaseInsensitiveString> changedEnvironments;
+    private final Set<CaseInsensitiveString> changedTemplates;
+    private final boolean otherConfigChanged;
+    private final CruiseConfig oldConfig;
+
+    private ConfigChangeSet(boolean everything, Set<CaseInsensitiveString> addedPipelines, Set<CaseInsensitiveString> removedPipelines,
+                            Set<CaseInsensitiveString> changedPipelines, Set<String> changedGroups, Set<CaseInsensitiveString> changedEnvironments,
+                            Set<CaseInsensitiveString> changedTemplates, boolean otherConfigChanged, CruiseConfig oldConfig) {
+        this.everything = everything;
+        this.addedPipelines = addedPipelines;
+        this.removedPipelines = removedPipelines;
+        this.changedPipelines = changedPipelines;
+        this.changedGroups = changedGroups;
+        this.changedEnvironments = changedEnvironments;
+        this.changedTemplates = changedTemplates;
+        this.otherConfigChanged = otherConfigChanged;
+        this.oldConfig = oldConfig;
+    }
+
+    /**
+     * A change set for when there is no earlier config to compare with, in which anything may have changed.
+     */
+    public static ConfigChangeSet everything() {
+        return EVERYTHING;
+    }
+
+    public static ConfigChangeSet between(CruiseConfig oldConfig, CruiseConfig newConfig) {
+        if (oldConfig == null || newConfig == null) {
+            return everything();
+        }
+        if (oldConfig == newConfig) {
+            return new ConfigChangeSet(false, Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), false, oldConfig);
+        }
+
+        Map<CaseInsensitiveString, PipelineInGroup> oldPipelines = pipelinesByName(oldConfig);
+        Map<CaseInsensitiveString, PipelineInGroup> newPipelines = pipelinesByName(newConfig);
+        Set<CaseInsensitiveString> added = new HashSet<>(newPipelines.keySet());
+        added.removeAll(oldPipelines.keySet());
+        Set<CaseInsensitiveString> removed = new HashSet<>(oldPipelines.keySet());
+        removed.removeAll(newPipelines.keySet());
+        Set<CaseInsensitiveString> changed = new HashSet<>();
+        newPipelines.forEach((name, pipeline) -> {
+            PipelineInGroup oldPipeline = oldPipelines.get(name);
+            if (oldPipeline != null && !oldPipeline.sameAs(pipeline)) {
+                changed.add(name);
+            }
+        });
+
+        Set<String> changedGroups = changed(groupsByName(oldConfig), groupsByName(newConfig),
+            (oldGroup, newGroup) -> Objects.equals(oldGroup.getAuthorization(), newGroup.getAuthorization()));
+        Set<CaseInsensitiveString> changedEnvironments = changed(byName(oldConfig.getEnvironments(), EnvironmentConfig::name),
+            byName(newConfig.getEnvironments(), EnvironmentConfig::name), Objects::equals);
+        Set<CaseInsensitiveString> changedTemplates = changed(byName(oldConfig.getTemplates(), PipelineTemplateConfig::name),
+            byName(newConfig.getTemplates(), PipelineTemplateConfig::name), Objects::equals);
+
+        return new ConfigChangeSet(false, added, removed, changed, changedGroups, changedEnvironments, changedTemplates,
+            otherConfigChanged(oldConfig, newConfig), oldConfig);
+    }
+
+    /**
+     * @return true if nothing but the definitions of individual pipelines changed: no pipeline group was added, removed
+     * or had its permissions changed, and no environment, template or config outside pipeline groups changed.
+     */
+    public boolean onlyPipelinesChanged() {
+        return !everything && changedGroups.isEmpty() && changedEnvironments.isEmpty() && changedTemplates.isEmpty() && !otherConfigChanged;
+    }
+
+    public boolean isEverything() {
+        return everything;
+    }
+
+    public boolean isEmpty() {
+        return onlyPipelinesChanged() && addedPipelines.isEmpty() && removedPipelines.isEmpty() && changedPipelines.isEmpty();
+    }
+
+    /**
+     * @return false only if the pipeline is known to be exactly as it was before.
+     */
+    public boolean mayHaveChanged(CaseInsensitiveString pipelineName) {
+        return everything || addedPipelines.contains(pipelineName) || removedPipelines.contains(pipelineName) || changedPipelines.contains(pipelineName);
+    }
+
+    /**
+     * @return the pipelines added, removed or changed, including pipelines moved to another group.
+     */
+    public Set<CaseInsensitiveString> affectedPipelines() {
+        Set<CaseInsensitiveString> affected = new HashSet<>(addedPipelines);
+        affected.addAll(removedPipelines);
+        affected.addAll(changedPipelines);
+        return affected;
+    }
+
+    public Set<CaseInsensitiveString> addedPipelines() {
+        return addedPipelines;
+    }
+
+    public Set<CaseInsensitiveString> removedPipelines() {
+        return removedPipelines;
+    }
+
+    public Set<CaseInsensitiveString> changedPipelines() {
+        return changedPipelines;
+    }
+
+    public Set<String> changedGroups() {
+        return changedGroups;
+    }
+
+    public Set<CaseInsensitiveString> changedEnvironments() {
+        return changedEnvironments;
+    }
+
+    public Set<CaseInsensitiveString> changedTemplates() {
+        return changedTemplates;
+    }
+
+    /**
+     * @return the config the changes were made to, or null if the change set is {@link #everything()}.
+     */
+    public CruiseConfig oldConfig() {
+        return oldConfig;
+    }
+
+    private static boolean otherConfigChanged(CruiseConfig oldConfig, CruiseConfig newConfig) {
+        return !Objects.equals(oldConfig.server(), newConfig.server()) ||
+            !Objects.equals(oldConfig.getElasticConfig(), newConfig.getElasticConfig()) ||
+            !Objects.equals(oldConfig.getPackageRepositories(), newConfig.getPackageRepositories()) ||
+            !Objects.equals(oldConfig.getSCMs(), newConfig.getSCMs()) ||
+            !Objects.equals(oldConfig.getConfigRepos(), newConfig.getConfigRepos()) ||
+            !Objects.equals(oldConfig.getArtifactStores(), newConfig.getArtifactStores()) ||
+            !Objects.equals(oldConfig.getSecretConfigs(), newConfig.getSecretConfigs());
+    }
+
+    private static Map<CaseInsensitiveString, PipelineInGroup> pipelinesByName(CruiseConfig config) {
+        Map<CaseInsensitiveString, PipelineInGroup> pipelines = new HashMap<>();
+        for (PipelineConfigs group : config.getGroups()) {
+            for (PipelineConfig pipeline : group) {
+                pipelines.put(pipeline.name(), new PipelineInGroup(group.getGroup(), pipeline));
+            }
+        }
+        return pipelines;
+    }
+
+    private static Map<String, PipelineConfigs> groupsByName(CruiseConfig config) {
+        Map<String, PipelineConfigs> groups = new HashMap<>();
+        for (PipelineConfigs group : config.getGroups()) {
+            groups.put(group.getGroup(), group);
+        }
+        return groups;
+    }
+
+    private static <K, V> Map<K, V> byName(Iterable<V> entities, Function<V, K> name) {
+        Map<K, V> byName = new HashMap<>();
+        for (V entity : entities) {
+            byName.put(name.apply(entity), entity);
+        }
+        return byName;
+    }
+
+    private static <K, V> Set<K> changed(Map<K, V> oldEntities, Map<K, V> newEntities, BiPredicate<V, V> same) {
+        Set<K> changed = new HashSet<>();
+        for (Map.Entry<K, V> entry : newEntities.entrySet()) {
+            V oldEntity = oldEntities.get(entry.getKey());
+            if (oldEntity == null || (oldEntity != entry.getValue() && !same.test(oldEntity, entry.getValue()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (K name : oldEntities.keySet()) {
+            if (!newEntities.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    private record PipelineInGroup(String group, PipelineConfig pipeline) {
+        boolean sameAs(PipelineInGroup other) {
+            return Objects.equals(group, other.group) &&
+                (pipeline == other.pipeline || (Objects.equals(pipeline, other.pipeline) && sameBeyondEquals(pipeline, other.pipeline)));
+        }
+
+        // PipelineConfig.equals leaves out where the pipeline came from and its position on the dashboard
+        private static boolean sameBeyondEquals(PipelineConfig pipeline, PipelineConfig other) {
+            return Objects.equals(pipeline.getOrigin(), other.getOrigin()) &&
+                pipeline.getDisplayOrderWeight() == other.getDisplayOrderWeight();
+        }
+    }
+}
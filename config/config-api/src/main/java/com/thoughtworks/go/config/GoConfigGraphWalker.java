@@ -15,10 +15,6 @@
  */
 package com.thoughtworks.go.config;
 
-import com.thoughtworks.go.config.preprocessor.ConcurrentFieldCache;
-
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Collection;
 
 /**
@@ -32,7 +28,7 @@ public class GoConfigGraphWalker {
     }
 
     public static boolean shouldWalk(Object obj) {
-        return obj != null && obj.getClass().getName().startsWith("com.thoughtworks");
+        return GoConfigWalkPlan.of(obj).isWalked();
     }
 
     public void walk(Validatable.Handler handler) {
@@ -40,7 +36,8 @@ public class GoConfigGraphWalker {
     }
 
     private void walkSubtree(Object current, ConfigSaveValidationContext context, Validatable.Handler handler) {
-        if (!shouldWalk(current)) {
+        GoConfigWalkPlan plan = GoConfigWalkPlan.of(current);
+        if (!plan.isWalked()) {
             return;
         }
         if (current instanceof Validatable validatable) {
@@ -48,28 +45,15 @@ public class GoConfigGraphWalker {
             context = context.withParent(validatable);
         }
         tryWalkCollection(current, context, handler);
-        tryWalkFields(current, context, handler);
+        tryWalkFields(plan, current, context, handler);
     }
 
-    private void tryWalkFields(Object current, ConfigSaveValidationContext ctx, Validatable.Handler handler) {
-        for (Field field : ConcurrentFieldCache.nonStaticOrSyntheticFieldsFor(current.getClass())) {
-            if (isFinal(field) || field.isAnnotationPresent(IgnoreTraversal.class)) {
-                continue;
-            }
-            try {
-                field.setAccessible(true);
-                walkSubtree(field.get(current), ctx, handler);
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
+    private void tryWalkFields(GoConfigWalkPlan plan, Object current, ConfigSaveValidationContext ctx, Validatable.Handler handler) {
+        for (int i = 0; i < plan.fieldCount(); i++) {
+            walkSubtree(plan.valueOf(i, current), ctx, handler);
         }
     }
 
-    private boolean isFinal(Field field) {
-        //MCCXL cannot assign value to final fields as it always uses the default constructor. Hence this assumption is OK
-        return Modifier.isFinal(field.getModifiers());
-    }
-
     private void tryWalkCollection(Object current, ConfigSaveValidationContext ctx, Validatable.Handler handler) {
         // We can only expect java to honor the contract of data structure interfaces(read: List),
         // and not depend on how they choose to implement it, so we short-circuit at a level that we know will continue to work(bad, but safe)
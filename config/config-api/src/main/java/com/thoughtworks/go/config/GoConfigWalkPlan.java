@@ -0,0 +1,78 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.preprocessor.ConcurrentFieldCache;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Understands which fields of a config class the graph walkers traverse. This is worked out once per class, so that
+ * walking a large config does not check the class name, the modifiers and annotations of every field, or make fields
+ * accessible, for each object it visits.
+ */
+class GoConfigWalkPlan {
+    private static final GoConfigWalkPlan NOT_WALKED = new GoConfigWalkPlan(false, List.of());
+
+    private static final ClassValue<GoConfigWalkPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected GoConfigWalkPlan computeValue(Class<?> type) {
+            if (!type.getName().startsWith("com.thoughtworks")) {
+                return NOT_WALKED;
+            }
+            List<Field> fields = ConcurrentFieldCache.nonStaticOrSyntheticFieldsFor(type).stream()
+                .filter(field -> !isFinal(field) && !field.isAnnotationPresent(IgnoreTraversal.class))
+                .toList();
+            fields.forEach(field -> field.setAccessible(true));
+            return new GoConfigWalkPlan(true, fields);
+        }
+    };
+
+    private final boolean walked;
+    private final List<Field> fields;
+
+    private GoConfigWalkPlan(boolean walked, List<Field> fields) {
+        this.walked = walked;
+        this.fields = fields;
+    }
+
+    static GoConfigWalkPlan of(Object obj) {
+        return obj == null ? NOT_WALKED : PLANS.get(obj.getClass());
+    }
+
+    boolean isWalked() {
+        return walked;
+    }
+
+    Object valueOf(int fieldIndex, Object obj) {
+        try {
+            return fields.get(fieldIndex).get(obj);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    int fieldCount() {
+        return fields.size();
+    }
+
+    private static boolean isFinal(Field field) {
+        // MCCXL cannot assign value to final fields as it always uses the default constructor. Hence this assumption is OK
+        return Modifier.isFinal(field.getModifiers());
+    }
+}
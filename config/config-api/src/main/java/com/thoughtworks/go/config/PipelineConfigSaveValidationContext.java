@@ -41,6 +41,7 @@ public class PipelineConfigSaveValidationContext implements ValidationContext {
     private JobConfig job;
     private MaterialConfigFingerprintMap materialConfigsFingerprintMap;
     private Map<CaseInsensitiveString, Node> dependencies;
+    private Map<CaseInsensitiveString, Set<CaseInsensitiveString>> downstreamsByUpstream;
 
     private PipelineConfigSaveValidationContext(Boolean isPipelineBeingCreated, String groupName, Validatable immediateParent) {
         this.isPipelineBeingCreated = isPipelineBeingCreated;
@@ -195,8 +196,41 @@ public class PipelineConfigSaveValidationContext implements ValidationContext {
         return cruiseConfig.getPackageRepositories().findByPackageId(packageId);
     }
 
-    public Set<CaseInsensitiveString> getPipelinesWithDependencyMaterials() {
-        return getDependencies().keySet();
+    /**
+     * @return the pipelines that depend on the given pipeline, directly or through other pipelines. Only these can
+     * refer to it in their dependency materials or fetch tasks.
+     */
+    public Set<CaseInsensitiveString> getDownstreamPipelinesOf(CaseInsensitiveString pipelineName) {
+        Map<CaseInsensitiveString, Set<CaseInsensitiveString>> downstreamsByUpstream = getDownstreamsByUpstream();
+        Set<CaseInsensitiveString> downstreams = new LinkedHashSet<>();
+        Deque<CaseInsensitiveString> toVisit = new ArrayDeque<>(List.of(pipelineName));
+        while (!toVisit.isEmpty()) {
+            for (CaseInsensitiveString downstream : downstreamsByUpstream.getOrDefault(toVisit.pop(), Set.of())) {
+                if (downstreams.add(downstream)) {
+                    toVisit.push(downstream);
+                }
+            }
+        }
+        return downstreams;
+    }
+
+    /**
+     * Built once for the config being validated and shared with the contexts of its pipelines, stages and jobs.
+     */
+    private Map<CaseInsensitiveString, Set<CaseInsensitiveString>> getDownstreamsByUpstream() {
+        if (parentContext != null && parentContext.cruiseConfig == cruiseConfig) {
+            return parentContext.getDownstreamsByUpstream();
+        }
+        if (downstreamsByUpstream == null) {
+            Map<CaseInsensitiveString, Set<CaseInsensitiveString>> reverse = new HashMap<>();
+            getDependencies().forEach((downstream, node) -> {
+                for (Node.DependencyNode dependency : node.getDependencies()) {
+                    reverse.computeIfAbsent(dependency.getPipelineName(), k -> new HashSet<>()).add(downstream);
+                }
+            });
+            downstreamsByUpstream = reverse;
+        }
+        return downstreamsByUpstream;
     }
 
     private Map<CaseInsensitiveString, Node> getDependencies() {
@@ -86,7 +86,7 @@ public class PipelineConfigTreeValidator {
         if (validationContext.isPipelineBeingCreated()) {
             return;
         }
-        for (CaseInsensitiveString selected : validationContext.getPipelinesWithDependencyMaterials()) {
+        for (CaseInsensitiveString selected : validationContext.getDownstreamPipelinesOf(pipelineConfig.name())) {
             if (selected.equals(pipelineConfig.name())) {
                 continue;
             }
@@ -20,20 +20,31 @@ import com.thoughtworks.go.config.GoConfigPreprocessor;
 import com.thoughtworks.go.config.ParamsConfig;
 import com.thoughtworks.go.config.PipelineConfig;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Understands Interpolation of config parameters
  */
 public class ConfigParamPreprocessor implements GoConfigPreprocessor {
 
     private final ParamResolver resolver;
+    private final PipelinePreprocessingPool pool;
 
     public ConfigParamPreprocessor() {
+        this(PipelinePreprocessingPool.sequential());
+    }
+
+    public ConfigParamPreprocessor(PipelinePreprocessingPool pool) {
         this.resolver = new ParamResolver(new ParamSubstitutionHandlerFactory(new ParamsConfig()));
+        this.pool = pool;
     }
 
     @Override
     public void process(CruiseConfig cruiseConfig) {
-        resolver.resolve(cruiseConfig);
+        List<PipelineConfig> pipelines = new ArrayList<>();
+        resolver.deferringPipelinesTo(pipelines::add).resolve(cruiseConfig);
+        pool.forEach(pipelines, resolver::resolve);
     }
 
     public void process(PipelineConfig pipelineConfig) {
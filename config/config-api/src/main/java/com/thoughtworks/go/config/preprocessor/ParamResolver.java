@@ -21,18 +21,37 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 public class ParamResolver {
     private final ParamHandlerFactory paramHandlerFactory;
+    private final Consumer<PipelineConfig> deferredPipelines;
 
     public ParamResolver(ParamHandlerFactory paramHandlerFactory) {
+        this(paramHandlerFactory, null);
+    }
+
+    private ParamResolver(ParamHandlerFactory paramHandlerFactory, Consumer<PipelineConfig> deferredPipelines) {
         this.paramHandlerFactory = paramHandlerFactory;
+        this.deferredPipelines = deferredPipelines;
+    }
+
+    /**
+     * @return a resolver that hands each pipeline it comes across to the consumer instead of resolving it, so that
+     * pipelines can be resolved separately. Everything outside pipelines is resolved as usual.
+     */
+    public ParamResolver deferringPipelinesTo(Consumer<PipelineConfig> deferredPipelines) {
+        return new ParamResolver(paramHandlerFactory, deferredPipelines);
     }
 
     public <T> void resolve(T resolvable) {
+        if (deferredPipelines != null && resolvable instanceof PipelineConfig pipelineConfig) {
+            deferredPipelines.accept(pipelineConfig);
+            return;
+        }
         ParamResolver resolver = this;
         if (resolvable instanceof ParamScope newScope) {
             resolver = newScope.applyOver(resolver);
@@ -43,7 +62,7 @@ public class ParamResolver {
     }
 
     public ParamResolver override(ParamsConfig params) {
-         return new ParamResolver(paramHandlerFactory.override(params));
+         return new ParamResolver(paramHandlerFactory.override(params), deferredPipelines);
      }
 
     private <T> void resolveNodes(T resolvable, ParamResolver resolver) {
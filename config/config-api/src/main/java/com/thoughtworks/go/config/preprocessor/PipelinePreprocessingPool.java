@@ -0,0 +1,48 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config.preprocessor;
+
+import com.thoughtworks.go.config.PipelineConfig;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Understands running a preprocessing step over each pipeline, on up to a given number of threads. Steps given to it
+ * must only change the pipeline they are run on.
+ */
+public class PipelinePreprocessingPool {
+    private static final PipelinePreprocessingPool SEQUENTIAL = new PipelinePreprocessingPool(1);
+
+    private final ForkJoinPool pool;
+
+    public PipelinePreprocessingPool(int threads) {
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    public static PipelinePreprocessingPool sequential() {
+        return SEQUENTIAL;
+    }
+
+    public void forEach(List<PipelineConfig> pipelines, Consumer<PipelineConfig> step) {
+        if (pool == null || pipelines.size() < 2) {
+            pipelines.forEach(step);
+            return;
+        }
+        pool.submit(() -> pipelines.parallelStream().forEach(step)).join();
+    }
+}
@@ -15,19 +15,12 @@
  */
 package com.thoughtworks.go.util;
 
-import org.jdom2.input.sax.XMLReaders;
+import org.jdom2.input.sax.XMLReaderSchemaFactory;
 
-import java.net.URI;
+import javax.xml.validation.Schema;
 
 class ValidatingSaxBuilder extends SafeSaxBuilder {
-    public ValidatingSaxBuilder() {
-        super();
-        this.setFeature("http://apache.org/xml/features/validation/schema", true);
-        this.setXMLReaderFactory(XMLReaders.XSDVALIDATING);
-    }
-
-    public ValidatingSaxBuilder(URI schemaLocation) {
-        this();
-        this.setProperty("http://apache.org/xml/properties/schema/external-noNamespaceSchemaLocation", schemaLocation.toString());
+    public ValidatingSaxBuilder(Schema schema) {
+        super(new XMLReaderSchemaFactory(schema));
     }
 }
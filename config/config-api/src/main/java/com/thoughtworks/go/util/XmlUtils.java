@@ -20,12 +20,24 @@ import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
+import org.xml.sax.SAXException;
 
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
 import java.io.*;
+import java.net.MalformedURLException;
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
 public class XmlUtils {
+    // Compiling a schema takes much longer than validating a config against it, so each is only compiled once
+    private static final Map<URI, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
     public static void writeXml(Document document, OutputStream outputStream) throws IOException {
         xmlOutputter().output(document, outputStream);
     }
@@ -52,7 +64,7 @@ public class XmlUtils {
     }
 
     public static Document buildValidatedXmlDocument(InputStream inputStream, URI schemaLocation) throws IOException, JDOMException {
-        ValidatingSaxBuilder builder = new ValidatingSaxBuilder(schemaLocation);
+        ValidatingSaxBuilder builder = new ValidatingSaxBuilder(SCHEMAS.computeIfAbsent(schemaLocation, XmlUtils::compileSchema));
         XsdErrorTranslator errorHandler = new XsdErrorTranslator();
         builder.setErrorHandler(errorHandler);
 
@@ -63,6 +75,14 @@ public class XmlUtils {
         return document;
     }
 
+    private static Schema compileSchema(URI schemaLocation) {
+        try {
+            return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaLocation.toURL());
+        } catch (SAXException | MalformedURLException e) {
+            throw bomb("Unable to load schema " + schemaLocation, e);
+        }
+    }
+
     public static boolean doesNotMatchUsingXsdRegex(Pattern pattern, String textToMatch) {
         return !matchUsingRegex(pattern, textToMatch);
     }
@@ -0,0 +1,106 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.helper.GoConfigMother;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.thoughtworks.go.helper.GoConfigMother.deepClone;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigChangeSetTest {
+    private BasicCruiseConfig oldConfig;
+    private BasicCruiseConfig newConfig;
+
+    @BeforeEach
+    void setUp() {
+        oldConfig = GoConfigMother.configWithPipelines("p1", "p2", "p3");
+        newConfig = deepClone(oldConfig);
+    }
+
+    @Test
+    void shouldBeEverythingWhenThereIsNoOldConfig() {
+        ConfigChangeSet changes = ConfigChangeSet.between(null, newConfig);
+
+        assertThat(changes.isEverything()).isTrue();
+        assertThat(changes.onlyPipelinesChanged()).isFalse();
+        assertThat(changes.mayHaveChanged(new CaseInsensitiveString("anything"))).isTrue();
+    }
+
+    @Test
+    void shouldBeEmptyWhenNothingChanged() {
+        ConfigChangeSet changes = ConfigChangeSet.between(oldConfig, newConfig);
+
+        assertThat(changes.isEmpty()).isTrue();
+        assertThat(changes.onlyPipelinesChanged()).isTrue();
+        assertThat(changes.mayHaveChanged(new CaseInsensitiveString("p1"))).isFalse();
+    }
+
+    @Test
+    void shouldFindPipelinesThatWereAddedRemovedOrChanged() {
+        newConfig.getGroups().first().remove(newConfig.pipelineConfigByName(new CaseInsensitiveString("p3")));
+        newConfig.pipelineConfigByName(new CaseInsensitiveString("p2")).getFirstStageConfig().getJobs().first().setTimeout("10");
+        new GoConfigMother().addPipeline(newConfig, "p4", "stage", "job");
+
+        ConfigChangeSet changes = ConfigChangeSet.between(oldConfig, newConfig);
+
+        assertThat(changes.onlyPipelinesChanged()).isTrue();
+        assertThat(changes.addedPipelines()).containsExactly(new CaseInsensitiveString("p4"));
+        assertThat(changes.removedPipelines()).containsExactly(new CaseInsensitiveString("p3"));
+        assertThat(changes.changedPipelines()).containsExactly(new CaseInsensitiveString("p2"));
+        assertThat(changes.affectedPipelines()).containsExactlyInAnyOrder(new CaseInsensitiveString("p2"), new CaseInsensitiveString("p3"), new CaseInsensitiveString("p4"));
+        assertThat(changes.mayHaveChanged(new CaseInsensitiveString("p1"))).isFalse();
+    }
+
+    @Test
+    void shouldTreatAPipelineWhoseDisplayOrderChangedAsChanged() {
+        newConfig.pipelineConfigByName(new CaseInsensitiveString("p2")).setDisplayOrderWeight(5);
+
+        ConfigChangeSet changes = ConfigChangeSet.between(oldConfig, newConfig);
+
+        assertThat(changes.changedPipelines()).containsExactly(new CaseInsensitiveString("p2"));
+        assertThat(changes.mayHaveChanged(new CaseInsensitiveString("p1"))).isFalse();
+    }
+
+    @Test
+    void shouldTreatAPipelineMovedToAnotherGroupAsChanged() {
+        PipelineConfig p1 = newConfig.pipelineConfigByName(new CaseInsensitiveString("p1"));
+        newConfig.getGroups().first().remove(p1);
+        newConfig.addPipeline("another-group", p1);
+
+        ConfigChangeSet changes = ConfigChangeSet.between(oldConfig, newConfig);
+
+        assertThat(changes.changedPipelines()).containsExactly(new CaseInsensitiveString("p1"));
+        assertThat(changes.changedGroups()).containsExactly("another-group");
+        assertThat(changes.onlyPipelinesChanged()).isFalse();
+    }
+
+    @Test
+    void shouldNotBeOnlyPipelinesWhenEnvironmentsOrServerConfigChange() {
+        newConfig.addEnvironment("uat");
+
+        ConfigChangeSet changes = ConfigChangeSet.between(oldConfig, newConfig);
+
+        assertThat(changes.changedEnvironments()).containsExactly(new CaseInsensitiveString("uat"));
+        assertThat(changes.onlyPipelinesChanged()).isFalse();
+
+        newConfig = deepClone(oldConfig);
+        newConfig.server().setJobTimeout("42");
+
+        assertThat(ConfigChangeSet.between(oldConfig, newConfig).onlyPipelinesChanged()).isFalse();
+    }
+}
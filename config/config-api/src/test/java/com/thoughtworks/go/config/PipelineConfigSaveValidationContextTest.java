@@ -40,7 +40,7 @@ import static com.thoughtworks.go.helper.MaterialConfigsMother.hg;
 import static com.thoughtworks.go.helper.PipelineConfigMother.pipelineConfig;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.*;
 
 class PipelineConfigSaveValidationContextTest {
 
@@ -113,6 +113,36 @@ class PipelineConfigSaveValidationContextTest {
         assertThat(context.getDependencyMaterialsFor(new CaseInsensitiveString("junk")).getDependencies().isEmpty()).isTrue();
     }
 
+    @Test
+    void shouldGetPipelinesDownstreamOfAPipeline() {
+        BasicCruiseConfig cruiseConfig = GoConfigMother.configWithPipelines("p1", "p2", "p3", "p4");
+        cruiseConfig.getPipelineConfigByName(new CaseInsensitiveString("p2")).addMaterialConfig(new DependencyMaterialConfig(new CaseInsensitiveString("p1"), new CaseInsensitiveString("stage")));
+        cruiseConfig.getPipelineConfigByName(new CaseInsensitiveString("p3")).addMaterialConfig(new DependencyMaterialConfig(new CaseInsensitiveString("p2"), new CaseInsensitiveString("stage")));
+        PipelineConfigSaveValidationContext context = PipelineConfigSaveValidationContext.forChain(true, "group", cruiseConfig);
+
+        assertThat(context.getDownstreamPipelinesOf(new CaseInsensitiveString("p1"))).containsExactlyInAnyOrder(new CaseInsensitiveString("p2"), new CaseInsensitiveString("p3"));
+        assertThat(context.getDownstreamPipelinesOf(new CaseInsensitiveString("p2"))).containsExactly(new CaseInsensitiveString("p3"));
+        assertThat(context.getDownstreamPipelinesOf(new CaseInsensitiveString("p4"))).isEmpty();
+    }
+
+    @Test
+    void shouldWorkOutDownstreamPipelinesOnceForTheWholeConfig() {
+        BasicCruiseConfig cruiseConfig = spy(GoConfigMother.configWithPipelines("p1", "p2", "p3"));
+        PipelineConfig p2 = cruiseConfig.getPipelineConfigByName(new CaseInsensitiveString("p2"));
+        PipelineConfig p3 = cruiseConfig.getPipelineConfigByName(new CaseInsensitiveString("p3"));
+        p2.addMaterialConfig(new DependencyMaterialConfig(new CaseInsensitiveString("p1"), new CaseInsensitiveString("stage")));
+        p3.addMaterialConfig(new DependencyMaterialConfig(new CaseInsensitiveString("p2"), new CaseInsensitiveString("stage")));
+        clearInvocations(cruiseConfig);
+        PipelineConfigSaveValidationContext context = PipelineConfigSaveValidationContext.forChain(false, "group", cruiseConfig);
+
+        assertThat(context.withParent(p2).getDownstreamPipelinesOf(new CaseInsensitiveString("p2"))).containsExactly(new CaseInsensitiveString("p3"));
+        assertThat(context.withParent(p3).withParent(p3.first()).getDownstreamPipelinesOf(new CaseInsensitiveString("p1")))
+            .containsExactlyInAnyOrder(new CaseInsensitiveString("p2"), new CaseInsensitiveString("p3"));
+        assertThat(context.getDownstreamPipelinesOf(new CaseInsensitiveString("p3"))).isEmpty();
+
+        verify(cruiseConfig, times(1)).getAllPipelineConfigs();
+    }
+
     @Test
     void shouldGetParentDisplayName() {
         assertThat(PipelineConfigSaveValidationContext.forChain(true, "group", new PipelineConfig()).getParentDisplayName()).isEqualTo("pipeline");
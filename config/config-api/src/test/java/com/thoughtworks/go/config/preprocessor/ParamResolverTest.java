@@ -27,6 +27,7 @@ import com.thoughtworks.go.helper.MaterialConfigsMother;
 import com.thoughtworks.go.helper.PipelineConfigMother;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -193,6 +194,27 @@ public class ParamResolverTest {
         assertThat(pipelineConfig.materialConfigs().get(1).getUriForDisplay()).isEqualTo("http://pavan.com/jj");
     }
 
+    @Test
+    public void shouldHandDeferredPipelinesToTheConsumerInsteadOfResolvingThem() {
+        PipelineConfig first = PipelineConfigMother.createPipelineConfig("first", "dev", "ant");
+        first.setLabelTemplate("#{foo}-${COUNT}");
+        PipelineConfig second = PipelineConfigMother.createPipelineConfig("second", "dev", "ant");
+        second.setLabelTemplate("#{foo}-${COUNT}");
+        MergePipelineConfigs merge = new MergePipelineConfigs(new BasicPipelineConfigs(first), new BasicPipelineConfigs(second));
+        ParamResolver resolver = new ParamResolver(new ParamSubstitutionHandlerFactory(params(param("foo", "pavan"))));
+        List<PipelineConfig> deferred = new ArrayList<>();
+
+        resolver.deferringPipelinesTo(deferred::add).resolve(merge);
+
+        assertThat(deferred).containsExactly(first, second);
+        assertThat(first.getLabelTemplate()).isEqualTo("#{foo}-${COUNT}");
+
+        deferred.forEach(resolver::resolve);
+
+        assertThat(first.getLabelTemplate()).isEqualTo("pavan-${COUNT}");
+        assertThat(second.getLabelTemplate()).isEqualTo("pavan-${COUNT}");
+    }
+
     @Test
     public void shouldProvideContextWhenAnExceptionOccurs() {
         PipelineConfig pipelineConfig = PipelineConfigMother.createPipelineConfig("cruise", "dev", "ant");
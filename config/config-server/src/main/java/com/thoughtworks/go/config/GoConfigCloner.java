@@ -16,8 +16,13 @@
 package com.thoughtworks.go.config;
 
 import com.rits.cloning.Cloner;
+import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.util.ClonerFactory;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 // Cloner to handle nullification of specific classes in config objects.
 // A specific field can be ignored from being cloned by setting `cloner.setNullTransient(true)` and marking the field as 'transient',
 // but if the object being cloned has other fields which have transient fields internally,
@@ -32,4 +37,24 @@ public class GoConfigCloner extends Cloner {
         nullInsteadOfClone(BasicCruiseConfig.DO_NOT_CLONE_CLASSES);
         ClonerFactory.applyFixes(this);
     }
+
+    /**
+     * Clones the config, but shares its partials with the clone instead of copying them. Only for a clone that is going
+     * to be given other partials, or that merges in the partials it is given (which merging uses as they are).
+     */
+    public <T extends CruiseConfig> T deepCloneSharingPartials(T config) {
+        Map<Object, Object> clones = new IdentityHashMap<>();
+        List<PartialConfig> partials = config.getPartials();
+        if (partials != null) {
+            clones.put(partials, partials);
+            partials.forEach(partial -> clones.put(partial, partial));
+        }
+        try {
+            return cloneInternal(config, clones);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("error during cloning of " + config, e);
+        }
+    }
 }
@@ -18,13 +18,15 @@ package com.thoughtworks.go.config;
 import com.thoughtworks.go.domain.GoConfigRevision;
 import com.thoughtworks.go.util.TimeProvider;
 import com.thoughtworks.go.util.XmlUtils;
-import org.jdom2.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -51,6 +53,7 @@ public class GoConfigMigration {
     private static final Logger LOG = LoggerFactory.getLogger(GoConfigMigration.class.getName());
     private static final DateTimeFormatter BACKUP_FILE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
     private static final int XPATH_EXPRESSION_OPERATION_LIMIT = 200;
+    private static final XMLInputFactory XML_INPUT_FACTORY = xmlInputFactory();
 
     private final TimeProvider timeProvider;
 
@@ -153,15 +156,34 @@ public class GoConfigMigration {
         }
     }
 
+    // Only the root element is read, as the whole config is parsed again when it is validated
     private int getCurrentSchemaVersion(String content) {
+        XMLStreamReader reader = null;
         try {
-            Element root = XmlUtils.buildXmlDocument(content).getRootElement();
-
-            String schemaVersion = "schemaVersion";
-            String currentVersion = root.getAttributeValue(schemaVersion) == null ? "0" : root.getAttributeValue(schemaVersion);
-            return Integer.parseInt(currentVersion);
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(content));
+            reader.nextTag();
+            String currentVersion = reader.getAttributeValue(null, "schemaVersion");
+            return Integer.parseInt(currentVersion == null ? "0" : currentVersion);
         } catch (Exception e) {
             throw bomb(e);
+        } finally {
+            closeQuietly(reader);
         }
     }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+        } catch (XMLStreamException ignored) {
+        }
+    }
+
+    private static XMLInputFactory xmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
 }
@@ -20,6 +20,7 @@ import com.thoughtworks.go.config.exceptions.GoConfigInvalidMergeException;
 import com.thoughtworks.go.config.parser.ConfigReferenceElements;
 import com.thoughtworks.go.config.preprocessor.ConfigParamPreprocessor;
 import com.thoughtworks.go.config.preprocessor.ConfigRepoPartialPreprocessor;
+import com.thoughtworks.go.config.preprocessor.PipelinePreprocessingPool;
 import com.thoughtworks.go.config.preprocessor.TemplateExpansionPreprocessor;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.config.remote.FileConfigOrigin;
@@ -47,12 +48,15 @@ import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 public class MagicalGoConfigXmlLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(MagicalGoConfigXmlLoader.class);
+    // same name as the server's PerformanceLogger, so that config preprocessing timings are logged along with the rest
+    private static final Logger PERFORMANCE_LOGGER = LoggerFactory.getLogger("PerformanceLogger");
+    private static final SystemEnvironment systemEnvironment = new SystemEnvironment();
+    private static final PipelinePreprocessingPool PREPROCESSING_POOL = new PipelinePreprocessingPool(systemEnvironment.get(SystemEnvironment.CONFIG_PREPROCESS_THREADS));
     private static final List<GoConfigPreprocessor> PREPROCESSORS = List.of(
             new ConfigRepoPartialPreprocessor(),
-            new TemplateExpansionPreprocessor(),
-            new ConfigParamPreprocessor());
+            new TemplateExpansionPreprocessor(PREPROCESSING_POOL),
+            new ConfigParamPreprocessor(PREPROCESSING_POOL));
     private static final List<GoConfigXMLValidator> XML_VALIDATORS = List.of(new UniqueOnCancelValidator());
-    private static final SystemEnvironment systemEnvironment = new SystemEnvironment();
     public static final List<GoConfigValidator> VALIDATORS = List.of(
             new ArtifactDirValidator(),
             new ServerIdImmutabilityValidator(),
@@ -78,12 +82,21 @@ public class MagicalGoConfigXmlLoader {
 
     public static List<ConfigErrors> validate(CruiseConfig config) {
         preprocess(config);
-        return config.validateAfterPreprocess();
+        long start = System.currentTimeMillis();
+        List<ConfigErrors> errors = config.validateAfterPreprocess();
+        if (PERFORMANCE_LOGGER.isDebugEnabled()) {
+            PERFORMANCE_LOGGER.debug("CONFIG-VALIDATE {} ms", System.currentTimeMillis() - start);
+        }
+        return errors;
     }
 
     public static void preprocess(CruiseConfig cruiseConfig) {
         for (GoConfigPreprocessor preProcessor : PREPROCESSORS) {
+            long start = System.currentTimeMillis();
             preProcessor.process(cruiseConfig);
+            if (PERFORMANCE_LOGGER.isDebugEnabled()) {
+                PERFORMANCE_LOGGER.debug("CONFIG-PREPROCESS {} {} ms", preProcessor.getClass().getSimpleName(), System.currentTimeMillis() - start);
+            }
         }
     }
 
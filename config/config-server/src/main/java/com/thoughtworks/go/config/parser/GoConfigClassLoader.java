@@ -28,6 +28,7 @@ import javax.annotation.PostConstruct;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -38,6 +39,12 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 
 public class GoConfigClassLoader<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(GoConfigClassLoader.class);
+    private static final ClassValue<List<Method>> POST_CONSTRUCT_METHODS = new ClassValue<>() {
+        @Override
+        protected List<Method> computeValue(Class<?> type) {
+            return Arrays.stream(type.getMethods()).filter(method -> method.isAnnotationPresent(PostConstruct.class)).toList();
+        }
+    };
 
     private final Element e;
     private final Class<T> aClass;
@@ -82,15 +89,12 @@ public class GoConfigClassLoader<T> {
     }
 
     private void postConstruct(T o) {
-        Method[] methods = o.getClass().getMethods();
-        for (Method method : methods) {
-            if (method.isAnnotationPresent(PostConstruct.class)) {
-                try {
-                    method.invoke(o);
-                } catch (Exception e) {
-                    LOGGER.error("Failed to save config: ", e);
-                    throw bomb(e);
-                }
+        for (Method method : POST_CONSTRUCT_METHODS.get(o.getClass())) {
+            try {
+                method.invoke(o);
+            } catch (Exception e) {
+                LOGGER.error("Failed to save config: ", e);
+                throw bomb(e);
             }
         }
     }
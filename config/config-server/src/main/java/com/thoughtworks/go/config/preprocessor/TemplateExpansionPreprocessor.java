@@ -22,9 +22,19 @@ import com.thoughtworks.go.config.*;
  * Understands de-referencing template body into pipeline
  */
 public class TemplateExpansionPreprocessor implements GoConfigPreprocessor {
+    private final PipelinePreprocessingPool pool;
+
+    public TemplateExpansionPreprocessor() {
+        this(PipelinePreprocessingPool.sequential());
+    }
+
+    public TemplateExpansionPreprocessor(PipelinePreprocessingPool pool) {
+        this.pool = pool;
+    }
+
     @Override
     public void process(CruiseConfig cruiseConfig) {
-        for (PipelineConfig pipelineConfig : cruiseConfig.getAllPipelineConfigs()) {
+        pool.forEach(cruiseConfig.getAllPipelineConfigs(), pipelineConfig -> {
             if (pipelineConfig.hasTemplate()) {
                 CaseInsensitiveString templateName = pipelineConfig.getTemplateName();
                 PipelineTemplateConfig pipelineTemplate = cruiseConfig.findTemplate(templateName);
@@ -33,6 +43,6 @@ public class TemplateExpansionPreprocessor implements GoConfigPreprocessor {
                     pipelineConfig.usingTemplate(pipelineTemplate);
                 }
             }
-        }
+        });
     }
 }
\ No newline at end of file
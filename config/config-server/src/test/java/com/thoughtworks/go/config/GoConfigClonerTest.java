@@ -15,7 +15,9 @@
  */
 package com.thoughtworks.go.config;
 
+import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.helper.GoConfigMother;
+import com.thoughtworks.go.helper.PartialConfigMother;
 import com.thoughtworks.go.helper.PipelineConfigMother;
 import com.thoughtworks.go.helper.PipelineTemplateConfigMother;
 import com.thoughtworks.go.util.ReflectionUtil;
@@ -125,4 +127,19 @@ public class GoConfigClonerTest {
         assertThat(cloned.getGroups().size()).isEqualTo(1);
         assertThat(cloned.getGroups().getFirst().getPipelines().size()).isEqualTo(2);
     }
+
+    @Test
+    public void shouldShareThePartialsOfAConfigWhenAskedTo() {
+        BasicCruiseConfig config = GoConfigMother.configWithPipelines("p1", "p2");
+        PartialConfig partial = PartialConfigMother.withPipeline("remote-pipe");
+        config.setPartials(new ArrayList<>(List.of(partial)));
+
+        BasicCruiseConfig cloned = new GoConfigCloner().deepCloneSharingPartials(config);
+
+        assertThat(cloned).isNotSameAs(config);
+        assertThat(cloned.getPartials()).isSameAs(config.getPartials());
+        assertThat(cloned.getPartials().getFirst()).isSameAs(partial);
+        assertThat(cloned.getGroups().getFirst()).isNotSameAs(config.getGroups().getFirst());
+        assertThat(cloned.getGroups().getFirst().getPipelines()).hasSize(2);
+    }
 }
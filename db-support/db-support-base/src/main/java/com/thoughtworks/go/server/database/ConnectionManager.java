@@ -25,6 +25,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.function.Function;
@@ -34,6 +35,9 @@ public class ConnectionManager {
     @Getter(lazy = true)
     private final BasicDataSource dataSourceInstance = createDataSource();
 
+    @Getter(lazy = true)
+    private final Optional<BasicDataSource> replicaDataSourceInstance = createReplicaDataSource();
+
     @Getter(lazy = true)
     private final BackupProcessor backupProcessor = createBackupProcessor();
 
@@ -71,6 +75,28 @@ public class ConnectionManager {
         return basicDataSource;
     }
 
+    private Optional<BasicDataSource> createReplicaDataSource() {
+        final DbProperties dbProperties = getDbProperties();
+        if (!dbProperties.hasReplica()) {
+            return Optional.empty();
+        }
+        log.info("Using read replica at {} for queries that tolerate stale data", dbProperties.replicaUrl());
+
+        BasicDataSource basicDataSource = new BasicDataSource();
+        basicDataSource.setDriverClassName(dbProperties.driver());
+        basicDataSource.setUrl(dbProperties.replicaUrl());
+        basicDataSource.setUsername(dbProperties.replicaUser());
+        basicDataSource.setPassword(dbProperties.replicaPassword());
+        basicDataSource.setConnectionProperties(dbProperties.connectionPropertiesAsString());
+        basicDataSource.setDefaultReadOnly(true);
+
+        // Set pool behaviour
+        basicDataSource.setMaxIdle(dbProperties.replicaMaxIdle());
+        basicDataSource.setMaxTotal(dbProperties.replicaMaxTotal());
+
+        return Optional.of(basicDataSource);
+    }
+
     private static boolean isDefaultH2Database(DbProperties dbProperties) {
         return dbProperties.url().isBlank();
     }
@@ -47,6 +47,11 @@ public class DbProperties {
     @NonNull private String extraBackupCommandArgs;
     private Map<String, String> extraBackupEnv;
     private Properties connectionProperties;
+    @NonNull private String replicaUrl;
+    @NonNull private String replicaUser;
+    @NonNull private String replicaPassword;
+    private int replicaMaxIdle;
+    private int replicaMaxTotal;
 
     public DbProperties initializeFrom(Properties properties, Function<String, String> decrypter) {
         this.url = properties.getProperty("db.url", "");
@@ -54,7 +59,12 @@ public class DbProperties {
         this.driver = properties.getProperty("db.driver");
         this.maxIdle = Integer.parseInt(properties.getProperty("db.maxIdle", "32"));
         this.maxTotal = Integer.parseInt(properties.getProperty("db.maxActive", "32"));
-        this.password = findPassword(properties, decrypter);
+        this.password = findPassword(properties, decrypter, "db.");
+        this.replicaUrl = properties.getProperty("db.replica.url", "");
+        this.replicaUser = properties.getProperty("db.replica.user", this.user);
+        this.replicaPassword = hasPassword(properties, "db.replica.") ? findPassword(properties, decrypter, "db.replica.") : this.password;
+        this.replicaMaxIdle = Integer.parseInt(properties.getProperty("db.replica.maxIdle", String.valueOf(this.maxIdle)));
+        this.replicaMaxTotal = Integer.parseInt(properties.getProperty("db.replica.maxActive", String.valueOf(this.maxTotal)));
         this.extraBackupCommandArgs = properties.getProperty("db.extraBackupCommandArgs", "");
 
         this.connectionProperties = new Properties();
@@ -77,9 +87,20 @@ public class DbProperties {
         return url != null && url.startsWith("jdbc:postgresql:");
     }
 
-    private String findPassword(Properties properties, Function<String, String> decrypter) {
-        String password = properties.getProperty("db.password", "");
-        String encryptedPassword = properties.getProperty("db.encryptedPassword", "");
+    /**
+     * Whether a read replica is configured, to serve queries that can tolerate slightly stale data.
+     */
+    public boolean hasReplica() {
+        return !replicaUrl.isBlank();
+    }
+
+    private boolean hasPassword(Properties properties, String prefix) {
+        return properties.containsKey(prefix + "password") || properties.containsKey(prefix + "encryptedPassword");
+    }
+
+    private String findPassword(Properties properties, Function<String, String> decrypter, String prefix) {
+        String password = properties.getProperty(prefix + "password", "");
+        String encryptedPassword = properties.getProperty(prefix + "encryptedPassword", "");
 
         if (!encryptedPassword.isBlank()) {
             return decrypter.apply(encryptedPassword);
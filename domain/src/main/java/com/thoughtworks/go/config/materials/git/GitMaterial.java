@@ -23,10 +23,12 @@ import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.materials.*;
 import com.thoughtworks.go.domain.materials.git.GitCommand;
 import com.thoughtworks.go.domain.materials.git.GitMaterialInstance;
+import com.thoughtworks.go.domain.materials.git.GitObjectStore;
 import com.thoughtworks.go.domain.materials.git.GitVersion;
 import com.thoughtworks.go.domain.materials.svn.MaterialUrl;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import com.thoughtworks.go.util.GoConstants;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.*;
 import org.apache.commons.io.FileUtils;
 import org.apache.http.client.utils.URIBuilder;
@@ -136,6 +138,22 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
         }
     }
 
+    /**
+     * Cheaply checks (via <code>ls-remote</code>) whether the upstream ref still points at the given revision,
+     * so that callers can avoid a full fetch when nothing has changed. Runs in the material's working copy when there
+     * is one, like the fetch it stands in for, but never creates it.
+     */
+    public boolean isUpstreamAt(File baseDir, Revision revision, final SubprocessExecutionContext execCtx) {
+        if (isSubmoduleFolder() || revision == null) {
+            return false;
+        }
+        File workingDir = execCtx.isServer() ? baseDir : workingdir(baseDir);
+        GitCommand gitCommand = new GitCommand(getFingerprint(), isGitRepository(workingDir) ? workingDir : null, refSpecOrBranch, false, secrets());
+        return gitCommand.remoteRevision(new UrlArgument(urlForCommandLine()))
+            .map(remoteRevision -> remoteRevision.equals(revision.getRevision()))
+            .orElse(false);
+    }
+
     @Override
     public MaterialInstance createMaterialInstance() {
         return new GitMaterialInstance(url.originalArgument(), userName, refSpecOrBranch, submoduleFolder, UUID.randomUUID().toString());
@@ -364,7 +382,7 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
         }
 
         GitCommand gitCommand = new GitCommand(getFingerprint(), workingFolder, refSpecOrBranch, false, secrets());
-        if (!isGitRepository(workingFolder) || isRepositoryChanged(gitCommand, workingFolder)) {
+        if (!isGitRepository(workingFolder) || isMissingBorrowedObjects(gitCommand, workingFolder) || isRepositoryChanged(gitCommand, workingFolder)) {
             LOG.debug("Invalid git working copy or repository changed. Delete folder: {}", workingFolder);
             try {
                 FileUtils.deleteDirectory(workingFolder);
@@ -390,13 +408,23 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
             if (executionContext.isServer()) {
                 returnValue = gitCommand.cloneWithNoCheckout(outputStreamConsumer, urlForCommandLine());
             } else {
-                returnValue = gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth);
+                returnValue = cloneOnAgent(gitCommand, workingFolder, outputStreamConsumer, cloneDepth);
             }
             bombUnless(returnValue == 0, "Failed to run git clone command");
         }
         return gitCommand;
     }
 
+    // Full clones borrow objects from the agent's shared object store when it is enabled; shallow clones are small
+    // enough not to need it
+    private int cloneOnAgent(GitCommand gitCommand, File workingFolder, ConsoleOutputStreamConsumer outputStreamConsumer, int cloneDepth) {
+        Optional<GitObjectStore> objectStore = cloneDepth == Integer.MAX_VALUE ? GitObjectStore.forAgent(new SystemEnvironment()) : Optional.empty();
+        return objectStore
+            .map(store -> store.cloneUsing(getFingerprint(), urlForCommandLine(), getUriForDisplay(), secrets(), workingFolder, outputStreamConsumer,
+                reference -> gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth, reference)))
+            .orElseGet(() -> gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth));
+    }
+
     private List<SecretRedactor> secrets() {
         return List.of(redactable -> redactable.next(redactable.value().replace(urlForCommandLine(), getUriForDisplay())));
     }
@@ -428,6 +456,13 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
         return new File(workingFolder, ".git").isDirectory();
     }
 
+    // A working copy cloned with a reference to a shared object store that has since been pruned, or pruned and
+    // re-created, can not be used. Connectivity is only checked when the store it borrows from is not the one it was
+    // cloned with, as it is costly on large repositories.
+    private boolean isMissingBorrowedObjects(GitCommand gitCommand, File workingFolder) {
+        return !GitObjectStore.borrowsFromTheStoreItWasClonedWith(workingFolder) && !gitCommand.hasConnectedObjects();
+    }
+
     private boolean isRepositoryChanged(GitCommand command, File workingDirectory) {
         UrlArgument currentWorkingUrl = command.workingRepositoryUrl();
         if (LOG.isTraceEnabled()) {
@@ -137,9 +137,16 @@ public class GitCommand extends SCMCommand {
     // Clone repository from url with specified depth.
     // Special depth 2147483647 (Integer.MAX_VALUE) are treated as full clone
     public int clone(ConsoleOutputStreamConsumer outputStreamConsumer, String url, int depth) {
+        return clone(outputStreamConsumer, url, depth, null);
+    }
+
+    // Clone repository from url with specified depth, borrowing objects from a local reference repository
+    // (through git alternates) when one is given
+    public int clone(ConsoleOutputStreamConsumer outputStreamConsumer, String url, int depth, File referenceRepository) {
         CommandLine gitClone = cloneCommand()
             .when(!hasRefSpec(), git -> git.withArgs("--branch", branch))
             .when(depth < Integer.MAX_VALUE, git -> git.withArg(format("--depth=%s", depth)))
+            .when(referenceRepository != null, git -> git.withArgs("--reference", referenceRepository.getAbsolutePath()))
             .withArg(new UrlArgument(url)).withArg(workingDir.getAbsolutePath());
 
         if (!hasRefSpec()) {
@@ -228,6 +235,21 @@ public class GitCommand extends SCMCommand {
         }
     }
 
+    /**
+     * Looks up the revision the upstream ref currently points to without fetching any objects.
+     *
+     * @return the revision, or empty if the ref could not be resolved to exactly one remote ref
+     */
+    public Optional<String> remoteRevision(UrlArgument repoUrl) {
+        final CommandLine commandLine = (workingDir == null ? git() : gitWd()).withArgs("ls-remote", "--").withArg(repoUrl).withArg(fullUpstreamRef());
+        final ConsoleResult result = commandLine.runOrBomb(new NamedProcessTag(repoUrl.forDisplay()));
+
+        if (!hasExactlyOneMatchingBranch(result)) {
+            return Optional.empty();
+        }
+        return Optional.of(result.output().getFirst().split("\\s+", 2)[0]);
+    }
+
     public GitVersion version() {
         CommandLine gitVersion = git().withArgs("version");
 
@@ -272,6 +294,24 @@ public class GitCommand extends SCMCommand {
         gc(outputStreamConsumer);
     }
 
+    // Create a bare repository that only serves as a store of objects for other clones to reference.
+    // Auto gc is disabled so objects that referencing clones rely on are never pruned from under them.
+    public int initObjectStore(ConsoleOutputStreamConsumer outputStreamConsumer) {
+        return runCascade(outputStreamConsumer,
+            git().withArgs("init", "--bare", workingDir.getAbsolutePath()),
+            git_C().withArgs("config", "gc.auto", "0")
+        );
+    }
+
+    public int fetchIntoObjectStore(ConsoleOutputStreamConsumer outputStreamConsumer, String url) {
+        log(outputStreamConsumer, "Fetching changes into shared object store {}", workingDir);
+        CommandLine gitFetch = git_C()
+            .withArgs("fetch", "--prune", "--recurse-submodules=no")
+            .withArg(new UrlArgument(url))
+            .withArgs("+refs/heads/*:refs/heads/*", "+refs/tags/*:refs/tags/*");
+        return run(gitFetch, outputStreamConsumer);
+    }
+
     // Unshallow a shallow cloned repository with "git fetch --depth n".
     // Special depth 2147483647 (Integer.MAX_VALUE) are treated as infinite -- fully unshallow
     // https://git-scm.com/docs/git-fetch-pack
@@ -359,6 +399,18 @@ public class GitCommand extends SCMCommand {
         return new File(workingDir, ".git/shallow").exists();
     }
 
+    // Checks that every object reachable from the working copy's refs can be read, including the ones it borrows
+    // through git alternates, without checking their contents
+    public boolean hasConnectedObjects() {
+        CommandLine fsck = gitWd().withArgs("fsck", "--connectivity-only", "--no-dangling", "--no-progress");
+        try {
+            runOrBomb(fsck);
+            return true;
+        } catch (CommandLineException e) {
+            return false;
+        }
+    }
+
     public boolean containsRevisionInBranch(Revision revision) {
         String[] args = {"branch", "-r", "--contains", revision.getRevision()};
         CommandLine gitCommand = gitWd().withArgs(args);
@@ -0,0 +1,350 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials.git;
+
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import com.thoughtworks.go.util.command.SecretRedactor;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.commons.lang3.StringUtils.removeEnd;
+
+/**
+ * Understands an agent-wide store of git objects: one bare repository per repository url, which clones of that
+ * repository borrow objects from through git alternates instead of each keeping a full copy. Every repository in the
+ * store is guarded by a lock file so that agents sharing a host can share the store. The least recently used
+ * repositories are deleted once the store grows beyond its size limit, unless a working copy still borrows from them.
+ */
+public class GitObjectStore {
+    private static final Logger LOG = LoggerFactory.getLogger(GitObjectStore.class);
+    private static final String REPOSITORY_SUFFIX = ".git";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final String STORE_LOCK = "store" + LOCK_SUFFIX;
+    private static final String STORE_ID = "gocd-store-id";
+    private static final String BORROWERS = "gocd-borrowers";
+    private static final String BORROWED_STORE_ID = "gocd-object-store-id";
+    private static final ConcurrentMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+    // a file lock is held by the whole JVM, so threads must take turns before locking the store lock file
+    private static final ReentrantLock STORE_LOCK_IN_PROCESS = new ReentrantLock();
+
+    private final File storeDirectory;
+    private final long maxSizeInBytes;
+
+    public GitObjectStore(File storeDirectory, long maxSizeInBytes) {
+        this.storeDirectory = storeDirectory;
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    public static Optional<GitObjectStore> forAgent(SystemEnvironment systemEnvironment) {
+        if (!systemEnvironment.get(SystemEnvironment.AGENT_GIT_OBJECT_STORE_ENABLED)) {
+            return Optional.empty();
+        }
+        File storeDirectory = new File(systemEnvironment.get(SystemEnvironment.AGENT_GIT_OBJECT_STORE_DIR));
+        long maxSizeInBytes = systemEnvironment.get(SystemEnvironment.AGENT_GIT_OBJECT_STORE_MAX_SIZE_IN_MB) * FileUtils.ONE_MB;
+        return Optional.of(new GitObjectStore(storeDirectory, maxSizeInBytes));
+    }
+
+    /**
+     * Tells whether every store repository the working copy borrows objects from is the very one it was cloned with,
+     * rather than one re-created under the same path after being pruned, which would lack the objects it relies on.
+     * Working copies that do not borrow any objects trivially do.
+     */
+    public static boolean borrowsFromTheStoreItWasClonedWith(File workingCopy) {
+        List<File> alternates = alternatesOf(workingCopy);
+        if (alternates.isEmpty()) {
+            return true;
+        }
+        String borrowedStoreId = readQuietly(new File(workingCopy, ".git/" + BORROWED_STORE_ID));
+        return borrowedStoreId != null && alternates.stream()
+            .allMatch(objects -> borrowedStoreId.equals(readQuietly(new File(objects.getParentFile(), STORE_ID))));
+    }
+
+    /**
+     * Brings the store's repository for the url up to date and clones into the working copy with it as reference,
+     * holding its lock so it can not be pruned mid-clone. Clones without a reference when the store can not be used.
+     */
+    public int cloneUsing(String materialFingerprint, String url, String urlForDisplay, List<SecretRedactor> secrets, File workingCopy,
+                          ConsoleOutputStreamConsumer outputStreamConsumer, ToIntFunction<File> cloneWithReference) {
+        String key = DigestUtils.sha256Hex(urlForDisplay);
+        File repository = new File(storeDirectory, key + REPOSITORY_SUFFIX);
+        StoreLock lock;
+        try {
+            lock = lock(key, true);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not lock shared git object store {}. Cloning {} without it.", repository, urlForDisplay, e);
+            return cloneWithReference.applyAsInt(null);
+        }
+
+        try (lock) {
+            GitCommand store = new GitCommand(materialFingerprint, repository, null, false, secrets);
+            File reference = update(store, repository, url, outputStreamConsumer) ? repository : null;
+            int result = cloneWithReference.applyAsInt(reference);
+            if (reference != null && result == 0) {
+                registerBorrower(repository, workingCopy);
+            }
+            return result;
+        } finally {
+            pruneIfNeeded(key);
+        }
+    }
+
+    private boolean update(GitCommand store, File repository, String url, ConsoleOutputStreamConsumer outputStreamConsumer) {
+        if (!new File(repository, "objects").isDirectory()) {
+            FileUtils.deleteQuietly(repository);
+            if (store.initObjectStore(outputStreamConsumer) != 0) {
+                LOG.warn("Could not create shared git object store {}", repository);
+                FileUtils.deleteQuietly(repository);
+                return false;
+            }
+        }
+        if (readQuietly(new File(repository, STORE_ID)) == null && !writeQuietly(new File(repository, STORE_ID), UUID.randomUUID().toString())) {
+            LOG.warn("Could not identify shared git object store {}", repository);
+            return false;
+        }
+        if (store.fetchIntoObjectStore(outputStreamConsumer, url) != 0) {
+            LOG.warn("Could not update shared git object store {}", repository);
+            return false;
+        }
+        if (!repository.setLastModified(System.currentTimeMillis())) {
+            LOG.debug("Could not mark shared git object store {} as used", repository);
+        }
+        return true;
+    }
+
+    // called with the repository locked
+    private void registerBorrower(File repository, File workingCopy) {
+        try {
+            String workingCopyPath = workingCopy.getCanonicalPath();
+            Set<String> borrowers = new LinkedHashSet<>(readBorrowers(repository));
+            borrowers.add(workingCopyPath);
+            Files.write(new File(repository, BORROWERS).toPath(), borrowers);
+            Files.writeString(new File(workingCopy, ".git/" + BORROWED_STORE_ID).toPath(), readQuietly(new File(repository, STORE_ID)));
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not record {} as borrowing from shared git object store {}", workingCopy, repository, e);
+        }
+    }
+
+    // called with the repository locked; forgets working copies that have been deleted or re-cloned since
+    private boolean isBorrowedFrom(File repository) throws IOException {
+        File objects = new File(repository, "objects").getCanonicalFile();
+        List<String> liveBorrowers = new ArrayList<>();
+        for (String borrower : readBorrowers(repository)) {
+            if (alternatesOf(new File(borrower)).contains(objects)) {
+                liveBorrowers.add(borrower);
+            }
+        }
+        Files.write(new File(repository, BORROWERS).toPath(), liveBorrowers);
+        return !liveBorrowers.isEmpty();
+    }
+
+    private void pruneIfNeeded(String keyInUse) {
+        try {
+            File[] repositories = storeDirectory.listFiles(file -> file.isDirectory() && file.getName().endsWith(REPOSITORY_SUFFIX));
+            if (repositories == null) {
+                return;
+            }
+            Map<File, Long> sizes = new HashMap<>();
+            long totalSize = 0;
+            for (File repository : repositories) {
+                long size = FileUtils.sizeOfDirectory(repository);
+                sizes.put(repository, size);
+                totalSize += size;
+            }
+
+            Arrays.sort(repositories, Comparator.comparingLong(File::lastModified));
+            for (File repository : repositories) {
+                if (totalSize <= maxSizeInBytes) {
+                    return;
+                }
+                String key = removeEnd(repository.getName(), REPOSITORY_SUFFIX);
+                if (key.equals(keyInUse)) {
+                    continue;
+                }
+                try (StoreLock lock = lock(key, false)) {
+                    if (lock == null || isBorrowedFrom(repository)) {
+                        continue;
+                    }
+                    FileUtils.deleteDirectory(repository);
+                    deleteLockFile(key);
+                    totalSize -= sizes.get(repository);
+                    LOG.info("Pruned shared git object store {} to keep the store under {} bytes", repository, maxSizeInBytes);
+                }
+            }
+            if (totalSize > maxSizeInBytes) {
+                LOG.info("Shared git object store {} is over {} bytes, but its remaining repositories are in use", storeDirectory, maxSizeInBytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not prune shared git object store {}", storeDirectory, e);
+        }
+    }
+
+    private StoreLock lock(String key, boolean wait) throws IOException {
+        ReentrantLock threadLock = LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+        if (wait) {
+            threadLock.lock();
+        } else if (!threadLock.tryLock()) {
+            return null;
+        }
+
+        try {
+            Files.createDirectories(storeDirectory.toPath());
+            Path lockFile = lockFile(key);
+            while (true) {
+                LockFileChannel opened = open(lockFile);
+                FileLock processLock;
+                try {
+                    processLock = wait ? opened.channel().lock() : opened.channel().tryLock();
+                } catch (IOException | RuntimeException e) {
+                    opened.channel().close();
+                    throw e;
+                }
+                if (processLock == null) {
+                    opened.channel().close();
+                    threadLock.unlock();
+                    return null;
+                }
+                // the lock file may have been deleted along with its repository while waiting for it
+                if (opened.isStillAt(lockFile)) {
+                    return new StoreLock(threadLock, opened.channel());
+                }
+                opened.channel().close();
+            }
+        } catch (IOException | RuntimeException e) {
+            threadLock.unlock();
+            throw e;
+        }
+    }
+
+    // lock files are only opened and deleted under the store-wide lock, so that one is never deleted between being
+    // opened and being identified
+    private LockFileChannel open(Path lockFile) throws IOException {
+        STORE_LOCK_IN_PROCESS.lock();
+        try (FileChannel storeChannel = FileChannel.open(storeDirectory.toPath().resolve(STORE_LOCK), CREATE, WRITE);
+             FileLock ignored = storeChannel.lock()) {
+            FileChannel channel = FileChannel.open(lockFile, CREATE, WRITE);
+            return new LockFileChannel(channel, fileKeyOf(lockFile));
+        } finally {
+            STORE_LOCK_IN_PROCESS.unlock();
+        }
+    }
+
+    // called with the repository locked
+    private void deleteLockFile(String key) throws IOException {
+        STORE_LOCK_IN_PROCESS.lock();
+        try (FileChannel storeChannel = FileChannel.open(storeDirectory.toPath().resolve(STORE_LOCK), CREATE, WRITE);
+             FileLock ignored = storeChannel.lock()) {
+            Files.deleteIfExists(lockFile(key));
+        } catch (IOException e) {
+            LOG.debug("Could not delete lock file of shared git object store {}", key, e);
+        } finally {
+            STORE_LOCK_IN_PROCESS.unlock();
+        }
+    }
+
+    private Path lockFile(String key) {
+        return storeDirectory.toPath().resolve(key + LOCK_SUFFIX);
+    }
+
+    private static Object fileKeyOf(Path file) throws IOException {
+        try {
+            Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            return fileKey == null ? file : fileKey;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static List<String> readBorrowers(File repository) throws IOException {
+        File borrowers = new File(repository, BORROWERS);
+        return borrowers.isFile() ? Files.readAllLines(borrowers.toPath()) : List.of();
+    }
+
+    private static List<File> alternatesOf(File workingCopy) {
+        File objects = new File(workingCopy, ".git/objects");
+        File alternates = new File(objects, "info/alternates");
+        if (!alternates.isFile()) {
+            return List.of();
+        }
+        try {
+            List<File> alternateObjects = new ArrayList<>();
+            for (String line : Files.readAllLines(alternates.toPath())) {
+                String path = line.trim();
+                if (!path.isEmpty() && !path.startsWith("#")) {
+                    alternateObjects.add((new File(path).isAbsolute() ? new File(path) : new File(objects, path)).getCanonicalFile());
+                }
+            }
+            return alternateObjects;
+        } catch (IOException e) {
+            LOG.debug("Could not read git alternates of {}", workingCopy, e);
+            return List.of();
+        }
+    }
+
+    private static String readQuietly(File file) {
+        try {
+            return file.isFile() ? Files.readString(file.toPath()).trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean writeQuietly(File file, String content) {
+        try {
+            Files.writeString(file.toPath(), content);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private record LockFileChannel(FileChannel channel, Object fileKey) {
+        boolean isStillAt(Path lockFile) throws IOException {
+            return fileKey != null && fileKey.equals(fileKeyOf(lockFile));
+        }
+    }
+
+    private record StoreLock(ReentrantLock threadLock, FileChannel channel) implements AutoCloseable {
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Could not release lock on shared git object store", e);
+            } finally {
+                threadLock.unlock();
+            }
+        }
+    }
+}
@@ -138,6 +138,16 @@ public class GitCommandTest {
             assertThrows(Exception.class, () -> gitCommand.checkConnection(new UrlArgument(repoUrl)));
         }
 
+        @Test
+        void shouldLookUpRemoteRevisionOfUpstreamRef() {
+            assertEquals(REVISION_4.getRevision(), withBranch("master").remoteRevision(new UrlArgument(repoUrl)).orElseThrow());
+        }
+
+        @Test
+        void shouldNotFindRemoteRevisionWhenRemoteBranchDoesNotExist() {
+            assertTrue(withBranch("Invalid_Branch").remoteRevision(new UrlArgument(repoUrl)).isEmpty());
+        }
+
         private void assertWorkingCopyCheckedOut(File workingDir) {
             assertTrue(requireNonNull(workingDir.listFiles()).length > 1);
         }
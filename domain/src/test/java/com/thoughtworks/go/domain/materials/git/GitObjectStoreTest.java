@@ -0,0 +1,167 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials.git;
+
+import com.thoughtworks.go.config.materials.git.GitMaterialConfig;
+import com.thoughtworks.go.helper.GitTestRepo;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static com.thoughtworks.go.util.command.ProcessOutputStreamConsumer.inMemoryConsumer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GitObjectStoreTest {
+    private GitTestRepo gitRepo;
+    private File storeDirectory;
+    private File workingDirectory;
+
+    @BeforeEach
+    public void setUp(@TempDir Path tempDir) throws IOException {
+        gitRepo = new GitTestRepo(tempDir);
+        storeDirectory = tempDir.resolve("store").toFile();
+        workingDirectory = tempDir.resolve("working").toFile();
+    }
+
+    @Test
+    public void shouldCloneBorrowingObjectsFromTheStore() throws IOException {
+        GitObjectStore store = new GitObjectStore(storeDirectory, Long.MAX_VALUE);
+        GitCommand git = new GitCommand(null, workingDirectory, GitMaterialConfig.DEFAULT_BRANCH, false, null);
+
+        int result = store.cloneUsing(null, gitRepo.projectRepositoryUrl(), gitRepo.projectRepositoryUrl(), List.of(), workingDirectory, inMemoryConsumer(),
+            reference -> git.clone(inMemoryConsumer(), gitRepo.projectRepositoryUrl(), Integer.MAX_VALUE, reference));
+
+        assertThat(result).isZero();
+        assertThat(git.currentRevision()).isEqualTo(gitRepo.latestModification().getFirst().getRevision());
+        File alternates = new File(workingDirectory, ".git/objects/info/alternates");
+        assertThat(alternates).isFile();
+        assertThat(Files.readString(alternates.toPath()).trim()).startsWith(storeDirectory.getAbsolutePath());
+    }
+
+    @Test
+    public void shouldPruneLeastRecentlyUsedRepositoriesWhenStoreOutgrowsItsLimit() throws IOException {
+        File staleRepository = new File(storeDirectory, "stale.git");
+        Files.createDirectories(staleRepository.toPath().resolve("objects"));
+        Files.writeString(staleRepository.toPath().resolve("objects/pack"), "x".repeat(1024));
+        assertThat(staleRepository.setLastModified(0)).isTrue();
+
+        GitObjectStore store = new GitObjectStore(storeDirectory, 1);
+        store.cloneUsing(null, gitRepo.projectRepositoryUrl(), gitRepo.projectRepositoryUrl(), List.of(), workingDirectory, inMemoryConsumer(), reference -> 0);
+
+        assertThat(staleRepository).doesNotExist();
+        assertThat(new File(storeDirectory, "stale.lock")).doesNotExist();
+        assertThat(storeDirectory.listFiles(file -> file.getName().endsWith(".git"))).hasSize(1);
+    }
+
+    @Test
+    public void shouldNotPruneRepositoriesThatWorkingCopiesBorrowFrom() throws IOException {
+        cloneWithStore(new GitObjectStore(storeDirectory, Long.MAX_VALUE));
+        File borrowedRepository = storeDirectory.listFiles(file -> file.getName().endsWith(".git"))[0];
+        assertThat(borrowedRepository.setLastModified(0)).isTrue();
+
+        new GitObjectStore(storeDirectory, 1).cloneUsing(null, "file:///does/not/exist", "file:///does/not/exist", List.of(), new File("unused"), inMemoryConsumer(), reference -> 0);
+
+        assertThat(borrowedRepository).isDirectory();
+    }
+
+    @Test
+    public void shouldPruneRepositoriesOnceNoWorkingCopyBorrowsFromThem() throws IOException {
+        cloneWithStore(new GitObjectStore(storeDirectory, Long.MAX_VALUE));
+        File borrowedRepository = storeDirectory.listFiles(file -> file.getName().endsWith(".git"))[0];
+        assertThat(borrowedRepository.setLastModified(0)).isTrue();
+        FileUtils.deleteDirectory(workingDirectory);
+
+        new GitObjectStore(storeDirectory, 1).cloneUsing(null, "file:///does/not/exist", "file:///does/not/exist", List.of(), new File("unused"), inMemoryConsumer(), reference -> 0);
+
+        assertThat(borrowedRepository).doesNotExist();
+    }
+
+    @Test
+    public void shouldTellWhetherAWorkingCopyStillBorrowsFromTheStoreItWasClonedWith() throws IOException {
+        GitObjectStore store = new GitObjectStore(storeDirectory, Long.MAX_VALUE);
+        GitCommand git = cloneWithStore(store);
+        assertThat(GitObjectStore.borrowsFromTheStoreItWasClonedWith(workingDirectory)).isTrue();
+        assertThat(git.hasConnectedObjects()).isTrue();
+
+        File borrowedRepository = storeDirectory.listFiles(file -> file.getName().endsWith(".git"))[0];
+        FileUtils.deleteDirectory(borrowedRepository);
+        assertThat(GitObjectStore.borrowsFromTheStoreItWasClonedWith(workingDirectory)).isFalse();
+        assertThat(git.hasConnectedObjects()).isFalse();
+
+        store.cloneUsing(null, gitRepo.projectRepositoryUrl(), gitRepo.projectRepositoryUrl(), List.of(), new File(workingDirectory.getParentFile(), "another"), inMemoryConsumer(), reference -> 0);
+        assertThat(borrowedRepository).isDirectory();
+        assertThat(GitObjectStore.borrowsFromTheStoreItWasClonedWith(workingDirectory)).isFalse();
+    }
+
+    @Test
+    public void shouldLetDifferentRepositoriesUseTheStoreAtTheSameTime(@TempDir Path tempDir) throws Exception {
+        GitTestRepo anotherRepo = new GitTestRepo(tempDir);
+        GitObjectStore store = new GitObjectStore(storeDirectory, Long.MAX_VALUE);
+        CyclicBarrier bothLocked = new CyclicBarrier(2);
+
+        CompletableFuture<File> first = CompletableFuture.supplyAsync(() -> referenceUsedWhileOtherIsLocked(store, gitRepo, "first", bothLocked));
+        CompletableFuture<File> second = CompletableFuture.supplyAsync(() -> referenceUsedWhileOtherIsLocked(store, anotherRepo, "second", bothLocked));
+
+        assertThat(first.get(1, TimeUnit.MINUTES)).isDirectory();
+        assertThat(second.get(1, TimeUnit.MINUTES)).isDirectory();
+        assertThat(first.get()).isNotEqualTo(second.get());
+    }
+
+    private File referenceUsedWhileOtherIsLocked(GitObjectStore store, GitTestRepo repo, String workingCopy, CyclicBarrier bothLocked) {
+        File[] referenceUsed = new File[1];
+        store.cloneUsing(null, repo.projectRepositoryUrl(), repo.projectRepositoryUrl(), List.of(), new File(workingDirectory, workingCopy), inMemoryConsumer(), reference -> {
+            referenceUsed[0] = reference;
+            try {
+                bothLocked.await(1, TimeUnit.MINUTES);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return 1;
+        });
+        return referenceUsed[0];
+    }
+
+    private GitCommand cloneWithStore(GitObjectStore store) {
+        GitCommand git = new GitCommand(null, workingDirectory, GitMaterialConfig.DEFAULT_BRANCH, false, null);
+        int result = store.cloneUsing(null, gitRepo.projectRepositoryUrl(), gitRepo.projectRepositoryUrl(), List.of(), workingDirectory, inMemoryConsumer(),
+            reference -> git.clone(inMemoryConsumer(), gitRepo.projectRepositoryUrl(), Integer.MAX_VALUE, reference));
+        assertThat(result).isZero();
+        return git;
+    }
+
+    @Test
+    public void shouldCloneWithoutReferenceWhenStoreCanNotBeUpdated() {
+        GitObjectStore store = new GitObjectStore(storeDirectory, Long.MAX_VALUE);
+        File[] referenceUsed = new File[]{new File("not-called")};
+
+        store.cloneUsing(null, "file:///does/not/exist", "file:///does/not/exist", List.of(), workingDirectory, inMemoryConsumer(), reference -> {
+            referenceUsed[0] = reference;
+            return 0;
+        });
+
+        assertThat(referenceUsed[0]).isNull();
+    }
+}
@@ -30,11 +30,12 @@ import org.springframework.stereotype.Component;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.security.DigestInputStream;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -51,6 +52,7 @@ public class PluginsZip implements PluginChangeListener {
 
     private final Predicate<GoPluginDescriptor> predicate;
     private String md5DigestOfPlugins;
+    private volatile Manifest manifest = new Manifest(null, Map.of());
     private List<GoPluginBundleDescriptor> agentPlugins = new CopyOnWriteArrayList<>();
     private final File destZipFile;
     private final File bundledPlugins;
@@ -72,6 +74,7 @@ public class PluginsZip implements PluginChangeListener {
         reset();
 
         MessageDigest md5Digest = DigestUtils.getMd5Digest();
+        Map<String, AgentPluginJar> jars = new LinkedHashMap<>();
         try (ZipOutputStream zos = new ZipOutputStream(new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(destZipFile)), md5Digest))) {
             for (GoPluginBundleDescriptor agentPlugins : agentPlugins()) {
                 String zipEntryPrefix = "external/";
@@ -80,15 +83,22 @@ public class PluginsZip implements PluginChangeListener {
                     zipEntryPrefix = "bundled/";
                 }
 
-                zos.putNextEntry(new ZipEntry(zipEntryPrefix + new File(agentPlugins.bundleJARFileLocation()).getName()));
-                Files.copy(new File(agentPlugins.bundleJARFileLocation()).toPath(), zos);
+                File jar = new File(agentPlugins.bundleJARFileLocation());
+                String path = zipEntryPrefix + jar.getName();
+                MessageDigest jarDigest = DigestUtils.getMd5Digest();
+                zos.putNextEntry(new ZipEntry(path));
+                try (InputStream in = new DigestInputStream(Files.newInputStream(jar.toPath()), jarDigest)) {
+                    in.transferTo(zos);
+                }
                 zos.closeEntry();
+                jars.put(path, new AgentPluginJar(jar, Hex.encodeHexString(jarDigest.digest())));
             }
         } catch (Exception e) {
             LOG.error("Could not create zip of plugins for agent to download.", e);
         }
 
         md5DigestOfPlugins = Hex.encodeHexString(md5Digest.digest());
+        manifest = new Manifest(md5DigestOfPlugins, Collections.unmodifiableMap(jars));
     }
 
     private void reset() {
@@ -100,6 +110,13 @@ public class PluginsZip implements PluginChangeListener {
         return md5DigestOfPlugins;
     }
 
+    /**
+     * The plugins in the zip last created, so that agents can fetch only the plugin jars they do not already have.
+     */
+    public Manifest manifest() {
+        return manifest;
+    }
+
     private List<GoPluginBundleDescriptor> agentPlugins() {
         if (agentPlugins.isEmpty()) {
             List<GoPluginBundleDescriptor> agentPlugins = pluginManager.plugins()
@@ -142,4 +159,25 @@ public class PluginsZip implements PluginChangeListener {
             create();
         }
     }
+
+    public record AgentPluginJar(File jar, String md5) {
+    }
+
+    /**
+     * Understands the plugin jars that make up one version of the agent plugins zip, keyed by their path in the zip.
+     */
+    public record Manifest(String zipMd5, Map<String, AgentPluginJar> jars) {
+        public AgentPluginJar jar(String path) {
+            return jars.get(path);
+        }
+
+        /**
+         * One line per jar, with its md5 and its path in the zip, in the format of the {@code md5sum} tool.
+         */
+        public String asText() {
+            StringBuilder text = new StringBuilder();
+            jars.forEach((path, jar) -> text.append(jar.md5()).append("  ").append(path).append('\n'));
+            return text.toString();
+        }
+    }
 }
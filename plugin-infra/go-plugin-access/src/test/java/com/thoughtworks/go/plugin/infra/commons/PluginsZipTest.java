@@ -20,6 +20,7 @@ import com.thoughtworks.go.plugin.infra.PluginManager;
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginBundleDescriptor;
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginDescriptor;
 import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections4.EnumerationUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -124,6 +125,21 @@ class PluginsZipTest {
         }
     }
 
+    @Test
+    void shouldListEachPluginJarInZipWithItsChecksum() throws Exception {
+        pluginsZip.create();
+
+        PluginsZip.Manifest manifest = pluginsZip.manifest();
+        assertThat(manifest.zipMd5()).isEqualTo(pluginsZip.md5());
+        assertThat(manifest.jars()).containsOnlyKeys(
+            "bundled/bundled-task-1.jar", "bundled/bundled-scm-3.jar", "bundled/bundled-package-material-4.jar",
+            "external/external-task-1.jar", "external/external-scm-3.jar", "external/external-package-material-4.jar");
+        File externalTaskJar = new File(externalPluginsDir, "external-task-1.jar");
+        assertThat(manifest.jar("external/external-task-1.jar").jar()).isEqualTo(externalTaskJar);
+        assertThat(manifest.jar("external/external-task-1.jar").md5()).isEqualTo(DigestUtils.md5Hex(Files.readAllBytes(externalTaskJar.toPath())));
+        assertThat(manifest.asText()).contains(DigestUtils.md5Hex(Files.readAllBytes(externalTaskJar.toPath())) + "  external/external-task-1.jar\n");
+    }
+
     @Test
     void shouldGetChecksumIfFileWasCreated() {
         pluginsZip.create();
@@ -18,6 +18,7 @@ package com.thoughtworks.go.config;
 import com.thoughtworks.go.config.commands.EntityConfigUpdateCommand;
 import com.thoughtworks.go.config.update.FullConfigUpdateCommand;
 import com.thoughtworks.go.config.validation.GoConfigValidity;
+import com.thoughtworks.go.listener.ConfigChangeSetListener;
 import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.server.domain.Username;
@@ -31,14 +32,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.thoughtworks.go.server.service.GoConfigService.INVALID_CRUISE_CONFIG_XML;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 /**
  * Understands when to reload the config file or other config source
+ * <p>
+ * The loaded config is published as one snapshot, so readers never take a lock and never see the config of one save
+ * with the config for edit of another.
  */
 @Component
 public class CachedGoConfig {
@@ -48,13 +52,17 @@ public class CachedGoConfig {
     private final GoConfigMigrator goConfigMigrator;
     private final MaintenanceModeService maintenanceModeService;
     private final ServerHealthService serverHealthService;
-    private final List<ConfigChangedListener> listeners = new ArrayList<>();
-    private volatile CruiseConfig currentConfig;
-    private volatile CruiseConfig currentConfigForEdit;
-    private volatile CruiseConfig mergedCurrentConfigForEdit;
-    private volatile GoConfigHolder configHolder;
+    private final List<ConfigChangedListener> listeners = new CopyOnWriteArrayList<>();
+    private final ConfigListenerTimings listenerTimings = new ConfigListenerTimings();
+    private volatile ConfigSnapshot snapshot;
+    private volatile CruiseConfig emptyConfig;
+    private CruiseConfig lastNotifiedConfig;
     private volatile Exception lastException;
 
+    private record ConfigSnapshot(GoConfigHolder configHolder, CruiseConfig config, CruiseConfig configForEdit,
+                                  CruiseConfig mergedConfigForEdit, long version) {
+    }
+
     @Autowired
     public CachedGoConfig(ServerHealthService serverHealthService, GoFileConfigDataSource dataSource,
                           CachedGoPartials cachedGoPartials, GoConfigMigrator goConfigMigrator,
@@ -107,33 +115,51 @@ public class CachedGoConfig {
 
     public CruiseConfig loadForEditing() {
         loadConfigIfNull();
-        return currentConfigForEdit;
+        ConfigSnapshot current = snapshot;
+        return current == null ? null : current.configForEdit();
     }
 
     public CruiseConfig loadMergedForEditing() {
         loadConfigIfNull();
-        if (mergedCurrentConfigForEdit == null) {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        if (current.mergedConfigForEdit() == null) {
             // when there are no partials, just return standard config for edit
-            return currentConfigForEdit;
+            return current.configForEdit();
         }
-        return mergedCurrentConfigForEdit;
+        return current.mergedConfigForEdit();
     }
 
     public CruiseConfig currentConfig() {
-        if (currentConfig == null) {
-            currentConfig = new BasicCruiseConfig();
+        ConfigSnapshot current = snapshot;
+        if (current != null && current.config() != null) {
+            return current.config();
         }
-        return currentConfig;
+        if (emptyConfig == null) {
+            emptyConfig = new BasicCruiseConfig();
+        }
+        return emptyConfig;
+    }
+
+    /**
+     * @return a number that goes up each time a new config is cached, or 0 if no config has been loaded yet.
+     */
+    public long currentVersion() {
+        ConfigSnapshot current = snapshot;
+        return current == null ? 0 : current.version();
     }
 
     public void loadConfigIfNull() {
-        if (currentConfig == null || currentConfigForEdit == null || configHolder == null || (mergedCurrentConfigForEdit == null && !cachedGoPartials.lastValidPartials().isEmpty())) {
+        ConfigSnapshot current = snapshot;
+        if (current == null || current.config() == null || current.configForEdit() == null || (current.mergedConfigForEdit() == null && !cachedGoPartials.lastValidPartials().isEmpty())) {
             forceReload();
         }
     }
 
     public synchronized ConfigSaveState writeFullConfigWithLock(FullConfigUpdateCommand updateConfigCommand) {
-        GoFileConfigDataSource.GoConfigSaveResult saveResult = dataSource.writeFullConfigWithLock(updateConfigCommand, this.configHolder);
+        GoFileConfigDataSource.GoConfigSaveResult saveResult = dataSource.writeFullConfigWithLock(updateConfigCommand, loadConfigHolder());
         saveValidConfigToCacheAndNotifyConfigChangeListeners(saveResult.getConfigHolder());
         return saveResult.getConfigSaveState();
     }
@@ -144,13 +170,13 @@ public class CachedGoConfig {
     }
 
     public synchronized ConfigSaveState writeWithLock(UpdateConfigCommand updateConfigCommand) {
-        GoFileConfigDataSource.GoConfigSaveResult saveResult = dataSource.writeWithLock(updateConfigCommand, this.configHolder);
+        GoFileConfigDataSource.GoConfigSaveResult saveResult = dataSource.writeWithLock(updateConfigCommand, loadConfigHolder());
         saveValidConfigToCacheAndNotifyConfigChangeListeners(saveResult.getConfigHolder());
         return saveResult.getConfigSaveState();
     }
 
     public synchronized void writeEntityWithLock(EntityConfigUpdateCommand<?> updateConfigCommand, Username currentUser) {
-        EntityConfigSaveResult<?> entityConfigSaveResult = dataSource.writeEntityWithLock(updateConfigCommand, this.configHolder, currentUser);
+        EntityConfigSaveResult<?> entityConfigSaveResult = dataSource.writeEntityWithLock(updateConfigCommand, loadConfigHolder(), currentUser);
         saveValidConfigToCacheAndNotifyEntityConfigChangeListeners(entityConfigSaveResult);
     }
 
@@ -161,14 +187,16 @@ public class CachedGoConfig {
 
         for (ConfigChangedListener listener : listeners) {
             if (listener instanceof EntityConfigChangedListener<?> entityConfigChangedListener && entityConfigChangedListener.shouldCareAbout(saveResult.getEntityConfig())) {
+                long startTime = System.currentTimeMillis();
                 try {
-                    long startTime = System.currentTimeMillis();
                     ((EntityConfigChangedListener<T>) entityConfigChangedListener).onEntityConfigChange(saveResult.getEntityConfig());
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Notifying {} took (in ms): {}", listener.getClass(), System.currentTimeMillis() - startTime);
                     }
                 } catch (Exception e) {
                     LOGGER.error("failed to fire config changed event for listener: {}", listener, e);
+                } finally {
+                    listenerTimings.record(listener, System.currentTimeMillis() - startTime);
                 }
             }
         }
@@ -179,10 +207,8 @@ public class CachedGoConfig {
         if (configHolder != null) {
             LOGGER.debug("[Config Save] Saving config to the cache");
             this.lastException = null;
-            this.configHolder = configHolder;
-            this.currentConfig = this.configHolder.config;
-            this.currentConfigForEdit = this.configHolder.configForEdit;
-            this.mergedCurrentConfigForEdit = configHolder.mergedConfigForEdit;
+            this.snapshot = new ConfigSnapshot(configHolder, configHolder.config, configHolder.configForEdit,
+                configHolder.mergedConfigForEdit, currentVersion() + 1);
             serverHealthService.update(ServerHealthState.success(HealthStateType.invalidConfig()));
         }
     }
@@ -190,7 +216,11 @@ public class CachedGoConfig {
     private synchronized void saveValidConfigToCacheAndNotifyConfigChangeListeners(GoConfigHolder configHolder) {
         saveValidConfigToCache(configHolder);
         if (configHolder != null) {
-            notifyListeners(currentConfig);
+            // compared with the config listeners were last told about, so that entity saves since then are included
+            CruiseConfig newConfig = snapshot.config();
+            ConfigChangeSet changes = ConfigChangeSet.between(lastNotifiedConfig, newConfig);
+            lastNotifiedConfig = newConfig;
+            notifyListeners(newConfig, changes);
         }
     }
 
@@ -208,18 +238,26 @@ public class CachedGoConfig {
 
     public synchronized void registerListener(ConfigChangedListener listener) {
         this.listeners.add(listener);
-        if (currentConfig != null) {
-            listener.onConfigChange(currentConfig);
+        ConfigSnapshot current = snapshot;
+        if (current != null && current.config() != null) {
+            listener.onConfigChange(current.config());
         }
     }
 
-    private synchronized void notifyListeners(CruiseConfig newCruiseConfig) {
+    private synchronized void notifyListeners(CruiseConfig newCruiseConfig, ConfigChangeSet changes) {
         LOGGER.info("About to notify config listeners");
         for (ConfigChangedListener listener : listeners) {
+            long startTime = System.currentTimeMillis();
             try {
-                listener.onConfigChange(newCruiseConfig);
+                if (listener instanceof ConfigChangeSetListener changeSetListener) {
+                    changeSetListener.onConfigChange(newCruiseConfig, changes);
+                } else {
+                    listener.onConfigChange(newCruiseConfig);
+                }
             } catch (Exception e) {
                 LOGGER.error("Failed to fire config changed event for listener: {}", listener, e);
+            } finally {
+                listenerTimings.record(listener, System.currentTimeMillis() - startTime);
             }
         }
         LOGGER.info("Finished notifying all listeners");
@@ -232,11 +270,16 @@ public class CachedGoConfig {
 
     @TestOnly
     public void reloadListeners() {
-        notifyListeners(currentConfig());
+        notifyListeners(currentConfig(), ConfigChangeSet.everything());
     }
 
     public GoConfigHolder loadConfigHolder() {
-        return configHolder;
+        ConfigSnapshot current = snapshot;
+        return current == null ? null : current.configHolder();
+    }
+
+    public ConfigListenerTimings listenerTimings() {
+        return listenerTimings;
     }
 
 }
@@ -129,10 +129,23 @@ public class CachedGoPartials implements PartialConfigResolver {
     }
 
     private void markAsValidAndUpdateServerHealthMessage(String fingerprint, PartialConfig newPart) {
-        fingerprintToLatestValidConfigMap.put(fingerprint, newPart);
+        fingerprintToLatestValidConfigMap.put(fingerprint, sameAsKnownOr(fingerprint, newPart));
         serverHealthService.removeByScope(HealthStateScope.forPartialConfigRepo(fingerprint));
     }
 
+    /**
+     * Config saves mark copies of the last known partials as valid. When the copy is equal to the last known partial,
+     * the last known one is kept as the valid one too, rather than holding both in memory. A partial of the same
+     * revision is not necessarily equal, for example when a save falls back to copies of the last valid partials.
+     */
+    private PartialConfig sameAsKnownOr(String fingerprint, PartialConfig newPart) {
+        PartialConfig known = fingerprintToLatestKnownConfigMap.get(fingerprint);
+        if (known != null && known != newPart && !known.hasErrors() && known.equals(newPart)) {
+            return known;
+        }
+        return newPart;
+    }
+
     private PartialConfig findPartialByFingerprint(CruiseConfig cruiseConfig, String fingerprint, PartialConfig partial) {
         PartialConfig matching = null;
         if (partial != null) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.listener.ConfigChangedListener;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Understands how long each config listener takes to handle config changes, so that a slow listener holding up config
+ * saves can be found.
+ */
+public class ConfigListenerTimings {
+    private final ConcurrentMap<String, Timing> timings = new ConcurrentHashMap<>();
+
+    void record(ConfigChangedListener listener, long millis) {
+        timings.computeIfAbsent(listener.getClass().getName(), name -> new Timing()).record(millis);
+    }
+
+    /**
+     * @return the timings of each listener, by the name of its class.
+     */
+    public Map<String, Timing> byListener() {
+        return new TreeMap<>(timings);
+    }
+
+    public static class Timing {
+        private final AtomicLong notifications = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong lastMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        private void record(long millis) {
+            notifications.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            lastMillis.set(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        public long notificationCount() {
+            return notifications.get();
+        }
+
+        public long totalMillis() {
+            return totalMillis.get();
+        }
+
+        public long lastMillis() {
+            return lastMillis.get();
+        }
+
+        public long maxMillis() {
+            return maxMillis.get();
+        }
+    }
+}
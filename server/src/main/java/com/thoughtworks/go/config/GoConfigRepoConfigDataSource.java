@@ -29,6 +29,7 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.jetbrains.annotations.TestOnly;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,8 +39,9 @@ import org.springframework.stereotype.Component;
 import java.io.File;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.*;
 
 import static java.util.Collections.synchronizedSet;
 
@@ -53,18 +55,22 @@ public class GoConfigRepoConfigDataSource implements ChangedRepoConfigWatchListL
     private final GoConfigPluginService configPluginService;
     private final GoConfigWatchList configWatchList;
     private final ConfigReposMaterialParseResultManager configReposMaterialParseResultManager;
+    private final SystemEnvironment systemEnvironment;
 
     private final List<PartialConfigUpdateCompletedListener> listeners = new CopyOnWriteArrayList<>();
     private final Set<ConfigRepoConfig> modifiedConfigRepoConfigsAwaitingParse = synchronizedSet(new HashSet<>());
+    private final ConcurrentMap<String, ParseInProgress> parsesInProgress = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Semaphore> parsePermitsPerPlugin = new ConcurrentHashMap<>();
 
     @Autowired
     public GoConfigRepoConfigDataSource(GoConfigWatchList configWatchList, GoConfigPluginService configPluginService,
                                         ServerHealthService healthService, ConfigRepoService configRepoService,
-                                        GoConfigService goConfigService) {
+                                        GoConfigService goConfigService, SystemEnvironment systemEnvironment) {
         this.configReposMaterialParseResultManager = new ConfigReposMaterialParseResultManager(healthService, configRepoService);
         this.configPluginService = configPluginService;
         this.serverHealthService = healthService;
         this.configWatchList = configWatchList;
+        this.systemEnvironment = systemEnvironment;
 
         this.configWatchList.registerListener(this);
         goConfigService.register(new EntityConfigChangedListener<ConfigRepoConfig>() {
@@ -138,52 +144,103 @@ public class GoConfigRepoConfigDataSource implements ChangedRepoConfigWatchListL
 
         String fingerprint = material.getFingerprint();
         if (this.configWatchList.hasConfigRepoWithFingerprint(fingerprint)) {
-            PartialConfigProvider plugin;
-            ConfigRepoConfig repoConfig = configWatchList.getConfigRepoForMaterial(material);
-            HealthStateScope scope = HealthStateScope.forPartialConfigRepo(repoConfig);
-
-            try {
-                plugin = this.configPluginService.partialConfigProviderFor(repoConfig);
-            } catch (Exception ex) {
-                this.configReposMaterialParseResultManager.parseFailed(fingerprint, modification, ex);
-                LOGGER.error("Failed to get config plugin for {}", material.getDisplayName());
-                String message = String.format("Failed to obtain configuration plugin '%s' for material: %s",
-                        repoConfig.getPluginId(), material.getLongDescription());
-                String errorDescription = ex.getMessage() == null ? ex.toString()
-                        : ex.getMessage();
-                serverHealthService.update(ServerHealthState.error(message, errorDescription, HealthStateType.general(scope)));
-                notifyFailureListeners(repoConfig, ex);
+            ParseInProgress parse = new ParseInProgress(modification.getRevision(), new CompletableFuture<>());
+            if (!waitForParseInProgress(material, fingerprint, parse)) {
                 return;
             }
             try {
-                this.modifiedConfigRepoConfigsAwaitingParse.remove(repoConfig);
-                //TODO put modifications and previous partial config in context
-                // the context is just a helper for plugin.
-                PartialConfigLoadContext context = new LoadContext(repoConfig);
-                PartialConfig newPart = plugin.load(folder, context);
-                if (newPart == null) {
-                    LOGGER.warn("Parsed configuration material {} by {} is null", material.getDisplayName(), plugin.displayName());
-                    newPart = new PartialConfig();
-                }
-
-                newPart.setOrigins(new RepoConfigOrigin(repoConfig, modification.getRevision()));
-                this.configReposMaterialParseResultManager.parseSuccess(fingerprint, modification, newPart);
-
-                // it is the responsibility of the success listeners to clear the ServerHealthState
-                notifySuccessListeners(repoConfig, newPart);
-            } catch (Exception ex) {
-                this.configReposMaterialParseResultManager.parseFailed(fingerprint, modification, ex);
-                LOGGER.error("Failed to parse configuration material {} by {}", material.getDisplayName(), plugin.displayName(), ex);
-                String message = String.format("Parsing configuration repository using %s failed for material: %s",
-                        plugin.displayName(), material.getLongDescription());
-                String errorDescription = ex.getMessage() == null ? ex.toString()
-                        : ex.getMessage();
-                serverHealthService.update(ServerHealthState.error(message, errorDescription, HealthStateType.general(scope)));
-                notifyFailureListeners(repoConfig, ex);
+                parse(material, folder, modification);
+            } finally {
+                parsesInProgress.remove(fingerprint, parse);
+                parse.done().complete(null);
             }
         }
     }
 
+    /**
+     * Only one parse of a config repo runs at a time, as they share its checkout. A parse of the revision that is
+     * already being parsed is not repeated, unless the config repo has changed since, as its result is the same.
+     *
+     * @return true if the parse has to be done, once any other parse of the config repo has finished.
+     */
+    private boolean waitForParseInProgress(MaterialConfig material, String fingerprint, ParseInProgress parse) {
+        while (true) {
+            ParseInProgress inProgress = parsesInProgress.putIfAbsent(fingerprint, parse);
+            if (inProgress == null) {
+                return true;
+            }
+            boolean sameParse = Objects.equals(inProgress.revision(), parse.revision())
+                && !modifiedConfigRepoConfigsAwaitingParse.contains(configWatchList.getConfigRepoForMaterial(material));
+            inProgress.done().join();
+            if (sameParse) {
+                LOGGER.debug("Skipped parsing configuration material {} at revision {}, as it was already being parsed", material.getDisplayName(), parse.revision());
+                return false;
+            }
+        }
+    }
+
+    private void parse(MaterialConfig material, File folder, Modification modification) {
+        String fingerprint = material.getFingerprint();
+        PartialConfigProvider plugin;
+        ConfigRepoConfig repoConfig = configWatchList.getConfigRepoForMaterial(material);
+        HealthStateScope scope = HealthStateScope.forPartialConfigRepo(repoConfig);
+
+        try {
+            plugin = this.configPluginService.partialConfigProviderFor(repoConfig);
+        } catch (Exception ex) {
+            this.configReposMaterialParseResultManager.parseFailed(fingerprint, modification, ex);
+            LOGGER.error("Failed to get config plugin for {}", material.getDisplayName());
+            String message = String.format("Failed to obtain configuration plugin '%s' for material: %s",
+                    repoConfig.getPluginId(), material.getLongDescription());
+            String errorDescription = ex.getMessage() == null ? ex.toString()
+                    : ex.getMessage();
+            serverHealthService.update(ServerHealthState.error(message, errorDescription, HealthStateType.general(scope)));
+            notifyFailureListeners(repoConfig, ex);
+            return;
+        }
+        try {
+            this.modifiedConfigRepoConfigsAwaitingParse.remove(repoConfig);
+            //TODO put modifications and previous partial config in context
+            // the context is just a helper for plugin.
+            PartialConfigLoadContext context = new LoadContext(repoConfig);
+            PartialConfig newPart = loadWithinPluginLimit(repoConfig.getPluginId(), plugin, folder, context);
+            if (newPart == null) {
+                LOGGER.warn("Parsed configuration material {} by {} is null", material.getDisplayName(), plugin.displayName());
+                newPart = new PartialConfig();
+            }
+
+            newPart.setOrigins(new RepoConfigOrigin(repoConfig, modification.getRevision()));
+            this.configReposMaterialParseResultManager.parseSuccess(fingerprint, modification, newPart);
+
+            // it is the responsibility of the success listeners to clear the ServerHealthState
+            notifySuccessListeners(repoConfig, newPart);
+        } catch (Exception ex) {
+            this.configReposMaterialParseResultManager.parseFailed(fingerprint, modification, ex);
+            LOGGER.error("Failed to parse configuration material {} by {}", material.getDisplayName(), plugin.displayName(), ex);
+            String message = String.format("Parsing configuration repository using %s failed for material: %s",
+                    plugin.displayName(), material.getLongDescription());
+            String errorDescription = ex.getMessage() == null ? ex.toString()
+                    : ex.getMessage();
+            serverHealthService.update(ServerHealthState.error(message, errorDescription, HealthStateType.general(scope)));
+            notifyFailureListeners(repoConfig, ex);
+        }
+    }
+
+    // bounds how many config repos are parsed by one plugin at once, so that a burst of updates does not swamp it
+    private PartialConfig loadWithinPluginLimit(String pluginId, PartialConfigProvider plugin, File folder, PartialConfigLoadContext context) throws InterruptedException {
+        int limit = systemEnvironment.get(SystemEnvironment.CONFIG_REPO_PARSES_PER_PLUGIN);
+        if (limit <= 0 || pluginId == null) {
+            return plugin.load(folder, context);
+        }
+        Semaphore permits = parsePermitsPerPlugin.computeIfAbsent(pluginId, id -> new Semaphore(limit, true));
+        permits.acquire();
+        try {
+            return plugin.load(folder, context);
+        } finally {
+            permits.release();
+        }
+    }
+
     protected void onConfigRepoConfigChange(ConfigRepoConfig configRepoConfig) {
         modifiedConfigRepoConfigsAwaitingParse.add(configRepoConfig);
     }
@@ -223,6 +280,9 @@ public class GoConfigRepoConfigDataSource implements ChangedRepoConfigWatchListL
         return result.getLatestParsedModification().getRevision();
     }
 
+    private record ParseInProgress(String revision, CompletableFuture<Void> done) {
+    }
+
     private static class LoadContext implements PartialConfigLoadContext {
         private final ConfigRepoConfig repoConfig;
 
@@ -31,6 +31,7 @@ import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.jdom2.JDOMException;
 import org.jetbrains.annotations.TestOnly;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,6 +49,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 /**
  * This class find the location of cruise-config.xml and turn that into stream
@@ -72,6 +74,7 @@ public class GoFileConfigDataSource {
     private final GoConfigFileWriter goConfigFileWriter;
     private final PartialConfigHelper partials;
     private ReloadStrategy reloadStrategy = new ReloadIfModified();
+    private long lastFullValidationOfEntitySave;
 
     /* Will only upgrade cruise config file on application startup. */
     @Autowired
@@ -295,7 +298,7 @@ public class GoFileConfigDataSource {
     }
 
     public synchronized EntityConfigSaveResult<?> writeEntityWithLock(EntityConfigUpdateCommand<?> updatingCommand, GoConfigHolder configHolder, Username currentUser) {
-        CruiseConfig modifiedConfig = cloner.deepClone(configHolder.configForEdit);
+        CruiseConfig modifiedConfig = cloner.deepCloneSharingPartials(configHolder.configForEdit);
         try {
             updatingCommand.update(modifiedConfig);
         } catch (Exception e) {
@@ -490,6 +493,7 @@ public class GoFileConfigDataSource {
         MagicalGoConfigXmlLoader.preprocess(preprocessedConfig);
         updatingCommand.encrypt(preprocessedConfig);
         if (updatingCommand.isValid(preprocessedConfig)) {
+            validateWholeConfigIfDue(modifiedConfig);
             try {
                 LOGGER.info("[Configuration Changed] Saving updated configuration.");
                 String configAsXml = configAsXml(modifiedConfig, true);
@@ -502,7 +506,7 @@ public class GoFileConfigDataSource {
                 CruiseConfig mergedCruiseConfigForEdit = modifiedConfig;
                 if (!partials.isEmpty()) {
                     LOGGER.debug("[Config Save] Updating GoConfigHolder with mergedCruiseConfigForEdit: Starting.");
-                    mergedCruiseConfigForEdit = cloner.deepClone(modifiedConfig);
+                    mergedCruiseConfigForEdit = cloner.deepCloneSharingPartials(modifiedConfig);
                     mergedCruiseConfigForEdit.merge(partials, true);
                     LOGGER.debug("[Config Save] Updating GoConfigHolder with mergedCruiseConfigForEdit: Done.");
                 }
@@ -515,6 +519,22 @@ public class GoFileConfigDataSource {
         }
     }
 
+    /**
+     * An entity save only validates the entity and what refers to it. The whole config can also be validated on entity
+     * saves, either on every save or at most once in an interval, to catch anything that scoped validation misses.
+     */
+    @VisibleForTesting
+    void validateWholeConfigIfDue(CruiseConfig modifiedConfig) {
+        long intervalInMinutes = systemEnvironment.get(SystemEnvironment.CONFIG_ENTITY_SAVE_FULL_VALIDATION_INTERVAL_IN_MINUTES);
+        long now = timeProvider.currentTimeMillis();
+        if (intervalInMinutes < 0 || now - lastFullValidationOfEntitySave < MINUTES.toMillis(intervalInMinutes)) {
+            return;
+        }
+        LOGGER.debug("[Config Save] Validating the whole config on entity save");
+        magicalGoConfigXmlLoader.validateCruiseConfig(cloner.deepClone(modifiedConfig));
+        lastFullValidationOfEntitySave = now;
+    }
+
     private GoConfigHolder trySavingConfigWithLastKnownPartials(FullConfigUpdateCommand updateCommand, GoConfigHolder configHolder) throws IOException, GitAPIException, JDOMException {
         LOGGER.debug("[Config Save] Trying to save config with Last Known Partials");
         return trySavingFullConfig(updateCommand, configHolder, cachedGoPartials.lastKnownPartials());
@@ -547,7 +567,7 @@ public class GoFileConfigDataSource {
         if (partialConfigs.isEmpty()) {
             return;
         }
-        CruiseConfig mergedCruiseConfigForEdit = cloner.deepClone(validatedConfigHolder.configForEdit);
+        CruiseConfig mergedCruiseConfigForEdit = cloner.deepCloneSharingPartials(validatedConfigHolder.configForEdit);
         mergedCruiseConfigForEdit.merge(partialConfigs, true);
         validatedConfigHolder.mergedConfigForEdit = mergedCruiseConfigForEdit;
     }
@@ -595,7 +615,7 @@ public class GoFileConfigDataSource {
     }
 
     private String getUnmergedConfig(UpdateConfigCommand updatingCommand, GoConfigHolder configHolder, List<PartialConfig> partials) throws IOException, JDOMException {
-        CruiseConfig deepCloneForEdit = cloner.deepClone(configHolder.configForEdit);
+        CruiseConfig deepCloneForEdit = cloner.deepCloneSharingPartials(configHolder.configForEdit);
         deepCloneForEdit.setPartials(partials);
         CruiseConfig config = updatingCommand.update(deepCloneForEdit);
         String configAsXml = configAsXml(config, false);
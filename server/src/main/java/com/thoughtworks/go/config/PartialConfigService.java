@@ -20,21 +20,27 @@ import com.thoughtworks.go.config.remote.ConfigReposConfig;
 import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.config.remote.RepoConfigOrigin;
 import com.thoughtworks.go.config.update.PartialConfigUpdateCommand;
+import com.thoughtworks.go.config.update.PartialConfigsUpdateCommand;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static java.lang.String.format;
 
 @Component
 public class PartialConfigService implements PartialConfigUpdateCompletedListener, ChangedRepoConfigWatchListListener {
     public static final String INVALID_CRUISE_CONFIG_MERGE = "Invalid Merged Configuration";
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartialConfigService.class);
 
     private final GoConfigService goConfigService;
     private final CachedGoPartials cachedGoPartials;
@@ -42,17 +48,24 @@ public class PartialConfigService implements PartialConfigUpdateCompletedListene
     private final PartialConfigHelper partialConfigHelper;
     private final GoConfigRepoConfigDataSource repoConfigDataSource;
     private final GoConfigWatchList configWatchList;
+    private final long mergeWindowInMillis;
+
+    // partials waiting to be merged, and the lock held by whichever thread merges them
+    private final List<PendingMerge> pendingMerges = new ArrayList<>();
+    private final Object mergeLock = new Object();
 
     @Autowired
     public PartialConfigService(GoConfigRepoConfigDataSource repoConfigDataSource,
                                 GoConfigWatchList configWatchList, GoConfigService goConfigService,
-                                CachedGoPartials cachedGoPartials, ServerHealthService serverHealthService, PartialConfigHelper partialConfigHelper) {
+                                CachedGoPartials cachedGoPartials, ServerHealthService serverHealthService, PartialConfigHelper partialConfigHelper,
+                                SystemEnvironment systemEnvironment) {
         this.repoConfigDataSource = repoConfigDataSource;
         this.configWatchList = configWatchList;
         this.goConfigService = goConfigService;
         this.cachedGoPartials = cachedGoPartials;
         this.serverHealthService = serverHealthService;
         this.partialConfigHelper = partialConfigHelper;
+        this.mergeWindowInMillis = systemEnvironment.get(SystemEnvironment.CONFIG_REPO_PARTIAL_MERGE_WINDOW_IN_MILLIS);
 
         this.configWatchList.registerListener(this);
         this.repoConfigDataSource.registerListener(this);
@@ -77,17 +90,19 @@ public class PartialConfigService implements PartialConfigUpdateCompletedListene
                 // mark the fingerprint as last known
                 cachedGoPartials.cacheAsLastKnown(fingerprint, incoming);
 
-                //validate rules
-                hasRuleViolations(incoming);
-
                 /* Validate config.
                 UpdateConfig will fail to update the configuration if there are validation errors.
                 Even in case of rules violation, the updateConfig method is required to populate a server health message
-                of rule violation, which also will be shown on the config repo spa.*/
-                if (updateConfig(incoming, fingerprint, repoConfig)) {
-                    // mark the partial as valid when config is updated successfully for it.
-                    cachedGoPartials.markAsValid(fingerprint, incoming);
+                of rule violation, which also will be shown on the config repo spa.
+                A partial violating the rules is sure to fail, so it is merged on its own rather than with others.*/
+                PendingMerge merge = new PendingMerge(repoConfig, incoming, fingerprint);
+                if (hasRuleViolations(incoming)) {
+                    mergeAlone(merge);
                 } else {
+                    mergeWithOtherPendingPartials(merge);
+                }
+                // the partial has been marked as valid if the config was updated successfully for it
+                if (!merge.result.join()) {
                     /* If the latest partial is invalid for the current config repo rules.
                     1. Apply latest config repo rules to previous valid partial.
                     2. If the previous valid partials are valid - do nothing - as the error for the latest partial is
@@ -168,6 +183,95 @@ public class PartialConfigService implements PartialConfigUpdateCompletedListene
         }
     }
 
+    /**
+     * Merges the partial together with those other config repos are waiting to merge, so that a burst of parsed
+     * partials costs one config save rather than one each. The first thread to get the merge lock merges everything
+     * pending, while the others wait for it to finish theirs. Returns once the partial has been merged, or has failed
+     * to merge, as callers expect the config to be up to date by then.
+     */
+    private void mergeWithOtherPendingPartials(PendingMerge merge) {
+        synchronized (pendingMerges) {
+            pendingMerges.add(merge);
+        }
+        synchronized (mergeLock) {
+            if (!merge.result.isDone()) {
+                waitForMorePartials();
+                List<PendingMerge> batch;
+                synchronized (pendingMerges) {
+                    batch = new ArrayList<>(pendingMerges);
+                    pendingMerges.clear();
+                }
+                try {
+                    mergeTogether(latestPerConfigRepo(batch));
+                } finally {
+                    batch.forEach(pending -> pending.result.complete(false));
+                }
+            }
+        }
+    }
+
+    private void waitForMorePartials() {
+        if (mergeWindowInMillis > 0) {
+            try {
+                Thread.sleep(mergeWindowInMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private List<PendingMerge> latestPerConfigRepo(List<PendingMerge> batch) {
+        Map<String, PendingMerge> latest = new LinkedHashMap<>();
+        for (PendingMerge pending : batch) {
+            PendingMerge superseded = latest.remove(pending.fingerprint);
+            if (superseded != null) {
+                // a later parse of the same repo replaces this one, as it would have had it been merged first
+                superseded.result.complete(true);
+            }
+            latest.put(pending.fingerprint, pending);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * Merges the partials in one config save. If that fails, the partials are split in two halves which are merged in
+     * turn, until the partials that cannot be merged are found and blamed.
+     */
+    private void mergeTogether(List<PendingMerge> merges) {
+        if (merges.isEmpty()) {
+            return;
+        }
+        if (merges.size() == 1) {
+            mergeAlone(merges.getFirst());
+            return;
+        }
+        try {
+            List<PartialConfigUpdateCommand> commands = new ArrayList<>();
+            for (PendingMerge merge : merges) {
+                commands.add(buildUpdateCommand(merge.partial, merge.fingerprint));
+            }
+            goConfigService.updateConfig(new PartialConfigsUpdateCommand(commands));
+        } catch (Exception e) {
+            LOGGER.debug("Could not merge {} config repo partials together, merging them in halves to find the invalid ones", merges.size(), e);
+            int half = merges.size() / 2;
+            mergeTogether(merges.subList(0, half));
+            mergeTogether(merges.subList(half, merges.size()));
+            return;
+        }
+        for (PendingMerge merge : merges) {
+            cachedGoPartials.markAsValid(merge.fingerprint, merge.partial);
+            merge.result.complete(true);
+        }
+    }
+
+    private void mergeAlone(PendingMerge merge) {
+        boolean updated = updateConfig(merge.partial, merge.fingerprint, merge.repoConfig);
+        if (updated) {
+            cachedGoPartials.markAsValid(merge.fingerprint, merge.partial);
+        }
+        merge.result.complete(updated);
+    }
+
     private boolean shouldMergePartial(PartialConfig partial, String fingerprint, ConfigRepoConfig repoConfig) {
         return isPartialDifferentFromLastKnown(partial, fingerprint) ||
                 repoConfigDataSource.hasConfigRepoConfigChangedSinceLastUpdate(repoConfig.getRepo());
@@ -194,4 +298,17 @@ public class PartialConfigService implements PartialConfigUpdateCompletedListene
         partial.validatePermissionsOnSubtree();
         return partial.hasErrors();
     }
+
+    private static class PendingMerge {
+        private final ConfigRepoConfig repoConfig;
+        private final PartialConfig partial;
+        private final String fingerprint;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingMerge(ConfigRepoConfig repoConfig, PartialConfig partial, String fingerprint) {
+            this.repoConfig = repoConfig;
+            this.partial = partial;
+            this.fingerprint = fingerprint;
+        }
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+
+import static com.thoughtworks.go.util.ArtifactUtil.CRUISE_OUTPUT_FOLDER;
+import static com.thoughtworks.go.util.ArtifactUtil.MD5_CHECKSUM_FILENAME;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Understands every file and folder under a job's artifact directory, with the size of each file and the md5 the agent
+ * reported for it, so that listings do not have to walk the directory tree on disk.
+ */
+public class ArtifactManifest {
+    private static final String FOLDER = "D";
+    private static final String FILE = "F";
+
+    private final File root;
+    private final List<Entry> entries;
+
+    public record Entry(String path, boolean folder, long size, String md5) {
+        public String name() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+    }
+
+    ArtifactManifest(File root, List<Entry> entries) {
+        this.root = root;
+        this.entries = entries;
+    }
+
+    public static ArtifactManifest scan(File root) throws IOException {
+        Properties checksums = checksums(root);
+        List<Entry> entries = new ArrayList<>();
+        Path rootPath = root.toPath();
+        Files.walkFileTree(rootPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(rootPath)) {
+                    entries.add(new Entry(relativePath(rootPath, dir), true, 0, null));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String path = relativePath(rootPath, file);
+                entries.add(new Entry(path, false, attrs.size(), checksums.getProperty(path)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        entries.sort(Comparator.comparing(Entry::path));
+        return new ArtifactManifest(root, entries);
+    }
+
+    public static ArtifactManifest read(File root, File manifestFile) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", 4);
+                if (fields.length != 4) {
+                    throw new IOException("Malformed artifact manifest " + manifestFile);
+                }
+                entries.add(new Entry(fields[3], FOLDER.equals(fields[0]), Long.parseLong(fields[1]), fields[2].isEmpty() ? null : fields[2]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed artifact manifest " + manifestFile, e);
+        }
+        return new ArtifactManifest(root, entries);
+    }
+
+    /**
+     * @return false if the manifest can not be written, because a path can not be represented in it.
+     */
+    public boolean write(File manifestFile) throws IOException {
+        if (entries.stream().anyMatch(entry -> entry.path().contains("\n") || entry.path().contains("\r"))) {
+            return false;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(manifestFile.toPath(), UTF_8)) {
+            for (Entry entry : entries) {
+                writer.write(entry.folder() ? FOLDER : FILE);
+                writer.write('\t');
+                writer.write(Long.toString(entry.size()));
+                writer.write('\t');
+                writer.write(entry.md5() == null ? "" : entry.md5());
+                writer.write('\t');
+                writer.write(entry.path());
+                writer.newLine();
+            }
+        }
+        return true;
+    }
+
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * @return the entries below the folder, with paths relative to it, or null if the folder is not within the manifest.
+     */
+    public List<Entry> entriesUnder(File folder) {
+        Path relative = root.toPath().normalize().relativize(folder.toPath().normalize());
+        if (relative.startsWith("..")) {
+            return null;
+        }
+        String prefix = relative.toString().isEmpty() ? "" : FilenameUtils.separatorsToUnix(relative.toString()) + "/";
+        List<Entry> under = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.path().startsWith(prefix) && entry.path().length() > prefix.length()) {
+                under.add(new Entry(entry.path().substring(prefix.length()), entry.folder(), entry.size(), entry.md5()));
+            }
+        }
+        return under;
+    }
+
+    private static String relativePath(Path root, Path path) {
+        return FilenameUtils.separatorsToUnix(root.relativize(path).toString());
+    }
+
+    private static Properties checksums(File root) throws IOException {
+        Properties checksums = new Properties();
+        Path checksumFile = root.toPath().resolve(CRUISE_OUTPUT_FOLDER).resolve(MD5_CHECKSUM_FILENAME);
+        if (Files.isRegularFile(checksumFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(checksumFile, UTF_8)) {
+                checksums.load(reader);
+            } catch (IllegalArgumentException e) {
+                checksums.clear();
+            }
+        }
+        return checksums;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.thoughtworks.go.domain.ArtifactManifest;
+import com.thoughtworks.go.server.service.ArtifactsDirHolder;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Understands keeping the manifest of a job's artifacts next to its cached zip, and throwing it away whenever
+ * anything below the job's artifact directory changes.
+ */
+@Component
+public class ArtifactManifestCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactManifestCache.class);
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    private final ArtifactsDirHolder artifactsDirHolder;
+    // bumped whenever something below a job's artifact directory changes, so a scan racing an upload is not saved
+    private final ConcurrentMap<Path, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ArtifactManifestCache(ArtifactsDirHolder artifactsDirHolder) {
+        this.artifactsDirHolder = artifactsDirHolder;
+    }
+
+    public ArtifactManifest manifestFor(File jobRoot) throws IOException {
+        File manifestFile = manifestFile(jobRoot);
+        if (manifestFile == null || !jobRoot.isDirectory()) {
+            return ArtifactManifest.scan(jobRoot);
+        }
+        if (manifestFile.isFile()) {
+            try {
+                return ArtifactManifest.read(jobRoot, manifestFile);
+            } catch (IOException e) {
+                LOGGER.warn("Could not read artifact manifest {}. It will be created again.", manifestFile, e);
+            }
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(normalized(jobRoot), dir -> new AtomicLong());
+        long generationBeforeScan = generation.get();
+        ArtifactManifest manifest = ArtifactManifest.scan(jobRoot);
+        save(manifest, manifestFile, generation, generationBeforeScan);
+        return manifest;
+    }
+
+    /**
+     * Throws away the manifest of every directory above the changed file, as it is not known here which of them is
+     * the job's artifact directory.
+     */
+    public void invalidate(File changed) {
+        File artifactsDir = artifactsDirHolder.getArtifactsDir();
+        if (artifactsDir == null) {
+            return;
+        }
+        Path root = normalized(artifactsDir);
+        for (Path dir = normalized(changed); dir != null && dir.startsWith(root) && !dir.equals(root); dir = dir.getParent()) {
+            generations.computeIfPresent(dir, (ignored, generation) -> {
+                generation.incrementAndGet();
+                return generation;
+            });
+            File manifestFile = manifestFile(dir.toFile());
+            try {
+                if (manifestFile != null) {
+                    Files.deleteIfExists(manifestFile.toPath());
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete stale artifact manifest {}", manifestFile, e);
+            }
+        }
+    }
+
+    private void save(ArtifactManifest manifest, File manifestFile, AtomicLong generation, long generationBeforeScan) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(manifestFile.getParentFile().toPath());
+            tempFile = Files.createTempFile(manifestFile.getParentFile().toPath(), manifestFile.getName(), ".tmp");
+            // an upload during the scan may not be in the manifest, so leave it for the next listing to create
+            if (!manifest.write(tempFile.toFile()) || generation.get() != generationBeforeScan) {
+                return;
+            }
+            Files.move(tempFile, manifestFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+            if (generation.get() != generationBeforeScan) {
+                Files.deleteIfExists(manifestFile.toPath());
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not save artifact manifest {}", manifestFile, e);
+        } finally {
+            if (tempFile != null) {
+                tempFile.toFile().delete();
+            }
+        }
+    }
+
+    private static Path normalized(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    File manifestFile(File dir) {
+        File artifactsDir = artifactsDirHolder.getArtifactsDir();
+        if (artifactsDir == null) {
+            return null;
+        }
+        Path root = normalized(artifactsDir);
+        Path path = dir.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            return null;
+        }
+        String relative = FilenameUtils.separatorsToUnix(root.relativize(path).toString());
+        return new File(artifactsDir, ArtifactCache.CACHE_ARTIFACTS_FOLDER + relative + MANIFEST_SUFFIX);
+    }
+}
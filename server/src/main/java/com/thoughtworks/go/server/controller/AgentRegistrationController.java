@@ -31,6 +31,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -178,6 +179,28 @@ public class AgentRegistrationController {
         sendFile(agentPluginsZipSrc, response);
     }
 
+    @RequestMapping(value = "/admin/agent-plugins/manifest", method = RequestMethod.GET)
+    public void agentPluginsManifest(HttpServletResponse response) throws IOException {
+        PluginsZip.Manifest manifest = pluginsZip.manifest();
+        response.setHeader(RESPONSE_CONTENT_MD5, manifest.zipMd5());
+        setOtherHeaders(response);
+        response.setContentType("text/plain");
+        response.setCharacterEncoding(UTF_8.name());
+        response.getWriter().write(manifest.asText());
+    }
+
+    @RequestMapping(value = "/admin/agent-plugins/{folder}/{jarName:.+}", method = RequestMethod.GET)
+    public void downloadAgentPlugin(@PathVariable("folder") String folder, @PathVariable("jarName") String jarName, HttpServletResponse response) throws IOException {
+        PluginsZip.AgentPluginJar jar = pluginsZip.manifest().jar(folder + "/" + jarName);
+        if (jar == null) {
+            response.sendError(NOT_FOUND.value());
+            return;
+        }
+        response.setHeader(RESPONSE_CONTENT_MD5, jar.md5());
+        setOtherHeaders(response);
+        sendFile(JarDetector.createRaw(jar.jar().getAbsolutePath()), response);
+    }
+
     @RequestMapping(value = "/admin/agent", method = RequestMethod.POST)
     public ResponseEntity<String> agentRequest(@RequestParam("hostname") String hostname,
                                        @RequestParam("uuid") String uuid,
@@ -269,7 +269,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                 .and("column", jobHistoryColumns.getColumnName())
                 .and("order", order.toString())
                 .asMap();
-        return getSqlMapClientTemplate().queryForList("completedJobsOnAgent", params);
+        return getSqlMapClientTemplate().queryForListFromReplica("completedJobsOnAgent", params);
     }
 
     @Override
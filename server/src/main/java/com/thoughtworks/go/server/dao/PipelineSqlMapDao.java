@@ -499,8 +499,8 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
             "rawPattern", pattern.toLowerCase(),
             "limit", limit);
         long begin = System.currentTimeMillis();
-        List<PipelineInstanceModel> matchingPIMs = getSqlMapClientTemplate().queryForList("findMatchingPipelineInstances", args);
-        List<PipelineInstanceModel> exactMatchingPims = getSqlMapClientTemplate().queryForList("findExactMatchingPipelineInstances", args);
+        List<PipelineInstanceModel> matchingPIMs = getSqlMapClientTemplate().queryForListFromReplica("findMatchingPipelineInstances", args);
+        List<PipelineInstanceModel> exactMatchingPims = getSqlMapClientTemplate().queryForListFromReplica("findExactMatchingPipelineInstances", args);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("[Compare Pipelines] Query initiated for pipeline {} with pattern {}. Query execution took {} milliseconds", pipelineName, pattern, System.currentTimeMillis() - begin);
         }
@@ -554,8 +554,10 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
             .and("to", Collections.max(ids)).asMap();
         PipelineInstanceModels history = PipelineInstanceModels.createPipelineInstanceModels(
             getSqlMapClientTemplate().queryForList("getPipelineHistoryByName", args));
+        List<Long> historyIds = history.stream().map(PipelineInstanceModel::getId).toList();
+        Map<Long, MaterialRevisions> materialRevisions = materialRepository.findMaterialRevisionsForPipelines(historyIds);
         for (PipelineInstanceModel pipelineInstanceModel : history) {
-            loadPipelineHistoryBuildCause(pipelineInstanceModel);
+            loadPipelineHistoryBuildCause(pipelineInstanceModel, materialRevisions.get(pipelineInstanceModel.getId()));
         }
         return history;
     }
@@ -588,13 +590,16 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
 
     private PipelineInstanceModel loadPipelineHistoryBuildCause(PipelineInstanceModel pipeline) {
         if (pipeline != null) {
-            MaterialRevisions materialRevisions = materialRepository.findMaterialRevisionsForPipeline(pipeline.getId());
-            pipeline.setMaterialRevisionsOnBuildCause(materialRevisions);
-            pipeline.getBuildCause().setApprover(pipeline.getApprovedBy());
+            loadPipelineHistoryBuildCause(pipeline, materialRepository.findMaterialRevisionsForPipeline(pipeline.getId()));
         }
         return pipeline;
     }
 
+    private void loadPipelineHistoryBuildCause(PipelineInstanceModel pipeline, MaterialRevisions materialRevisions) {
+        pipeline.setMaterialRevisionsOnBuildCause(materialRevisions);
+        pipeline.getBuildCause().setApprover(pipeline.getApprovedBy());
+    }
+
     public void pause(String pipelineName, String pauseCause, String pauseBy) {
         String cacheKey = cacheKeyForPauseState(pipelineName);
         synchronized (cacheKey) {
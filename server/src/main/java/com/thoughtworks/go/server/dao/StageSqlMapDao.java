@@ -392,7 +392,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
                 .and("offset", offset)
                 .and("limit", pageSize)
                 .asMap();
-        return new Stages(getSqlMapClientTemplate().queryForList("findStageHistoryForChartPerPipeline", args));
+        return new Stages(getSqlMapClientTemplate().queryForListFromReplica("findStageHistoryForChartPerPipeline", args));
     }
 
     @Override
@@ -566,7 +566,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("value", id);
         parameters.put("pageLimit", pageSize);
-        return getSqlMapClientTemplate().queryForList("allCompletedStages" + modifier.suffix(), parameters);
+        return getSqlMapClientTemplate().queryForListFromReplica("allCompletedStages" + modifier.suffix(), parameters);
     }
 
     @Override
@@ -579,7 +579,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         params.put("pipelineCounter", pipelineCounter);
         params.put("pageLimit", pageSize);
         params.put("feedModifier", feedModifier != null ? feedModifier.suffix() : null);
-        return getSqlMapClientTemplate().queryForList("stageFeedByPipelineNameAndCounter", params);
+        return getSqlMapClientTemplate().queryForListFromReplica("stageFeedByPipelineNameAndCounter", params);
     }
 
     @Override
@@ -592,7 +592,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         parameters.put("value", transitionId);
         parameters.put("pageLimit", pageSize);
         parameters.put("pipelineName", pipelineName);
-        return getSqlMapClientTemplate().queryForList("allCompletedStagesForPipeline" + feedModifier.suffix(), parameters);
+        return getSqlMapClientTemplate().queryForListFromReplica("allCompletedStagesForPipeline" + feedModifier.suffix(), parameters);
     }
 
     @VisibleForTesting
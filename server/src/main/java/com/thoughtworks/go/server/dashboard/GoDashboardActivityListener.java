@@ -15,11 +15,13 @@
  */
 package com.thoughtworks.go.server.dashboard;
 
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.ConfigChangeSet;
 import com.thoughtworks.go.config.CruiseConfig;
 import com.thoughtworks.go.config.PipelineConfig;
 import com.thoughtworks.go.config.PipelineConfigs;
 import com.thoughtworks.go.config.PipelineTemplateConfig;
-import com.thoughtworks.go.listener.ConfigChangedListener;
+import com.thoughtworks.go.listener.ConfigChangeSetListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.listener.SecurityConfigChangeListener;
 import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener;
@@ -38,11 +40,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PreDestroy;
+import java.util.Set;
 
 /* Listens to all activity that is needed to keep the dashboard updated and sets it up for processing.
  */
 @Component
-public class GoDashboardActivityListener implements Initializer, Daemonized, ConfigChangedListener, PipelinePauseChangeListener,
+public class GoDashboardActivityListener implements Initializer, Daemonized, ConfigChangeSetListener, PipelinePauseChangeListener,
         PipelineLockStatusChangeListener {
     private final GoConfigService goConfigService;
     private final StageService stageService;
@@ -123,6 +126,29 @@ public class GoDashboardActivityListener implements Initializer, Daemonized, Con
         });
     }
 
+    @Override
+    public void onConfigChange(final CruiseConfig newConfig, final ConfigChangeSet changes) {
+        if (!changes.onlyPipelinesChanged()) {
+            onConfigChange(newConfig);
+            return;
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        final Set<CaseInsensitiveString> pipelineNames = changes.affectedPipelines();
+        processor.add(new Action() {
+            @Override
+            public void call() {
+                configChangeHandler.call(pipelineNames);
+            }
+
+            @Override
+            public String description() {
+                return "config change of pipelines: " + pipelineNames;
+            }
+        });
+    }
+
     protected EntityConfigChangedListener<PipelineConfig> pipelineConfigChangedListener() {
         return new EntityConfigChangedListener<>() {
             @Override
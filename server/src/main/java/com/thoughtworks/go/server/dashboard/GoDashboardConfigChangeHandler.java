@@ -15,12 +15,15 @@
  */
 package com.thoughtworks.go.server.dashboard;
 
+import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.config.CruiseConfig;
 import com.thoughtworks.go.config.PipelineConfig;
 import com.thoughtworks.go.server.service.GoDashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+
 /* Understands what needs to be done to keep the dashboard cache updated, when the config changes. */
 @Component
 public class GoDashboardConfigChangeHandler {
@@ -35,6 +38,12 @@ public class GoDashboardConfigChangeHandler {
         cacheUpdateService.updateCacheForPipeline(pipelineConfig);
     }
 
+    public void call(Collection<CaseInsensitiveString> pipelineNames) {
+        for (CaseInsensitiveString pipelineName : pipelineNames) {
+            cacheUpdateService.updateCacheForPipeline(pipelineName);
+        }
+    }
+
     public void call(CruiseConfig config) {
         cacheUpdateService.updateCacheForAllPipelinesIn(config);
     }
@@ -26,9 +26,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Function;
 
 @Component
@@ -62,7 +65,7 @@ public class Database {
     }
 
     @Bean(name = "goDataSource")
-    public BasicDataSource getDataSource() throws SQLException {
+    public DataSource getDataSource() throws SQLException {
         BasicDataSource dataSource = connectionManager.getDataSourceInstance();
         try (Connection connection = dataSource.getConnection()) {
             new DbDeploySchemaVerifier().verify(connection, systemEnvironment.getConfigDir());
@@ -72,7 +75,16 @@ public class Database {
             databaseMigrator.migrate(connection);
         }
 
-        return dataSource;
+        return connectionManager.getReplicaDataSourceInstance()
+            .<DataSource>map(replica -> new ReadReplicaRoutingDataSource(dataSource, replica))
+            .orElse(dataSource);
+    }
+
+    public Map<String, BasicDataSource> connectionPools() {
+        Map<String, BasicDataSource> pools = new LinkedHashMap<>();
+        pools.put("primary", connectionManager.getDataSourceInstance());
+        connectionManager.getReplicaDataSourceInstance().ifPresent(replica -> pools.put("replica", replica));
+        return pools;
     }
 
     public void backup(File targetDir) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.database;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Understands handing out connections to the read replica for reads that have been marked as tolerating stale data,
+ * and to the primary database for everything else. Reads are never sent to the replica from within a transaction, so
+ * that a transaction always sees its own writes.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final ThreadLocal<Boolean> STALE_READS_ALLOWED = ThreadLocal.withInitial(() -> false);
+
+    enum Target {PRIMARY, REPLICA}
+
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong replicaConnections = new AtomicLong();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs the read, letting connections it opens outside a transaction go to the read replica, when there is one.
+     */
+    public static <T> T staleReadsAllowed(Supplier<T> read) {
+        if (STALE_READS_ALLOWED.get()) {
+            return read.get();
+        }
+        STALE_READS_ALLOWED.set(true);
+        try {
+            return read.get();
+        } finally {
+            STALE_READS_ALLOWED.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (STALE_READS_ALLOWED.get() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            replicaConnections.incrementAndGet();
+            return Target.REPLICA;
+        }
+        primaryConnections.incrementAndGet();
+        return Target.PRIMARY;
+    }
+
+    public long primaryConnectionCount() {
+        return primaryConnections.get();
+    }
+
+    public long replicaConnectionCount() {
+        return replicaConnections.get();
+    }
+}
@@ -16,6 +16,7 @@
 package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.config.materials.SubprocessExecutionContext;
+import com.thoughtworks.go.config.materials.git.GitMaterial;
 import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.MaterialRevisions;
 import com.thoughtworks.go.domain.materials.Material;
@@ -23,6 +24,7 @@ import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.Modifications;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.MaterialService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,18 +41,25 @@ class ScmMaterialUpdater implements MaterialUpdater {
     private final LegacyMaterialChecker materialChecker;
     private final SubprocessExecutionContext subprocessExecutionContext;
     private final MaterialService materialService;
+    private final SystemEnvironment systemEnvironment;
 
     @Autowired
     ScmMaterialUpdater(MaterialRepository materialRepository, LegacyMaterialChecker materialChecker,
-                       SubprocessExecutionContext subprocessExecutionContext, MaterialService materialService) {
+                       SubprocessExecutionContext subprocessExecutionContext, MaterialService materialService, SystemEnvironment systemEnvironment) {
         this.materialRepository = materialRepository;
         this.materialChecker = materialChecker;
         this.subprocessExecutionContext = subprocessExecutionContext;
         this.materialService = materialService;
+        this.systemEnvironment = systemEnvironment;
     }
 
     @Override
     public void insertLatestOrNewModifications(Material material, MaterialInstance materialInstance, File folder, Modifications list) {
+        if (!list.isEmpty() && isUpstreamUnchanged(material, folder, list)) {
+            LOGGER.debug("[Material Update] Upstream ref unchanged for material '{}' with flyweight '{}', skipping fetch", material, material.getFingerprint());
+            return;
+        }
+
         List<Modification> newChanges = list.isEmpty() ?
                 materialChecker.findLatestModification(folder, material, subprocessExecutionContext) :
                 materialService.modificationsSince(material, folder, list.latestRevision(material), subprocessExecutionContext);
@@ -63,6 +72,18 @@ class ScmMaterialUpdater implements MaterialUpdater {
         }
     }
 
+    private boolean isUpstreamUnchanged(Material material, File folder, Modifications list) {
+        if (!(material instanceof GitMaterial gitMaterial) || !systemEnvironment.get(SystemEnvironment.MDU_SKIP_FETCH_WHEN_UPSTREAM_UNCHANGED)) {
+            return false;
+        }
+        try {
+            return gitMaterial.isUpstreamAt(folder, list.latestRevision(material), subprocessExecutionContext);
+        } catch (Exception e) {
+            LOGGER.debug("[Material Update] Could not look up upstream ref for material '{}', falling back to a full update", material, e);
+            return false;
+        }
+    }
+
     @Override
     public void addNewMaterialWithModifications(Material material, File folder) {
         MaterialRevisions materialRevisions = materialRepository.findLatestModification(material);
@@ -0,0 +1,139 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.notifications;
+
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.TimeProvider;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Understands what is waiting to be delivered to one notification plugin, and how far behind its delivery is.
+ * <p>
+ * When coalescing, only one message per coalescing key (e.g. per agent) is kept on the plugin's queue at a time. Later
+ * messages for the same key replace the data of the queued one, so a storm of agent status changes is delivered as
+ * the latest status of each agent rather than as every change in turn.
+ * <p>
+ * A replaced message is delivered only if the queued one is delivered before its time to live runs out. Messages are
+ * therefore only replaced during the first half of that time; after that the next message is queued on its own.
+ */
+public class PluginNotificationBacklog {
+    private final boolean coalesce;
+    private final Clock clock;
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong posted = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong lastLagInMillis = new AtomicLong();
+    private final AtomicLong maxLagInMillis = new AtomicLong();
+
+    public PluginNotificationBacklog(boolean coalesce) {
+        this(coalesce, new TimeProvider());
+    }
+
+    PluginNotificationBacklog(boolean coalesce, Clock clock) {
+        this.coalesce = coalesce;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if the message has to be posted to the plugin's queue, false if it replaced one that is already
+     * queued and still has at least half of its time to live left. A time to live of 0 or less never expires.
+     */
+    boolean offer(PluginNotificationMessage<?> message, long timeToLive) {
+        String key = message.getCoalescingKey();
+        if (!coalesce || key == null) {
+            posted.incrementAndGet();
+            return true;
+        }
+        long now = clock.currentTimeMillis();
+        long expiresAt = timeToLive > 0 ? now + timeToLive : Long.MAX_VALUE;
+        long replaceableUntil = timeToLive > 0 ? now + timeToLive / 2 : Long.MAX_VALUE;
+        boolean[] replaced = {false};
+        pending.compute(key, (k, queued) -> {
+            if (queued != null && now < queued.replaceableUntil()) {
+                replaced[0] = true;
+                return new Pending(message, queued.replaceableUntil(), queued.expiresAt());
+            }
+            return new Pending(message, replaceableUntil, expiresAt);
+        });
+        if (replaced[0]) {
+            coalesced.incrementAndGet();
+            return false;
+        }
+        forgetExpired();
+        posted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return the message to deliver for the one taken off the queue, or null if there is nothing left to deliver
+     * for its coalescing key.
+     */
+    PluginNotificationMessage<?> latest(PluginNotificationMessage<?> message) {
+        String key = message.getCoalescingKey();
+        if (!coalesce || key == null) {
+            return message;
+        }
+        Pending queued = pending.remove(key);
+        return queued == null ? null : queued.message();
+    }
+
+    void delivered(long queuedAt) {
+        long lag = Math.max(0, clock.currentTimeMillis() - queuedAt);
+        delivered.incrementAndGet();
+        lastLagInMillis.set(lag);
+        maxLagInMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    public long postedCount() {
+        return posted.get();
+    }
+
+    public long deliveredCount() {
+        return delivered.get();
+    }
+
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    public int pendingCoalescedCount() {
+        forgetExpired();
+        return pending.size();
+    }
+
+    public long lastLagInMillis() {
+        return lastLagInMillis.get();
+    }
+
+    public long maxLagInMillis() {
+        return maxLagInMillis.get();
+    }
+
+    /**
+     * Drops messages whose queued message has expired unseen, for keys that have had no message since.
+     */
+    private void forgetExpired() {
+        long now = clock.currentTimeMillis();
+        pending.values().removeIf(queued -> now >= queued.expiresAt());
+    }
+
+    private record Pending(PluginNotificationMessage<?> message, long replaceableUntil, long expiresAt) {
+    }
+}
@@ -24,11 +24,23 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
     private String pluginId;
     private final String requestName;
     private final T data;
+    private final String coalescingKey;
+    private final long createdAt;
 
     public PluginNotificationMessage(String pluginId, String requestName, T data) {
+        this(pluginId, requestName, data, null);
+    }
+
+    /**
+     * A message with a coalescing key only needs to be delivered if no later message with the same key has been
+     * posted for the plugin before it was taken off the queue.
+     */
+    public PluginNotificationMessage(String pluginId, String requestName, T data, String coalescingKey) {
         this.pluginId = pluginId;
         this.requestName = requestName;
         this.data = data;
+        this.coalescingKey = coalescingKey;
+        this.createdAt = System.currentTimeMillis();
     }
 
     public String getRequestName() {
@@ -39,6 +51,14 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
         return data;
     }
 
+    public String getCoalescingKey() {
+        return coalescingKey;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
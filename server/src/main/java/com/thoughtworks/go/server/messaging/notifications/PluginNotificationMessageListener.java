@@ -31,14 +31,33 @@ public class PluginNotificationMessageListener implements GoMessageListener<Plug
     private static final Logger LOGGER = LoggerFactory.getLogger(PluginNotificationMessageListener.class);
     private final NotificationExtension notificationExtension;
     private final ServerHealthService serverHealthService;
+    private final PluginNotificationBacklog backlog;
 
     public PluginNotificationMessageListener(NotificationExtension notificationExtension, ServerHealthService serverHealthService) {
+        this(notificationExtension, serverHealthService, new PluginNotificationBacklog(false));
+    }
+
+    public PluginNotificationMessageListener(NotificationExtension notificationExtension, ServerHealthService serverHealthService, PluginNotificationBacklog backlog) {
         this.notificationExtension = notificationExtension;
         this.serverHealthService = serverHealthService;
+        this.backlog = backlog;
     }
 
     @Override
-    public void onMessage(PluginNotificationMessage<?> message) {
+    public void onMessage(PluginNotificationMessage<?> queuedMessage) {
+        PluginNotificationMessage<?> message = backlog.latest(queuedMessage);
+        if (message == null) {
+            LOGGER.debug("Skipping {} as a later notification for it has already been sent to plugin {}", queuedMessage, queuedMessage.pluginId());
+            return;
+        }
+        try {
+            notify(message);
+        } finally {
+            backlog.delivered(queuedMessage.getCreatedAt());
+        }
+    }
+
+    private void notify(PluginNotificationMessage<?> message) {
         HealthStateScope scope = HealthStateScope.aboutPlugin(message.pluginId());
         try {
             if (LOGGER.isDebugEnabled()) {
@@ -75,10 +75,14 @@ public class PluginNotificationService {
 
     private void notify(String requestName, Object instance) {
         Set<String> interestedPlugins = notificationPluginRegistry.getPluginsInterestedIn(requestName);
+        if (interestedPlugins.isEmpty()) {
+            return;
+        }
         long timeToLive = systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS);
+        @SuppressWarnings("unchecked") Serializable data = ((NotificationDataCreator<Object, ?>) notificationCreators.get(requestName)).notificationDataFor(instance);
+        String coalescingKey = data instanceof AgentNotificationData agentData ? agentData.getUuid() : null;
         for (String pluginId : interestedPlugins) {
-            @SuppressWarnings("unchecked") PluginNotificationMessage<?> message = new PluginNotificationMessage<>(pluginId, requestName, ((NotificationDataCreator<Object, ?>) notificationCreators.get(requestName)).notificationDataFor(instance));
-            pluginNotificationsQueueHandler.post(message, timeToLive);
+            pluginNotificationsQueueHandler.post(new PluginNotificationMessage<>(pluginId, requestName, data, coalescingKey), timeToLive);
         }
     }
 
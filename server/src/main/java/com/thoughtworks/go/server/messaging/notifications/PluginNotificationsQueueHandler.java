@@ -25,27 +25,62 @@ import org.jetbrains.annotations.TestOnly;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_COALESCE_AGENT_STATUS;
 
 @Component
 public class PluginNotificationsQueueHandler extends PluginAwareMessageQueueHandler<PluginNotificationMessage<?>> {
     private final static String QUEUE_NAME_PREFIX = PluginNotificationsQueueHandler.class.getSimpleName() + ".";
+    private final Map<String, PluginNotificationBacklog> backlogs;
 
     @Autowired
     public PluginNotificationsQueueHandler(final MessagingService<GoMessage> messaging, NotificationExtension notificationExtension,
         PluginManager pluginManager, final SystemEnvironment systemEnvironment, ServerHealthService serverHealthService) {
+        this(messaging, notificationExtension, pluginManager, systemEnvironment, serverHealthService, new ConcurrentHashMap<>());
+    }
+
+    private PluginNotificationsQueueHandler(final MessagingService<GoMessage> messaging, NotificationExtension notificationExtension,
+        PluginManager pluginManager, final SystemEnvironment systemEnvironment, ServerHealthService serverHealthService,
+        final Map<String, PluginNotificationBacklog> backlogs) {
         super(notificationExtension, messaging, pluginManager, new QueueFactory<PluginNotificationMessage<?>>() {
             @Override
             public PluginAwareMessageQueue<PluginNotificationMessage<?>> create(GoPluginDescriptor pluginDescriptor) {
+                PluginNotificationBacklog backlog = new PluginNotificationBacklog(systemEnvironment.get(NOTIFICATION_PLUGIN_COALESCE_AGENT_STATUS));
+                backlogs.put(pluginDescriptor.id(), backlog);
                 return new PluginAwareMessageQueue<>(messaging,
                     QUEUE_NAME_PREFIX + pluginDescriptor.id(),
-                    systemEnvironment.getNotificationListenerCountForPlugin(pluginDescriptor.id()), listener());
+                    systemEnvironment.getNotificationListenerCountForPlugin(pluginDescriptor.id()), listener(backlog));
             }
 
-            public ListenerFactory<PluginNotificationMessage<?>> listener() {
-                return () -> new PluginNotificationMessageListener(notificationExtension, serverHealthService);
+            public ListenerFactory<PluginNotificationMessage<?>> listener(PluginNotificationBacklog backlog) {
+                return () -> new PluginNotificationMessageListener(notificationExtension, serverHealthService, backlog);
             }
         });
+        this.backlogs = backlogs;
+    }
+
+    @Override
+    public void pluginUnLoaded(GoPluginDescriptor pluginDescriptor) {
+        try {
+            super.pluginUnLoaded(pluginDescriptor);
+        } finally {
+            backlogs.remove(pluginDescriptor.id());
+        }
+    }
+
+    @Override
+    public void post(PluginNotificationMessage<?> message, long timeToLive) {
+        PluginNotificationBacklog backlog = backlogs.get(message.pluginId());
+        if (backlog == null || backlog.offer(message, timeToLive)) {
+            super.post(message, timeToLive);
+        }
+    }
+
+    public Map<String, PluginNotificationBacklog> backlogs() {
+        return Collections.unmodifiableMap(backlogs);
     }
 
     @TestOnly
@@ -55,6 +55,7 @@ public class AuthorizeFilterChain extends FilterChainProxy {
                 .addFilterChain("/admin/agent-launcher.jar", allowAllAccessFilter)
                 .addFilterChain("/admin/tfs-impl.jar", allowAllAccessFilter)
                 .addFilterChain("/admin/agent-plugins.zip", allowAllAccessFilter)
+                .addFilterChain("/admin/agent-plugins/**", allowAllAccessFilter)
 
                 // some publicly available APIs
                 .addFilterChain("/api/version", allowAllAccessFilter)
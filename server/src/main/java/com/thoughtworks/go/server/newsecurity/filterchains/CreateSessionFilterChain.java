@@ -35,6 +35,7 @@ public class CreateSessionFilterChain extends FilterChainProxy {
                 .addFilterChain("/admin/agent", agentSessionReduceIdleTimeoutFilter, alwaysCreateSessionFilter)
                 .addFilterChain("/admin/agent/token", agentSessionReduceIdleTimeoutFilter, alwaysCreateSessionFilter)
                 .addFilterChain("/admin/agent-plugins.zip", agentSessionReduceIdleTimeoutFilter, alwaysCreateSessionFilter)
+                .addFilterChain("/admin/agent-plugins/**", agentSessionReduceIdleTimeoutFilter, alwaysCreateSessionFilter)
                 .addFilterChain("/cctray.xml", apiSessionReduceIdleTimeoutFilter, alwaysCreateSessionFilter)
                 .addFilterChain("/api/**", apiSessionReduceIdleTimeoutFilter, alwaysCreateSessionFilter)
                 .addFilterChain("/**", alwaysCreateSessionFilter)
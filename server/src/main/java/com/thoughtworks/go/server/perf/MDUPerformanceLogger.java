@@ -58,6 +58,12 @@ public class MDUPerformanceLogger {
         }
     }
 
+    public void modificationsSaved(String fingerprint, int saved, int total) {
+        if (performanceLogger.isDebugEnabled()) {
+            performanceLogger.debug("MDU-SAVE-MODIFICATIONS {} {}/{}", fingerprint, saved, total);
+        }
+    }
+
     public void completionMessageForMaterialReceived(long trackingId, Material material) {
         if (performanceLogger.isDebugEnabled()) {
             performanceLogger.debug("MDU-QUEUE-REMOVE {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
@@ -27,6 +27,8 @@ import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.dao.FeedModifier;
 import com.thoughtworks.go.server.database.Database;
 import com.thoughtworks.go.server.database.QueryExtensions;
+import com.thoughtworks.go.server.database.ReadReplicaRoutingDataSource;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
@@ -53,6 +55,11 @@ import org.springframework.transaction.support.TransactionSynchronizationAdapter
 
 import java.io.File;
 import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -71,6 +78,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(MaterialRepository.class.getName());
     private static final int BATCH_SIZE_NUM_PIPELINES_TO_GET_PIPELINE_MATERIAL_REVISIONS = 500;
     private static final int BATCH_SIZE_NUM_PIPELINE_MATERIAL_REVISION_To_GET_MODIFICATIONS = 100;
+    private static final int BATCH_SIZE_TO_SAVE_MODIFICATIONS = 1000;
 
     private final GoCache goCache;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
@@ -79,6 +87,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     private final CacheKeyGenerator cacheKeyGenerator;
     private final int latestModificationsCacheLimit;
     private final MaterialExpansionService materialExpansionService;
+    private final MDUPerformanceLogger mduPerformanceLogger;
 
     @Autowired
     public MaterialRepository(SessionFactory sessionFactory,
@@ -87,13 +96,15 @@ public class MaterialRepository extends HibernateDaoSupport {
                               TransactionSynchronizationManager transactionSynchronizationManager,
                               MaterialConfigConverter materialConfigConverter,
                               MaterialExpansionService materialExpansionService,
-                              Database databaseStrategy) {
+                              Database databaseStrategy,
+                              MDUPerformanceLogger mduPerformanceLogger) {
         this.goCache = goCache;
         this.latestModificationsCacheLimit = latestModificationsCacheLimit;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.materialConfigConverter = materialConfigConverter;
         this.materialExpansionService = materialExpansionService;
         this.queryExtensions = databaseStrategy.getQueryExtensions();
+        this.mduPerformanceLogger = mduPerformanceLogger;
         setSessionFactory(sessionFactory);
         this.cacheKeyGenerator = new CacheKeyGenerator(getClass());
     }
@@ -238,6 +249,23 @@ public class MaterialRepository extends HibernateDaoSupport {
         return materialRevisions;
     }
 
+    /**
+     * Same as {@link #findMaterialRevisionsForPipeline(long)} for each of the pipelines, but loads the pipeline material
+     * revisions and modifications that are not cached yet in batches, rather than with queries for every pipeline.
+     */
+    public Map<Long, MaterialRevisions> findMaterialRevisionsForPipelines(List<Long> pipelineIds) {
+        List<Long> uncachedPipelineIds = pipelineIds.stream().filter(pipelineId -> goCache.get(pipelinePmrsKey(pipelineId)) == null).toList();
+        for (List<Long> idBatch : ListUtils.partition(uncachedPipelineIds, BATCH_SIZE_NUM_PIPELINES_TO_GET_PIPELINE_MATERIAL_REVISIONS)) {
+            loadMaterialRevisionsIntoCacheByPipelineIds(idBatch);
+        }
+
+        Map<Long, MaterialRevisions> materialRevisionsByPipeline = new LinkedHashMap<>(pipelineIds.size());
+        for (Long pipelineId : pipelineIds) {
+            materialRevisionsByPipeline.put(pipelineId, findMaterialRevisionsForPipeline(pipelineId));
+        }
+        return materialRevisionsByPipeline;
+    }
+
     public void cacheMaterialRevisionsForPipelines(Set<Long> pipelineIds) {
         List<List<Long>> idBatches = ListUtils.partition(List.copyOf(pipelineIds), BATCH_SIZE_NUM_PIPELINES_TO_GET_PIPELINE_MATERIAL_REVISIONS);
 
@@ -268,22 +296,23 @@ public class MaterialRepository extends HibernateDaoSupport {
         return (List<PipelineMaterialRevision>) getHibernateTemplate().find("FROM PipelineMaterialRevision WHERE pipelineId = ? ORDER BY id", pipelineId);
     }
 
+    // every list is complete before it is cached, so that it is never seen half-filled, and pipelines without any
+    // revisions are cached as such
     private void loadMaterialRevisionsIntoCacheByPipelineIds(List<Long> pipelineIds) {
         @SuppressWarnings("unchecked") List<PipelineMaterialRevision> pmrs = (List<PipelineMaterialRevision>) getHibernateTemplate().findByCriteria(buildPMRDetachedQuery(pipelineIds));
         sortPersistentObjectsById(pmrs, true);
+        final Map<Long, List<PipelineMaterialRevision>> pmrsByPipeline = new LinkedHashMap<>();
+        for (Long pipelineId : pipelineIds) {
+            pmrsByPipeline.put(pipelineId, new ArrayList<>());
+        }
         final Set<PipelineMaterialRevision> uniquePmrs = new HashSet<>();
         for (PipelineMaterialRevision pmr : pmrs) {
-            String cacheKey = pipelinePmrsKey(pmr.getPipelineId());
-            List<PipelineMaterialRevision> pmrsForId = goCache.get(cacheKey);
-            if (pmrsForId == null) {
-                pmrsForId = new ArrayList<>();
-                goCache.put(cacheKey, pmrsForId);
-            }
-            pmrsForId.add(pmr);
+            pmrsByPipeline.computeIfAbsent(pmr.getPipelineId(), pipelineId -> new ArrayList<>()).add(pmr);
             putMaterialInstanceIntoCache(pmr.getToModification().getMaterialInstance());
             uniquePmrs.add(pmr);
         }
         loadModificationsIntoCache(uniquePmrs);
+        pmrsByPipeline.forEach((pipelineId, pmrsForId) -> goCache.put(pipelinePmrsKey(pipelineId), pmrsForId));
     }
 
     private void sortPersistentObjectsById(List<? extends PersistentObject> persistentObjects, boolean asc) {
@@ -316,28 +345,25 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     private void loadModificationsForPMR(List<PipelineMaterialRevision> pmrs) {
+        List<PipelineMaterialRevision> uncachedPmrs = pmrs.stream().filter(pmr -> goCache.get(pmrModificationsKey(pmr)) == null).toList();
         List<Criterion> criterions = new ArrayList<>();
-        for (PipelineMaterialRevision pmr : pmrs) {
-            if (goCache.get(pmrModificationsKey(pmr)) != null) {
-                continue;
-            }
+        for (PipelineMaterialRevision pmr : uncachedPmrs) {
             final Criterion modificationClause = Restrictions.between("id", pmr.getFromModification().getId(), pmr.getToModification().getId());
             final SimpleExpression idClause = Restrictions.eq("materialInstance", pmr.getMaterialInstance());
             criterions.add(Restrictions.and(idClause, modificationClause));
         }
+        if (criterions.isEmpty()) {
+            return;
+        }
         @SuppressWarnings("unchecked") List<Modification> modifications = (List<Modification>) getHibernateTemplate().findByCriteria(buildModificationDetachedQuery(criterions));
         sortPersistentObjectsById(modifications, false);
+        Map<String, List<Modification>> modificationsByKey = new LinkedHashMap<>();
         for (Modification modification : modifications) {
-            List<String> cacheKeys = pmrModificationsKey(modification, pmrs);
-            for (String cacheKey : cacheKeys) {
-                List<Modification> modificationList = goCache.get(cacheKey);
-                if (modificationList == null) {
-                    modificationList = new ArrayList<>();
-                    goCache.put(cacheKey, modificationList);
-                }
-                modificationList.add(modification);
+            for (String cacheKey : pmrModificationsKey(modification, uncachedPmrs)) {
+                modificationsByKey.computeIfAbsent(cacheKey, key -> new ArrayList<>()).add(modification);
             }
         }
+        modificationsByKey.forEach(goCache::put);
     }
 
     private DetachedCriteria buildModificationDetachedQuery(List<Criterion> criteria) {
@@ -752,9 +778,7 @@ public class MaterialRepository extends HibernateDaoSupport {
 
         try {
             checkAndRemoveDuplicates(materialInstance, newChanges, list);
-            for (Modification modification : list) {
-                getHibernateTemplate().saveOrUpdate(modification);
-            }
+            insertModifications(materialInstance, list);
         } catch (Exception e) {
             String message = "Cannot save modification: ";
             LOGGER.error(message, e);
@@ -765,26 +789,94 @@ public class MaterialRepository extends HibernateDaoSupport {
         removeCachedModificationsFor(materialInstance);
     }
 
+    /**
+     * Modifications have to be inserted one at a time to get their identity back, but their modified files are
+     * written as JDBC batches and each saved modification is evicted, so that the session does not grow (and
+     * get dirty-checked on every flush) while saving a large number of modifications.
+     */
+    private void insertModifications(MaterialInstance materialInstance, List<Modification> modifications) {
+        getHibernateTemplate().execute(session -> {
+            int saved = 0;
+            for (List<Modification> batch : ListUtils.partition(modifications, BATCH_SIZE_TO_SAVE_MODIFICATIONS)) {
+                List<Modification> inserted = new ArrayList<>();
+                for (Modification modification : batch) {
+                    if (modification.hasId()) {
+                        session.saveOrUpdate(modification);
+                        continue;
+                    }
+                    List<ModifiedFile> files = modification.getModifiedFiles();
+                    modification.setModifiedFiles(null);
+                    session.save(modification);
+                    session.evict(modification);
+                    modification.setModifiedFiles(files);
+                    inserted.add(modification);
+                }
+                session.doWork(connection -> insertModifiedFiles(connection, inserted));
+                saved += batch.size();
+                mduPerformanceLogger.modificationsSaved(materialInstance.getFingerprint(), saved, modifications.size());
+            }
+            return null;
+        });
+    }
+
+    // the generated ids are set back on the files, so that they are not inserted again if their modification is saved later
+    private void insertModifiedFiles(Connection connection, List<Modification> modifications) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO modifiedFiles (modificationId, fileName, folderName, action) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            List<ModifiedFile> pending = new ArrayList<>();
+            for (Modification modification : modifications) {
+                for (ModifiedFile file : modification.getModifiedFiles()) {
+                    file.setModificationId(modification.getId());
+                    statement.setLong(1, modification.getId());
+                    statement.setString(2, file.getFileName());
+                    statement.setString(3, file.getFolderName());
+                    statement.setString(4, file.getAction() == null ? null : file.getAction().name());
+                    statement.addBatch();
+                    pending.add(file);
+                    if (pending.size() == BATCH_SIZE_TO_SAVE_MODIFICATIONS) {
+                        executeBatch(statement, pending);
+                    }
+                }
+            }
+            if (!pending.isEmpty()) {
+                executeBatch(statement, pending);
+            }
+        }
+    }
+
+    private void executeBatch(PreparedStatement statement, List<ModifiedFile> files) throws SQLException {
+        statement.executeBatch();
+        try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            for (ModifiedFile file : files) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Expected a generated id for each inserted modified file, got fewer than " + files.size());
+                }
+                file.setId(generatedKeys.getLong(1));
+            }
+        }
+        files.clear();
+    }
+
     private void checkAndRemoveDuplicates(MaterialInstance materialInstance,
                                           List<Modification> newChanges,
                                           List<Modification> list) {
         if (!new SystemEnvironment().get(SystemEnvironment.CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS)) {
             return;
         }
-        DetachedCriteria criteria = DetachedCriteria.forClass(Modification.class);
-        criteria.setProjection(Projections.projectionList().add(Projections.property("revision")));
-        criteria.add(Restrictions.eq("materialInstance.id", materialInstance.getId()));
         List<String> revisions = new ArrayList<>();
         for (Modification modification : newChanges) {
             revisions.add(modification.getRevision());
         }
-        criteria.add(Restrictions.in("revision", revisions));
-        @SuppressWarnings("unchecked") List<String> matchingRevisionsFromDb = (List<String>) getHibernateTemplate().findByCriteria(criteria);
+        Set<String> matchingRevisionsFromDb = new LinkedHashSet<>();
+        for (List<String> revisionsBatch : ListUtils.partition(revisions, BATCH_SIZE_TO_SAVE_MODIFICATIONS)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(Modification.class);
+            criteria.setProjection(Projections.projectionList().add(Projections.property("revision")));
+            criteria.add(Restrictions.eq("materialInstance.id", materialInstance.getId()));
+            criteria.add(Restrictions.in("revision", revisionsBatch));
+            @SuppressWarnings("unchecked") List<String> matching = (List<String>) getHibernateTemplate().findByCriteria(criteria);
+            matchingRevisionsFromDb.addAll(matching);
+        }
         if (!matchingRevisionsFromDb.isEmpty()) {
-            for (final String revision : matchingRevisionsFromDb) {
-                Modification modification = list.stream().filter(item -> item.getRevision().equals(revision)).findFirst().orElse(null);
-                list.remove(modification);
-            }
+            list.removeIf(modification -> matchingRevisionsFromDb.contains(modification.getRevision()));
         }
         if (!newChanges.isEmpty() && list.isEmpty()) {
             LOGGER.debug("All modifications already exist in db [{}]", revisions);
@@ -841,55 +933,96 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     public boolean hasPipelineEverRunWith(final String pipelineName, final MaterialRevisions revisions) {
+        String key = cacheKeyForHasPipelineEverRunWithModifications(pipelineName);
+        PipelineModificationRanges knownRanges = Objects.requireNonNullElse(goCache.get(key), PipelineModificationRanges.NONE);
+
+        List<long[]> unknownRevisions = new ArrayList<>();
+        for (MaterialRevision revision : revisions) {
+            long materialId = findOrCreateFrom(revision.getMaterial()).getId();
+            long modificationId = revision.getLatestModification().getId();
+            if (!knownRanges.contains(materialId, modificationId)) {
+                unknownRevisions.add(new long[]{materialId, modificationId});
+            }
+        }
+        if (unknownRevisions.isEmpty()) {
+            return true;
+        }
+
+        Object[] ranges = findRangesPipelineHasRunWith(pipelineName, unknownRevisions);
+        PipelineModificationRanges updatedRanges = knownRanges;
+        boolean hasRunWithAll = true;
+        for (int i = 0; i < unknownRevisions.size(); i++) {
+            Number from = (Number) ranges[2 * i];
+            Number to = (Number) ranges[2 * i + 1];
+            if (from == null || to == null) {
+                hasRunWithAll = false;
+            } else {
+                updatedRanges = updatedRanges.with(unknownRevisions.get(i)[0], from.longValue(), to.longValue());
+            }
+        }
+        if (updatedRanges != knownRanges) {
+            goCache.put(key, updatedRanges);
+        }
+        return hasRunWithAll;
+    }
+
+    /**
+     * Checks all the given (materialId, modificationId) pairs in a single query. For each pair, the result holds the
+     * smallest from-revision and the largest to-revision among the pipeline material revisions containing it (or nulls,
+     * if the pipeline has never run with it). Since all of those ranges contain the modification, so does their union.
+     */
+    private Object[] findRangesPipelineHasRunWith(String pipelineName, List<long[]> materialAndModificationIds) {
         return getHibernateTemplate().execute(session -> {
-            int numberOfMaterials = revisions.getRevisions().size();
-            int match = 0;
-            for (MaterialRevision revision : revisions) {
-                long materialId = findOrCreateFrom(revision.getMaterial()).getId();
-                long modificationId = revision.getLatestModification().getId();
-                String key = cacheKeyForHasPipelineEverRunWithModification(pipelineName, materialId, modificationId);
-                if (goCache.get(key) != null) {
-                    match++;
-                    continue;
-                }
-                String sql = """
-                    SELECT materials.id \
-                    FROM pipelineMaterialRevisions \
-                        INNER JOIN pipelines ON pipelineMaterialRevisions.pipelineId = pipelines.id \
-                        INNER JOIN modifications on modifications.id  = pipelineMaterialRevisions.torevisionId \
-                        INNER JOIN materials on modifications.materialId = materials.id \
-                    WHERE materials.id = ? AND pipelineMaterialRevisions.toRevisionId >= ? AND pipelineMaterialRevisions.fromRevisionId <= ? AND pipelines.name = ? \
-                    GROUP BY materials.id \
-                    """;
-                SQLQuery query = session.createSQLQuery(sql);
-                query.setLong(0, materialId);
-                query.setLong(1, modificationId);
-                query.setLong(2, modificationId);
-                query.setString(3, pipelineName);
-                if (!query.list().isEmpty()) {
-                    match++;
-                    goCache.put(key, Boolean.TRUE);
+            String condition = "(modifications.materialId = ? AND pipelineMaterialRevisions.toRevisionId >= ? AND pipelineMaterialRevisions.fromRevisionId <= ?)";
+            StringJoiner columns = new StringJoiner(", ");
+            StringJoiner conditions = new StringJoiner(" OR ");
+            for (int i = 0; i < materialAndModificationIds.size(); i++) {
+                columns.add("MIN(CASE WHEN " + condition + " THEN pipelineMaterialRevisions.fromRevisionId END)");
+                columns.add("MAX(CASE WHEN " + condition + " THEN pipelineMaterialRevisions.toRevisionId END)");
+                conditions.add(condition);
+            }
+            String sql = "SELECT " + columns + " " +
+                "FROM pipelineMaterialRevisions " +
+                "INNER JOIN pipelines ON pipelineMaterialRevisions.pipelineId = pipelines.id " +
+                "INNER JOIN modifications ON modifications.id = pipelineMaterialRevisions.toRevisionId " +
+                "WHERE pipelines.name = ? AND (" + conditions + ")";
+
+            SQLQuery query = session.createSQLQuery(sql);
+            int position = 0;
+            for (long[] ids : materialAndModificationIds) {
+                for (int column = 0; column < 2; column++) {
+                    position = setRangeCondition(query, position, ids);
                 }
             }
-            return match == numberOfMaterials;
+            query.setString(position++, pipelineName);
+            for (long[] ids : materialAndModificationIds) {
+                position = setRangeCondition(query, position, ids);
+            }
+            return (Object[]) query.uniqueResult();
         });
     }
 
-    private String cacheKeyForHasPipelineEverRunWithModification(String pipelineName,
-                                                                 long materialId,
-                                                                 long modificationId) {
-        return cacheKeyGenerator.generate("hasPipelineEverRunWithModification", pipelineName, materialId, modificationId);
+    private static int setRangeCondition(SQLQuery query, int position, long[] materialAndModificationId) {
+        query.setLong(position++, materialAndModificationId[0]);
+        query.setLong(position++, materialAndModificationId[1]);
+        query.setLong(position++, materialAndModificationId[1]);
+        return position;
+    }
+
+    private String cacheKeyForHasPipelineEverRunWithModifications(String pipelineName) {
+        return cacheKeyGenerator.generate("hasPipelineEverRunWithModifications", pipelineName);
     }
 
     @SuppressWarnings("unchecked")
     public List<MatchedRevision> findRevisionsMatching(final MaterialConfig materialConfig, final String searchString) {
-        return getHibernateTemplate().execute(session -> {
+        return ReadReplicaRoutingDataSource.staleReadsAllowed(() -> getHibernateTemplate().execute(session -> {
+            // the searched expression has a trigram index on PostgreSQL, see migrations/2610.xml
             String sql = """
                 SELECT m.* \
                 FROM modifications AS m \
                     INNER JOIN materials mat ON mat.id = m.materialId \
                 WHERE mat.fingerprint = :finger_print \
-                    AND (m.revision || ' ' || COALESCE(m.username, '') || ' ' || COALESCE(m.comment, '') LIKE :search_string OR m.pipelineLabel LIKE :search_string) \
+                    AND m.revision || ' ' || COALESCE(m.userName, '') || ' ' || COALESCE(m.comment, '') || ' ' || COALESCE(m.pipelineLabel, '') LIKE :search_string \
                 ORDER BY m.id DESC \
                 LIMIT 5 \
                 """;
@@ -903,7 +1036,7 @@ public class MaterialRepository extends HibernateDaoSupport {
                 list.add(material.createMatchedRevision(mod, searchString));
             }
             return list;
-        });
+        }));
     }
 
     @SuppressWarnings("unchecked")
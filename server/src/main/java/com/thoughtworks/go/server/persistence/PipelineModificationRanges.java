@@ -0,0 +1,69 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Understands which modifications of each material a pipeline is known to have run with, kept as merged ranges of
+ * modification ids (the from/to revisions of its pipeline material revisions). Instances are immutable so they can be
+ * shared through the cache.
+ */
+class PipelineModificationRanges implements Serializable {
+    static final PipelineModificationRanges NONE = new PipelineModificationRanges(Map.of());
+
+    private final Map<Long, NavigableMap<Long, Long>> rangesByMaterialId;
+
+    private PipelineModificationRanges(Map<Long, NavigableMap<Long, Long>> rangesByMaterialId) {
+        this.rangesByMaterialId = rangesByMaterialId;
+    }
+
+    boolean contains(long materialId, long modificationId) {
+        NavigableMap<Long, Long> ranges = rangesByMaterialId.get(materialId);
+        if (ranges == null) {
+            return false;
+        }
+        Map.Entry<Long, Long> range = ranges.floorEntry(modificationId);
+        return range != null && range.getValue() >= modificationId;
+    }
+
+    PipelineModificationRanges with(long materialId, long fromModificationId, long toModificationId) {
+        Map<Long, NavigableMap<Long, Long>> copy = new HashMap<>(rangesByMaterialId);
+        NavigableMap<Long, Long> ranges = new TreeMap<>(copy.getOrDefault(materialId, new TreeMap<>()));
+
+        long from = fromModificationId;
+        long to = toModificationId;
+        Map.Entry<Long, Long> before = ranges.floorEntry(from);
+        if (before != null && before.getValue() >= from - 1) {
+            from = before.getKey();
+            to = Math.max(to, before.getValue());
+            ranges.remove(before.getKey());
+        }
+        Map.Entry<Long, Long> after;
+        while ((after = ranges.ceilingEntry(from)) != null && after.getKey() <= to + 1) {
+            to = Math.max(to, after.getValue());
+            ranges.remove(after.getKey());
+        }
+        ranges.put(from, to);
+
+        copy.put(materialId, ranges);
+        return new PipelineModificationRanges(copy);
+    }
+}
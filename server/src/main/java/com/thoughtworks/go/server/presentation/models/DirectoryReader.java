@@ -16,14 +16,14 @@
 package com.thoughtworks.go.server.presentation.models;
 
 import com.thoughtworks.go.agent.URLService;
+import com.thoughtworks.go.domain.ArtifactManifest;
 import com.thoughtworks.go.domain.DirectoryEntries;
 import com.thoughtworks.go.domain.FileDirectoryEntry;
 import com.thoughtworks.go.domain.FolderDirectoryEntry;
 import com.thoughtworks.go.domain.JobIdentifier;
 
 import java.io.File;
-import java.util.Arrays;
-import java.util.Comparator;
+import java.util.*;
 
 public class DirectoryReader {
     private final URLService urlService;
@@ -61,6 +61,37 @@ public class DirectoryReader {
         return entries;
     }
 
+    /**
+     * Builds the same tree as {@link #listEntries(File, String)} does, from manifest entries with paths relative to
+     * the folder being listed.
+     */
+    public DirectoryEntries listEntries(List<ArtifactManifest.Entry> manifestEntries, String relativePath) {
+        ManifestFolder root = new ManifestFolder();
+        for (ArtifactManifest.Entry entry : manifestEntries) {
+            String[] names = entry.path().split("/");
+            ManifestFolder folder = root;
+            for (int i = 0; i < names.length - 1; i++) {
+                folder = folder.folders.computeIfAbsent(names[i], name -> new ManifestFolder());
+            }
+            if (entry.folder()) {
+                folder.folders.computeIfAbsent(entry.name(), name -> new ManifestFolder());
+            } else {
+                folder.files.add(entry.name());
+            }
+        }
+        return listEntries(root, relativePath);
+    }
+
+    private DirectoryEntries listEntries(ManifestFolder folder, String relativePath) {
+        DirectoryEntries entries = new DirectoryEntries();
+        folder.folders.forEach((name, subFolder) ->
+                entries.add(new FolderDirectoryEntry(name, getUrl(relativePath, name), listEntries(subFolder, getCurrentPath(relativePath) + name))));
+        for (String name : folder.files) {
+            entries.add(new FileDirectoryEntry(name, getUrl(relativePath, name)));
+        }
+        return entries;
+    }
+
     private String getUrl(String currentPath, String name) {
         return urlService.getRestfulArtifactUrl(jobIdentifier, getCurrentPath(currentPath) + name);
     }
@@ -69,6 +100,11 @@ public class DirectoryReader {
         return "".equals(currentPath) ? "" : currentPath + "/";
     }
 
+    private static class ManifestFolder {
+        private final SortedMap<String, ManifestFolder> folders = new TreeMap<>();
+        private final SortedSet<String> files = new TreeSet<>();
+    }
+
     static class DirectoriesFirstFileNameOrder implements Comparator<File> {
 
         @Override
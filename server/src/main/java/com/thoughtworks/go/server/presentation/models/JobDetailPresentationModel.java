@@ -117,7 +117,10 @@ public class JobDetailPresentationModel {
                 addFolder(CRUISE_OUTPUT_FOLDER)
                     .addFile(CONSOLE_LOG_FILE_NAME, artifactsService.findArtifactUrl(jobIdentifier, CONSOLE_LOG_FILE_RELATIVE_PATH));
             }
-            addAll(directoryReader.listEntries(artifactsService.findArtifact(jobIdentifier, ""), ""));
+            ArtifactManifest manifest = artifactsService.findArtifactManifest(jobIdentifier);
+            addAll(manifest == null
+                ? directoryReader.listEntries(artifactsService.findArtifact(jobIdentifier, ""), "")
+                : directoryReader.listEntries(manifest.entries(), ""));
             setIsArtifactsDeleted(stage.isArtifactsDeleted());
         }};
     }
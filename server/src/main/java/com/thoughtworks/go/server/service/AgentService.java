@@ -212,9 +212,14 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
 
     public void updateRuntimeInfo(AgentRuntimeInfo agentRuntimeInfo) {
         bombIfAgentDoesNotHaveCookie(agentRuntimeInfo);
-        bombIfAgentHasDuplicateCookie(agentRuntimeInfo);
 
         AgentInstance agentInstance = findAgentAndRefreshStatus(agentRuntimeInfo.getUUId());
+        if (agentInstance.isHeartbeat(agentRuntimeInfo)) {
+            agentInstance.heartbeat(agentRuntimeInfo);
+            return;
+        }
+
+        bombIfAgentHasDuplicateCookie(agentRuntimeInfo, agentInstance);
         if (agentInstance.isIpChangeRequired(agentRuntimeInfo.getIpAddress())) {
             LOGGER.warn("Agent with UUID [{}] changed IP Address from [{}] to [{}]", agentRuntimeInfo.getUUId(), agentInstance.getAgent().getIpaddress(), agentRuntimeInfo.getIpAddress());
             Agent agent = agentInstance.isRegistered() ? agentInstance.getAgent() : null;
@@ -225,6 +230,9 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
         }
 
         agentInstances.updateAgentRuntimeInfo(agentRuntimeInfo);
+        if (agentInstance.isRegistered()) {
+            agentInstance.cookieVerified(agentRuntimeInfo.getCookie());
+        }
     }
 
     public Username createAgentUsername(String uuId, String ipAddress, String hostNameForDisplay) {
@@ -316,6 +324,7 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
     public String assignCookie(AgentIdentifier identifier) {
         String cookie = uuidGenerator.randomUuid();
         agentDao.associateCookie(identifier, cookie);
+        findAgentAndRefreshStatus(identifier.getUuid()).cookieVerified(null);
         return cookie;
     }
 
@@ -489,11 +498,11 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
         return agentInstance.getAgent().getEnvironmentsAsStream().sorted().collect(toList());
     }
 
-    private void bombIfAgentHasDuplicateCookie(AgentRuntimeInfo agentRuntimeInfo) {
+    private void bombIfAgentHasDuplicateCookie(AgentRuntimeInfo agentRuntimeInfo, AgentInstance agentInstance) {
         if (agentRuntimeInfo.hasDuplicateCookie(agentDao.cookieFor(agentRuntimeInfo.getIdentifier()))) {
             LOGGER.warn("Found agent [{}] with duplicate uuid. Please check the agent installation.", agentRuntimeInfo.agentInfoDebugString());
             serverHealthService.update(
-                    warning(format("[%s] has duplicate unique identifier which conflicts with [%s]", agentRuntimeInfo.agentInfoForDisplay(), findAgentAndRefreshStatus(agentRuntimeInfo.getUUId()).agentInfoForDisplay()),
+                    warning(format("[%s] has duplicate unique identifier which conflicts with [%s]", agentRuntimeInfo.agentInfoForDisplay(), agentInstance.agentInfoForDisplay()),
                             "Please check the agent installation. Click <a href='" + docsUrl("/faq/agent_guid_issue.html") + "' target='_blank'>here</a> for more info.",
                             HealthStateType.duplicateAgent(HealthStateScope.forAgent(agentRuntimeInfo.getCookie())), Timeout.THIRTY_SECONDS));
             throw new AgentWithDuplicateUUIDException(format("Agent [%s] has invalid cookie", agentRuntimeInfo.agentInfoDebugString()));
@@ -15,11 +15,13 @@
  */
 package com.thoughtworks.go.server.service;
 
+import com.thoughtworks.go.domain.ArtifactManifest;
 import com.thoughtworks.go.domain.ArtifactUrlReader;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.Stage;
 import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
+import com.thoughtworks.go.server.cache.ArtifactManifestCache;
 import com.thoughtworks.go.server.dao.StageDao;
 import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
 import com.thoughtworks.go.server.view.artifacts.BuildIdArtifactLocator;
@@ -44,15 +46,16 @@ public class ArtifactsService implements ArtifactUrlReader {
     private final JobResolverService jobResolverService;
     private final StageDao stageDao;
     private final ArtifactDirectoryChooser chooser;
+    private final ArtifactManifestCache manifests;
 
     @Autowired
     public ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
-                            ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil) {
-        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, new ArtifactDirectoryChooser());
+                            ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactManifestCache manifests) {
+        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, manifests, new ArtifactDirectoryChooser());
     }
 
     protected ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
-                               ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactDirectoryChooser chooser) {
+                               ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactManifestCache manifests, ArtifactDirectoryChooser chooser) {
         this.artifactsDirHolder = artifactsDirHolder;
         this.zipUtil = zipUtil;
         this.jobResolverService = jobResolverService;
@@ -60,7 +63,7 @@ public class ArtifactsService implements ArtifactUrlReader {
 
         //This is a Chain of Responsibility to decide which view should be shown for a particular artifact URL
         this.chooser = chooser;
-
+        this.manifests = manifests;
     }
 
     public void initialize() {
@@ -93,6 +96,8 @@ public class ArtifactsService implements ArtifactUrlReader {
             final String message = format("Failed to save the file to: [%s]", destPath);
             LOGGER.error(message, e);
             return false;
+        } finally {
+            manifests.invalidate(dest);
         }
     }
 
@@ -108,6 +113,8 @@ public class ArtifactsService implements ArtifactUrlReader {
         } catch (IOException e) {
             LOGGER.error("Failed to save the file to : [{}]", destPath, e);
             return false;
+        } finally {
+            manifests.invalidate(dest);
         }
     }
 
@@ -115,6 +122,19 @@ public class ArtifactsService implements ArtifactUrlReader {
         return chooser.findArtifact(identifier, path);
     }
 
+    /**
+     * @return the manifest of the job's artifacts, created on first use after an upload, or null if it can not be
+     * created, in which case listings should read the artifact directory instead.
+     */
+    public ArtifactManifest findArtifactManifest(JobIdentifier identifier) {
+        try {
+            return manifests.manifestFor(chooser.findArtifact(identifier, ""));
+        } catch (IllegalArtifactLocationException | IOException | RuntimeException e) {
+            LOGGER.warn("Could not load the artifact manifest of {}", identifier, e);
+            return null;
+        }
+    }
+
     @Override
     public String findArtifactRoot(JobIdentifier identifier) throws IllegalArtifactLocationException {
         JobIdentifier id = jobResolverService.actualJobIdentifier(identifier);
@@ -159,8 +179,12 @@ public class ArtifactsService implements ArtifactUrlReader {
             File stageRoot = chooser.findArtifact(stageIdentifier, "");
             FileUtils.deleteQuietly(chooser.findCachedArtifact(stageIdentifier));
 
-            if (!deleteNonSystemManagedArtifacts(stageRoot)) {
-                LOGGER.error("Some artifacts for stage '{}' at path '{}' was not successfully deleted", stageIdentifier.entityLocator(), stageRoot.getAbsolutePath());
+            try {
+                if (!deleteNonSystemManagedArtifacts(stageRoot)) {
+                    LOGGER.error("Some artifacts for stage '{}' at path '{}' was not successfully deleted", stageIdentifier.entityLocator(), stageRoot.getAbsolutePath());
+                }
+            } finally {
+                invalidateManifestsOfJobsIn(stageRoot);
             }
         } catch (Exception e) {
             LOGGER.error("Error occurred while clearing artifacts for '{}'. Error: '{}'", stageIdentifier.entityLocator(), e.getMessage(), e);
@@ -171,6 +195,15 @@ public class ArtifactsService implements ArtifactUrlReader {
         }
     }
 
+    private void invalidateManifestsOfJobsIn(File stageRoot) {
+        File[] jobs = stageRoot.listFiles();
+        if (jobs != null) {
+            for (File jobRoot : jobs) {
+                manifests.invalidate(jobRoot);
+            }
+        }
+    }
+
     private boolean deleteNonSystemManagedArtifacts(File stageRoot) throws IOException {
         File[] jobs = stageRoot.listFiles();
         if (jobs == null) {  // null if security restricted
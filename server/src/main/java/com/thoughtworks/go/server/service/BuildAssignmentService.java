@@ -22,7 +22,7 @@ import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
 import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.domain.builder.Builder;
 import com.thoughtworks.go.domain.materials.Material;
-import com.thoughtworks.go.listener.ConfigChangedListener;
+import com.thoughtworks.go.listener.ConfigChangeSetListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.plugin.access.exceptions.SecretResolutionFailureException;
 import com.thoughtworks.go.remote.AgentIdentifier;
@@ -56,7 +56,7 @@ import static java.util.stream.StreamSupport.stream;
  * Understands how to assign work to agents
  */
 @Service
-public class BuildAssignmentService implements ConfigChangedListener {
+public class BuildAssignmentService implements ConfigChangeSetListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(BuildAssignmentService.class.getName());
     public static final NoWork NO_WORK = new NoWork();
     public static final String GO_PIPELINE_GROUP_NAME = "GO_PIPELINE_GROUP_NAME";
@@ -251,14 +251,20 @@ public class BuildAssignmentService implements ConfigChangedListener {
 
     @Override
     public void onConfigChange(CruiseConfig cruiseConfig) {
+        onConfigChange(cruiseConfig, ConfigChangeSet.everything());
+    }
+
+    @Override
+    public void onConfigChange(CruiseConfig cruiseConfig, ConfigChangeSet changes) {
         synchronized (this) {
-            if (jobPlans.isEmpty()) {
+            if (jobPlans.isEmpty() || changes.isEmpty()) {
                 return;
             }
             LOGGER.info("[Configuration Changed] Removing jobs for pipelines that no longer exist in configuration.");
             List<JobPlan> jobsToRemove = new ArrayList<>();
             for (JobPlan jobPlan : jobPlans) {
-                if (!cruiseConfig.hasBuildPlan(new CaseInsensitiveString(jobPlan.getPipelineName()), new CaseInsensitiveString(jobPlan.getStageName()), jobPlan.getName(), true)) {
+                CaseInsensitiveString pipelineName = new CaseInsensitiveString(jobPlan.getPipelineName());
+                if (changes.mayHaveChanged(pipelineName) && !cruiseConfig.hasBuildPlan(pipelineName, new CaseInsensitiveString(jobPlan.getStageName()), jobPlan.getName(), true)) {
                     jobsToRemove.add(jobPlan);
                 }
             }
@@ -20,6 +20,7 @@ import com.thoughtworks.go.domain.ConsoleStreamer;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.LocatableEntity;
 import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
+import com.thoughtworks.go.server.cache.ArtifactManifestCache;
 import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
 import com.thoughtworks.go.server.view.artifacts.BuildIdArtifactLocator;
 import com.thoughtworks.go.server.view.artifacts.PathBasedArtifactsLocator;
@@ -43,16 +44,18 @@ public class ConsoleService {
 
     private final ArtifactDirectoryChooser chooser;
     private final ArtifactsDirHolder artifactsDirHolder;
+    private final ArtifactManifestCache manifests;
 
     @Autowired
-    public ConsoleService(ArtifactsDirHolder artifactsDirHolder) {
-        this(new ArtifactDirectoryChooser(), artifactsDirHolder);
+    public ConsoleService(ArtifactsDirHolder artifactsDirHolder, ArtifactManifestCache manifests) {
+        this(new ArtifactDirectoryChooser(), artifactsDirHolder, manifests);
     }
 
     @VisibleForTesting
-    ConsoleService(ArtifactDirectoryChooser chooser, ArtifactsDirHolder artifactsDirHolder) {
+    ConsoleService(ArtifactDirectoryChooser chooser, ArtifactsDirHolder artifactsDirHolder, ArtifactManifestCache manifests) {
         this.chooser = chooser;
         this.artifactsDirHolder = artifactsDirHolder;
+        this.manifests = manifests;
     }
 
     public void initialize() {
@@ -128,6 +131,7 @@ public class ConsoleService {
             // Job cancellation can skip temporary file creation. Force create one if it does not exist.
             FileUtils.touch(from);
             FileUtils.moveFile(from, to);
+            manifests.invalidate(to);
         } catch (IOException e) {
             throw new RuntimeException("Unexpected error moving console log from temporary location [%s] to permanent artifact location [%s]".formatted(from, to), e);
         }
@@ -28,7 +28,7 @@ import com.thoughtworks.go.domain.packagerepository.PackageDefinition;
 import com.thoughtworks.go.domain.packagerepository.PackageRepository;
 import com.thoughtworks.go.domain.scm.SCM;
 import com.thoughtworks.go.domain.scm.SCMs;
-import com.thoughtworks.go.listener.ConfigChangedListener;
+import com.thoughtworks.go.listener.ConfigChangeSetListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.plugin.domain.common.CombinedPluginInfo;
 import com.thoughtworks.go.server.cache.GoCache;
@@ -45,8 +45,9 @@ import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 @Component
-public class EntityHashingService implements ConfigChangedListener, Initializer {
+public class EntityHashingService implements ConfigChangeSetListener, Initializer {
     static final String ETAG_CACHE_KEY = "GO_ETAG_CACHE";
+    private static final String CONFIG_ENTITY_PACKAGE = "com.thoughtworks.go.config.";
 
     private final GoConfigService goConfigService;
     private final GoCache goCache;
@@ -215,6 +216,45 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
         goCache.remove(ETAG_CACHE_KEY);
     }
 
+    /**
+     * When only some pipelines changed, keeps the digests of the rest of the config and throws away those of the
+     * changed pipelines, of the groups they are in and of their parameters. Digests of entities that do not live in
+     * the config are thrown away as before, as nothing else keeps them fresh.
+     */
+    @Override
+    public void onConfigChange(CruiseConfig newCruiseConfig, ConfigChangeSet changes) {
+        if (!changes.onlyPipelinesChanged() || newCruiseConfig == null) {
+            onConfigChange(newCruiseConfig);
+            return;
+        }
+        synchronized (ETAG_CACHE_KEY.intern()) {
+            if (goCache.get(ETAG_CACHE_KEY) instanceof Collection<?> cacheKeys) {
+                for (Object cacheKey : List.copyOf(cacheKeys)) {
+                    if (!((String) cacheKey).startsWith(CONFIG_ENTITY_PACKAGE)) {
+                        goCache.remove(ETAG_CACHE_KEY, (String) cacheKey);
+                    }
+                }
+            }
+        }
+        for (CaseInsensitiveString pipelineName : changes.affectedPipelines()) {
+            removePipelineFromCache(changes.oldConfig(), pipelineName);
+            removePipelineFromCache(newCruiseConfig, pipelineName);
+        }
+    }
+
+    private void removePipelineFromCache(CruiseConfig config, CaseInsensitiveString pipelineName) {
+        PipelineConfigs group = config.getGroups().findGroupByPipeline(pipelineName);
+        if (group == null) {
+            return;
+        }
+        PipelineConfig pipelineConfig = group.findBy(pipelineName);
+        removeFromCache(group, group.getGroup());
+        removeFromCache(pipelineConfig, pipelineConfig.name());
+        for (ParamConfig param : pipelineConfig.getParams()) {
+            removeFromCache(param, param.getName());
+        }
+    }
+
     public String hashForEntity(PipelineTemplateConfig config) {
         String cacheKey = cacheKey(config, config.name());
         return getConfigEntityDigestFromCache(cacheKey, config);
@@ -29,6 +29,7 @@ import com.thoughtworks.go.server.domain.PipelineConfigDependencyGraph;
 import com.thoughtworks.go.server.domain.PipelineTimeline;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.dd.FanInGraph;
+import com.thoughtworks.go.server.service.dd.FanInRevisionsCache;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.util.SystemEnvironment;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -54,6 +55,7 @@ public class PipelineService implements UpstreamPipelineResolver {
     private final MaterialRepository materialRepository;
     private final MaterialConfigConverter materialConfigConverter;
     private final IntSupplier maxBackTrackLimit;
+    private final FanInRevisionsCache fanInRevisionsCache = new FanInRevisionsCache();
 
     @Autowired
     public PipelineService(PipelineSqlMapDao pipelineDao, StageService stageService, PipelineLockService pipelineLockService, PipelineTimeline pipelineTimeline, MaterialRepository materialRepository,
@@ -66,6 +68,7 @@ public class PipelineService implements UpstreamPipelineResolver {
         this.transactionTemplate = transactionTemplate;
         this.materialConfigConverter = materialConfigConverter;
         this.maxBackTrackLimit = () -> systemEnvironment.get(RESOLVE_FANIN_MAX_BACK_TRACK_LIMIT);
+        stageService.addStageStatusListener(fanInRevisionsCache);
     }
 
     public Pipeline fullPipelineById(long pipelineId) {
@@ -209,7 +212,7 @@ public class PipelineService implements UpstreamPipelineResolver {
 
     public MaterialRevisions getRevisionsBasedOnDependencies(MaterialRevisions actualRevisions, CruiseConfig cruiseConfig, CaseInsensitiveString pipelineName) {
         FanInGraph fanInGraph = new FanInGraph(cruiseConfig, pipelineName, materialRepository, pipelineDao, materialConfigConverter, maxBackTrackLimit);
-        final MaterialRevisions computedRevisions = fanInGraph.computeRevisions(actualRevisions, pipelineTimeline);
+        final MaterialRevisions computedRevisions = fanInRevisionsCache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
         fillUpNonOverridableRevisions(actualRevisions, computedRevisions);
         return restoreOriginalMaterialConfigAndMaterialOrderUsingFingerprint(actualRevisions, computedRevisions);
     }
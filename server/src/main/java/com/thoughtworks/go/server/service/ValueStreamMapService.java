@@ -45,10 +45,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class ValueStreamMapService {
@@ -60,6 +59,7 @@ public class ValueStreamMapService {
     private final RunStagesPopulator runStagesPopulator;
     private final UnrunStagesPopulator unrunStagePopulator;
     private final SecurityService securityService;
+    private final AtomicReference<DownstreamPipelines> downstreamPipelinesOfCurrentConfig = new AtomicReference<>();
     private static final Logger LOGGER = LoggerFactory.getLogger(ValueStreamMapService.class);
 
     @Autowired
@@ -104,9 +104,9 @@ public class ValueStreamMapService {
         }
         String label = pipelineService.findPipelineByNameAndCounter(pipelineName.toString(), counter).getLabel();
         ValueStreamMap valueStreamMap = new ValueStreamMap(pipelineName, new PipelineRevision(pipelineName.toString(), counter, label));
-        Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap = cruiseConfig.generatePipelineVsDownstreamMap();
+        Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap = pipelineToDownstreamMap(cruiseConfig);
 
-        traverseDownstream(pipelineName, pipelineToDownstreamMap, valueStreamMap, new ArrayList<>());
+        traverseDownstream(pipelineName, pipelineToDownstreamMap, valueStreamMap, new HashSet<>());
         traverseUpstream(pipelineName, buildCauseForPipeline, valueStreamMap, new ArrayList<>());
 
         if (valueStreamMap.hasCycle()) {
@@ -182,15 +182,26 @@ public class ValueStreamMapService {
     private ValueStreamMap buildValueStreamMap(Material material, MaterialInstance materialInstance, Modification modification, List<PipelineConfig> downstreamPipelines, Username username) {
         CruiseConfig cruiseConfig = goConfigService.currentCruiseConfig();
         ValueStreamMap valueStreamMap = new ValueStreamMap(material, materialInstance, modification);
-        Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap = cruiseConfig.generatePipelineVsDownstreamMap();
+        Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap = pipelineToDownstreamMap(cruiseConfig);
 
-        traverseDownstream(new CaseInsensitiveString(material.getFingerprint()), downstreamPipelines, pipelineToDownstreamMap, valueStreamMap, new ArrayList<>());
+        traverseDownstream(new CaseInsensitiveString(material.getFingerprint()), downstreamPipelines, pipelineToDownstreamMap, valueStreamMap, new HashSet<>());
 
         addInstanceInformationToTheGraph(valueStreamMap);
         removeRevisionsBasedOnPermissionAndCurrentConfig(valueStreamMap, username);
         return valueStreamMap;
     }
 
+    // keyed on the config object rather than its md5, as merging config repo partials gives a new config without
+    // changing the md5 of the main config file
+    private Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap(CruiseConfig cruiseConfig) {
+        DownstreamPipelines downstreamPipelines = downstreamPipelinesOfCurrentConfig.get();
+        if (downstreamPipelines == null || downstreamPipelines.config().get() != cruiseConfig) {
+            downstreamPipelines = new DownstreamPipelines(new WeakReference<>(cruiseConfig), Collections.unmodifiableMap(cruiseConfig.generatePipelineVsDownstreamMap()));
+            downstreamPipelinesOfCurrentConfig.set(downstreamPipelines);
+        }
+        return downstreamPipelines.pipelineToDownstreamMap();
+    }
+
     private void removeRevisionsBasedOnPermissionAndCurrentConfig(ValueStreamMap valueStreamMap, Username username) {
         for (Node node : valueStreamMap.allNodes()) {
             if (node instanceof PipelineDependencyNode pipelineDependencyNode) {
@@ -237,17 +248,16 @@ public class ValueStreamMapService {
         }
     }
 
-    private void traverseDownstream(CaseInsensitiveString upstreamPipelineName, Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap, ValueStreamMap graph, List<PipelineConfig> visitedNodes) {
+    private void traverseDownstream(CaseInsensitiveString upstreamPipelineName, Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap, ValueStreamMap graph, Set<CaseInsensitiveString> visitedNodes) {
         List<PipelineConfig> downstreamPipelines = pipelineToDownstreamMap.get(upstreamPipelineName);
         traverseDownstream(upstreamPipelineName, downstreamPipelines, pipelineToDownstreamMap, graph, visitedNodes);
     }
 
-    private void traverseDownstream(CaseInsensitiveString materialId, List<PipelineConfig> downstreamPipelines, Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap, ValueStreamMap graph, List<PipelineConfig> visitedNodes) {
+    private void traverseDownstream(CaseInsensitiveString materialId, List<PipelineConfig> downstreamPipelines, Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap, ValueStreamMap graph, Set<CaseInsensitiveString> visitedNodes) {
         for (PipelineConfig downstreamPipeline : downstreamPipelines) {
             graph.addDownstreamNode(new PipelineDependencyNode(downstreamPipeline.name(), downstreamPipeline.name().toString()), materialId);
 
-            if (!visitedNodes.contains(downstreamPipeline)) {
-                visitedNodes.add(downstreamPipeline);
+            if (visitedNodes.add(downstreamPipeline.name())) {
                 traverseDownstream(downstreamPipeline.name(), pipelineToDownstreamMap, graph, visitedNodes);
             }
         }
@@ -258,4 +268,11 @@ public class ValueStreamMapService {
         runStagesPopulator.apply(valueStreamMap);
         unrunStagePopulator.apply(valueStreamMap);
     }
+
+    /**
+     * The pipeline to downstream pipelines map of a config version. It only depends on config, so it is worked out once
+     * per config object rather than for every value stream map that is opened.
+     */
+    private record DownstreamPipelines(WeakReference<CruiseConfig> config, Map<CaseInsensitiveString, List<PipelineConfig>> pipelineToDownstreamMap) {
+    }
 }
@@ -115,6 +115,32 @@ public class FanInGraph {
         scmMaterialSet.addAll(scmMaterialFingerprintSet);
     }
 
+    public CaseInsensitiveString pipelineName() {
+        return pipelineName;
+    }
+
+    public Set<CaseInsensitiveString> upstreamPipelineNames() {
+        return fingerprintDepMaterialMap.values().stream()
+            .map(DependencyMaterialConfig::getPipelineName)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the fingerprints of the materials each dependency material in the graph depends on, which is all the
+     * config that resolving revisions depends on
+     */
+    public Map<String, Set<String>> topology() {
+        Map<String, Set<String>> topology = new HashMap<>();
+        for (FanInNode<?> node : nodes.values()) {
+            if (node instanceof DependencyFanInNode dependencyNode) {
+                topology.put(node.materialConfig.getFingerprint(), dependencyNode.children.stream()
+                    .map(child -> child.materialConfig.getFingerprint())
+                    .collect(Collectors.toSet()));
+            }
+        }
+        return topology;
+    }
+
     @TestOnly
     List<ScmMaterialConfig> getScmMaterials() {
         List<ScmMaterialConfig> scmMaterials = new ArrayList<>();
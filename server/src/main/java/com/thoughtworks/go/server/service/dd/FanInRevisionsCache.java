@@ -0,0 +1,129 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+import com.thoughtworks.go.server.domain.StageStatusListener;
+import org.jetbrains.annotations.TestOnly;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the revisions last resolved by a {@link FanInGraph} for each pipeline, along with the state they were
+ * resolved from: the topology of the graph, the actual revisions, and the number of runs and of completed stages of
+ * every upstream pipeline in the graph. Scheduling checks that find nothing changed upstream reuse the result instead
+ * of backtracking through the pipeline timeline again.
+ * <p>
+ * The topology is taken from the graph itself rather than from a version of the config, as merging config repo
+ * partials changes the graph without changing the md5 of the main config file.
+ */
+public class FanInRevisionsCache implements StageStatusListener {
+    private final ConcurrentMap<CaseInsensitiveString, ResolvedRevisions> resolved = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CaseInsensitiveString, AtomicLong> completedStages = new ConcurrentHashMap<>();
+    private volatile WeakReference<CruiseConfig> lastPrunedFor = new WeakReference<>(null);
+
+    public MaterialRevisions computeRevisions(FanInGraph fanInGraph, CruiseConfig cruiseConfig, MaterialRevisions actualRevisions, PipelineTimeline pipelineTimeline) {
+        Set<CaseInsensitiveString> upstreamPipelines = fanInGraph.upstreamPipelineNames();
+        if (upstreamPipelines.isEmpty()) {
+            return fanInGraph.computeRevisions(actualRevisions, pipelineTimeline);
+        }
+        pruneDeletedPipelines(cruiseConfig);
+
+        // taken before resolving, so that a stage completing while resolving makes the result stale straight away
+        ResolutionKey key = new ResolutionKey(fanInGraph.topology(), signatureOf(actualRevisions), upstreamStateOf(upstreamPipelines, pipelineTimeline));
+        ResolvedRevisions previous = resolved.get(fanInGraph.pipelineName());
+        if (previous != null && previous.key().equals(key)) {
+            return copyOf(previous.revisions());
+        }
+
+        MaterialRevisions computed = fanInGraph.computeRevisions(actualRevisions, pipelineTimeline);
+        resolved.put(fanInGraph.pipelineName(), new ResolvedRevisions(key, upstreamPipelines, copyOf(computed)));
+        return computed;
+    }
+
+    @Override
+    public void stageStatusChanged(Stage stage) {
+        if (stage.getIdentifier() == null || !stage.getState().completed()) {
+            return;
+        }
+        CaseInsensitiveString pipelineName = new CaseInsensitiveString(stage.getIdentifier().getPipelineName());
+        completedStages.computeIfAbsent(pipelineName, name -> new AtomicLong()).incrementAndGet();
+        resolved.values().removeIf(revisions -> revisions.upstreamPipelines().contains(pipelineName));
+    }
+
+    // done once for each config the cache sees, so that results of deleted pipelines do not linger
+    private void pruneDeletedPipelines(CruiseConfig cruiseConfig) {
+        if (lastPrunedFor.get() == cruiseConfig) {
+            return;
+        }
+        lastPrunedFor = new WeakReference<>(cruiseConfig);
+        resolved.keySet().removeIf(pipelineName -> !cruiseConfig.hasPipelineNamed(pipelineName));
+        completedStages.keySet().removeIf(pipelineName -> !cruiseConfig.hasPipelineNamed(pipelineName));
+    }
+
+    @TestOnly
+    boolean hasResolvedRevisionsFor(CaseInsensitiveString pipelineName) {
+        return resolved.containsKey(pipelineName);
+    }
+
+    private static List<String> signatureOf(MaterialRevisions actualRevisions) {
+        List<String> signature = new ArrayList<>();
+        for (MaterialRevision revision : actualRevisions) {
+            StringJoiner modificationIds = new StringJoiner(",", revision.getMaterial().getFingerprint() + ":", "");
+            for (Modification modification : revision.getModifications()) {
+                modificationIds.add(modification.getId() + "/" + modification.getRevision());
+            }
+            signature.add(modificationIds.toString());
+        }
+        return signature;
+    }
+
+    private Map<CaseInsensitiveString, UpstreamState> upstreamStateOf(Set<CaseInsensitiveString> pipelineNames, PipelineTimeline pipelineTimeline) {
+        Map<CaseInsensitiveString, UpstreamState> state = new HashMap<>();
+        for (CaseInsensitiveString pipelineName : pipelineNames) {
+            AtomicLong completed = completedStages.get(pipelineName);
+            state.put(pipelineName, new UpstreamState(pipelineTimeline.instanceCount(pipelineName), completed == null ? 0 : completed.get()));
+        }
+        return state;
+    }
+
+    private static MaterialRevisions copyOf(MaterialRevisions revisions) {
+        MaterialRevisions copy = new MaterialRevisions();
+        for (MaterialRevision revision : revisions) {
+            copy.addRevision(new MaterialRevision(revision.getMaterial(), revision.isChanged(), revision.getModifications()));
+        }
+        return copy;
+    }
+
+    private record ResolutionKey(Map<String, Set<String>> topology, List<String> actualRevisions, Map<CaseInsensitiveString, UpstreamState> upstreamState) {
+    }
+
+    private record UpstreamState(int instanceCount, long completedStages) {
+    }
+
+    private record ResolvedRevisions(ResolutionKey key, Set<CaseInsensitiveString> upstreamPipelines, MaterialRevisions revisions) {
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.config.CachedGoConfig;
+import com.thoughtworks.go.config.ConfigListenerTimings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class ConfigListenerTimingsProvider implements ServerInfoProvider {
+    private final CachedGoConfig cachedGoConfig;
+
+    @Autowired
+    public ConfigListenerTimingsProvider(CachedGoConfig cachedGoConfig) {
+        this.cachedGoConfig = cachedGoConfig;
+    }
+
+    @Override
+    public double priority() {
+        return 2.5;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Config version", cachedGoConfig.currentVersion());
+        cachedGoConfig.listenerTimings().byListener().forEach((listener, timing) -> json.put(listener, timings(timing)));
+        return json;
+    }
+
+    private static Map<String, Object> timings(ConfigListenerTimings.Timing timing) {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Notifications", timing.notificationCount());
+        json.put("Total time (ms)", timing.totalMillis());
+        json.put("Last time (ms)", timing.lastMillis());
+        json.put("Max time (ms)", timing.maxMillis());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Config Listeners";
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.database.Database;
+import com.thoughtworks.go.server.database.ReadReplicaRoutingDataSource;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class DatabaseConnectionPoolInformationProvider implements ServerInfoProvider {
+    private final Database database;
+    private final DataSource dataSource;
+
+    @Autowired
+    public DatabaseConnectionPoolInformationProvider(Database database, @Qualifier("goDataSource") DataSource dataSource) {
+        this.database = database;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public double priority() {
+        return 12.5;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        database.connectionPools().forEach((name, pool) -> json.put(name, poolStatistics(pool)));
+        if (dataSource instanceof ReadReplicaRoutingDataSource routingDataSource) {
+            LinkedHashMap<String, Object> routed = new LinkedHashMap<>();
+            routed.put("Primary", routingDataSource.primaryConnectionCount());
+            routed.put("Replica", routingDataSource.replicaConnectionCount());
+            json.put("Connections handed out", routed);
+        }
+        return json;
+    }
+
+    private static Map<String, Object> poolStatistics(BasicDataSource pool) {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Active", pool.getNumActive());
+        json.put("Idle", pool.getNumIdle());
+        json.put("Max idle", pool.getMaxIdle());
+        json.put("Max total", pool.getMaxTotal());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Database Connection Pools";
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.messaging.notifications.PluginNotificationBacklog;
+import com.thoughtworks.go.server.messaging.notifications.PluginNotificationsQueueHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+public class NotificationPluginDeliveryInformationProvider implements ServerInfoProvider {
+    private final PluginNotificationsQueueHandler pluginNotificationsQueueHandler;
+
+    @Autowired
+    public NotificationPluginDeliveryInformationProvider(PluginNotificationsQueueHandler pluginNotificationsQueueHandler) {
+        this.pluginNotificationsQueueHandler = pluginNotificationsQueueHandler;
+    }
+
+    @Override
+    public double priority() {
+        return 5.75;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        new TreeMap<>(pluginNotificationsQueueHandler.backlogs()).forEach((pluginId, backlog) -> json.put(pluginId, deliveryStatistics(backlog)));
+        return json;
+    }
+
+    private static Map<String, Object> deliveryStatistics(PluginNotificationBacklog backlog) {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Posted", backlog.postedCount());
+        json.put("Delivered", backlog.deliveredCount());
+        json.put("Coalesced", backlog.coalescedCount());
+        json.put("Queued agent status changes", backlog.pendingCoalescedCount());
+        json.put("Last delivery lag (ms)", backlog.lastLagInMillis());
+        json.put("Max delivery lag (ms)", backlog.maxLagInMillis());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Notification Plugin Delivery";
+    }
+}
@@ -16,6 +16,7 @@
 package com.thoughtworks.go.server.transaction;
 
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.database.ReadReplicaRoutingDataSource;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
@@ -43,6 +44,14 @@ public class SqlMapClientTemplate {
         return delegate.selectList(statementName);
     }
 
+    /**
+     * For history and reporting reads that can live with data a little behind the primary database. Never use it for
+     * results that end up in a cache, or the stale data would outlive the replica's lag.
+     */
+    public <T> List<T> queryForListFromReplica(String statementName, Object parameter) {
+        return ReadReplicaRoutingDataSource.staleReadsAllowed(() -> delegate.selectList(statementName, parameter));
+    }
+
     public void insert(String statementName, Object parameter) {
         goCache.stopServingForTransaction();
         delegate.insert(statementName, parameter);
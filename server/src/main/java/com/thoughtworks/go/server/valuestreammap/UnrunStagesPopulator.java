@@ -16,6 +16,7 @@
 package com.thoughtworks.go.server.valuestreammap;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
 import com.thoughtworks.go.config.PipelineConfig;
 import com.thoughtworks.go.config.StageConfig;
 import com.thoughtworks.go.domain.NullStage;
@@ -38,33 +39,34 @@ public class UnrunStagesPopulator {
     }
 
 	public void apply(ValueStreamMap valueStreamMap) {
+		CruiseConfig cruiseConfig = goConfigService.getCurrentConfig();
 		if (valueStreamMap.getCurrentPipeline() != null) {
 			Node currentPipeline = valueStreamMap.getCurrentPipeline();
-			getUnrunStagesForDownstreamGraphStartingFrom(currentPipeline, new HashSet<>());
+			getUnrunStagesForDownstreamGraphStartingFrom(currentPipeline, cruiseConfig, new HashSet<>());
 		} else {
 			List<Node> downstreamPipelines = valueStreamMap.getCurrentMaterial().getChildren();
 			HashSet<Node> visitedNodes = new HashSet<>();
 			for (Node downstreamPipeline : downstreamPipelines) {
-				getUnrunStagesForDownstreamGraphStartingFrom(downstreamPipeline, visitedNodes);
+				getUnrunStagesForDownstreamGraphStartingFrom(downstreamPipeline, cruiseConfig, visitedNodes);
 			}
 		}
 	}
 
-    private void getUnrunStagesForDownstreamGraphStartingFrom(Node node, HashSet<Node> visitedNodes) {
+    private void getUnrunStagesForDownstreamGraphStartingFrom(Node node, CruiseConfig cruiseConfig, HashSet<Node> visitedNodes) {
         if (visitedNodes.contains(node)) {
             return;
         }
 
         visitedNodes.add(node);
-        populateUnrunStages(node);
+        populateUnrunStages(node, cruiseConfig);
         for (Node child : node.getChildren()) {
-            getUnrunStagesForDownstreamGraphStartingFrom(child, visitedNodes);
+            getUnrunStagesForDownstreamGraphStartingFrom(child, cruiseConfig, visitedNodes);
         }
     }
 
-    private void populateUnrunStages(Node node) {
+    private void populateUnrunStages(Node node, CruiseConfig cruiseConfig) {
         List<Revision> revisions = node.revisions();
-        PipelineConfig pipelineConfig = goConfigService.getCurrentConfig().pipelineConfigByName(new CaseInsensitiveString(node.getName()));
+        PipelineConfig pipelineConfig = cruiseConfig.pipelineConfigByName(new CaseInsensitiveString(node.getName()));
         if (revisions.isEmpty()) {
             populateConfiguredStages(node, pipelineConfig);
         }
@@ -58,7 +58,7 @@ public class LocalArtifactsView implements ArtifactsView {
         String convertedURL = filePath.replaceFirst("\\.(html|json|zip)$", "");
         File directory = artifactsService.findArtifact(translatedId, convertedURL);
         if (directory.exists() && directory.isDirectory()) {
-            ArtifactFolder folder = new ArtifactFolder(translatedId, directory, convertedURL);
+            ArtifactFolder folder = new ArtifactFolder(translatedId, directory, convertedURL, artifactsService.findArtifactManifest(translatedId));
             return folderViewFactory.createView(translatedId, folder);
         }
 
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.web;
 
+import com.thoughtworks.go.domain.ArtifactManifest;
 import com.thoughtworks.go.domain.DirectoryEntries;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.server.presentation.html.HtmlRenderer;
@@ -35,11 +36,17 @@ public class ArtifactFolder implements JsonAware, Comparable<ArtifactFolder> {
     private final JobIdentifier jobIdentifier;
     private final File rootFolder;
     private final String relativePath;
+    private final ArtifactManifest manifest;
 
     public ArtifactFolder(JobIdentifier jobIdentifier, File rootFolder, String relativePath) {
+        this(jobIdentifier, rootFolder, relativePath, null);
+    }
+
+    public ArtifactFolder(JobIdentifier jobIdentifier, File rootFolder, String relativePath, ArtifactManifest manifest) {
         this.jobIdentifier = jobIdentifier;
         this.rootFolder = rootFolder;
         this.relativePath = relativePath;
+        this.manifest = manifest;
     }
 
     public File getRootFolder() {
@@ -47,6 +54,10 @@ public class ArtifactFolder implements JsonAware, Comparable<ArtifactFolder> {
     }
 
     public DirectoryEntries allEntries() {
+        List<ArtifactManifest.Entry> manifestEntries = manifest == null ? null : manifest.entriesUnder(rootFolder);
+        if (manifestEntries != null) {
+            return new DirectoryReader(jobIdentifier).listEntries(manifestEntries, relativePath);
+        }
         bombUnless(rootFolder.isDirectory(), () -> rootFolder + " is not a folder");
         return new DirectoryReader(jobIdentifier).listEntries(rootFolder, relativePath);
     }
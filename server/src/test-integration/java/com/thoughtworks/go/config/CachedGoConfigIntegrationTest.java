@@ -661,7 +661,7 @@ public class CachedGoConfigIntegrationTest {
 
     @Test
     public void shouldReturnDefaultCruiseConfigIfLoadingTheConfigFailsForTheFirstTime() {
-        ReflectionUtil.setField(cachedGoConfig, "currentConfig", null);
+        ReflectionUtil.setField(cachedGoConfig, "snapshot", null);
         configHelper.writeXmlToConfigFile("invalid-xml");
         assertThat(cachedGoConfig.currentConfig()).isEqualTo(new BasicCruiseConfig());
     }
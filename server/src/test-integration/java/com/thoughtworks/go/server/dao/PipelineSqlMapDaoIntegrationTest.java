@@ -1344,6 +1344,62 @@ public class PipelineSqlMapDaoIntegrationTest {
         return revisions;
     }
 
+    @Test
+    public void findMatchingPipelineInstances_shouldMatchLabelsAndBuildCauseMessages() {
+        PipelineConfig pipelineConfig = PipelineConfigMother.createPipelineConfig("pipeline_name", "stage", "job");
+
+        pipelineConfig.setLabelTemplate("${COUNT}-alpha");
+        scheduleTriggeredBy(pipelineConfig, "Forced by someone");
+
+        pipelineConfig.setLabelTemplate("${COUNT}-beta");
+        scheduleTriggeredBy(pipelineConfig, "Forced for the Alpha fix");
+        scheduleTriggeredBy(pipelineConfig, "Forced by someone");
+
+        assertThat(countersOf(pipelineDao.findMatchingPipelineInstances("pipeline_name", "alpha", 10))).containsExactly(2, 1);
+    }
+
+    @Test
+    public void findMatchingPipelineInstances_shouldMatchCommentsUsersAndRevisionsOfModifications() {
+        SvnMaterial material = svnMaterial();
+        PipelineConfig pipelineConfig = PipelineConfigMother.createPipelineConfig("pipeline_name", "stage", "job");
+        pipelineConfig.setMaterialConfigs(new MaterialConfigs(material.config()));
+
+        scheduleWith(pipelineConfig, new MaterialRevisions(new MaterialRevision(material, new Modification("dev", "Fix the Login page", "dev@example.com", new Date(), "r100"))));
+        scheduleWith(pipelineConfig, new MaterialRevisions(new MaterialRevision(material, new Modification("Jane.Doe", "Tidy up", "jane@example.com", new Date(), "r101"))));
+        scheduleWith(pipelineConfig, new MaterialRevisions(new MaterialRevision(material, new Modification("dev", "Tidy up", "dev@example.com", new Date(), "deadBEEF"))));
+
+        assertThat(countersOf(pipelineDao.findMatchingPipelineInstances("pipeline_name", "login", 10))).containsExactly(1);
+        assertThat(countersOf(pipelineDao.findMatchingPipelineInstances("pipeline_name", "jane", 10))).containsExactly(2);
+        assertThat(countersOf(pipelineDao.findMatchingPipelineInstances("pipeline_name", "beef", 10))).containsExactly(3);
+        assertThat(countersOf(pipelineDao.findMatchingPipelineInstances("pipeline_name", "tidy", 10))).containsExactly(3, 2);
+    }
+
+    @Test
+    public void findMatchingPipelineInstances_shouldMatchLabelsOfUpstreamPipelines() {
+        DependencyMaterial material = new DependencyMaterial(new CaseInsensitiveString("upstream"), new CaseInsensitiveString("stage"));
+        PipelineConfig pipelineConfig = PipelineConfigMother.createPipelineConfig("pipeline_name", "stage", "job");
+        pipelineConfig.setMaterialConfigs(new MaterialConfigs(material.config()));
+
+        scheduleWith(pipelineConfig, new MaterialRevisions(DependencyMaterialRevision.create("upstream", 1, "up-rc-1", "stage", 1).convert(material, new Date())));
+        scheduleWith(pipelineConfig, new MaterialRevisions(DependencyMaterialRevision.create("upstream", 2, "up-rc-2", "stage", 1).convert(material, new Date())));
+
+        assertThat(countersOf(pipelineDao.findMatchingPipelineInstances("pipeline_name", "RC-2", 10))).containsExactly(2);
+    }
+
+    private void scheduleTriggeredBy(PipelineConfig pipelineConfig, String buildCauseMessage) {
+        BuildCause buildCause = BuildCause.createManualForced(modifyOneFile(pipelineConfig), Username.ANONYMOUS);
+        buildCause.setMessage(buildCauseMessage);
+        dbHelper.schedulePipeline(pipelineConfig, buildCause, new TimeProvider());
+    }
+
+    private void scheduleWith(PipelineConfig pipelineConfig, MaterialRevisions materialRevisions) {
+        dbHelper.schedulePipeline(pipelineConfig, BuildCause.createManualForced(materialRevisions, Username.ANONYMOUS), new TimeProvider());
+    }
+
+    private static List<Integer> countersOf(PipelineInstanceModels models) {
+        return models.stream().map(PipelineInstanceModel::getCounter).toList();
+    }
+
     private void assertNotInserted(long instanceId) {
         assertThat(instanceId).isEqualTo(NOT_PERSISTED);
     }
@@ -34,6 +34,7 @@ import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
 import com.thoughtworks.go.util.ReflectionUtil;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -92,7 +93,7 @@ public class MaterialDatabaseDependencyUpdaterTest {
             healthService,
             transactionTemplate,
             new DependencyMaterialUpdater(dependencyMaterialSourceDao, materialRepository),
-            new ScmMaterialUpdater(materialRepository, legacyMaterialChecker, subprocessExecutionContext, materialService),
+            new ScmMaterialUpdater(materialRepository, legacyMaterialChecker, subprocessExecutionContext, materialService, new SystemEnvironment()),
             null, null, materialExpansionService, goConfigService);
     }
 
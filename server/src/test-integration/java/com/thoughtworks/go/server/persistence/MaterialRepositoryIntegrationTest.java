@@ -55,6 +55,7 @@ import com.thoughtworks.go.server.dao.FeedModifier;
 import com.thoughtworks.go.server.dao.PipelineSqlMapDao;
 import com.thoughtworks.go.server.database.Database;
 import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.service.InstanceFactory;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
@@ -84,6 +85,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.thoughtworks.go.helper.ModificationsMother.EMAIL_ADDRESS;
@@ -125,6 +127,8 @@ public class MaterialRepositoryIntegrationTest {
     private MaterialExpansionService materialExpansionService;
     @Autowired
     private Database databaseStrategy;
+    @Autowired
+    private MDUPerformanceLogger mduPerformanceLogger;
 
     private HibernateTemplate originalTemplate;
     private final String md5 = "md5-test";
@@ -217,7 +221,7 @@ public class MaterialRepositoryIntegrationTest {
         MaterialRevision second = saveOneScmModification(material, "user2", "file2");
 
         goCache.clear();
-        repo = new MaterialRepository(sessionFactory, goCache, 1, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        repo = new MaterialRepository(sessionFactory, goCache, 1, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mduPerformanceLogger);
 
         repo.findModificationsSince(material, first);
         assertThat(repo.cachedModifications(repo.findMaterialInstance(material))).isNull();
@@ -242,7 +246,7 @@ public class MaterialRepositoryIntegrationTest {
                 TestUtils.sleepQuietly(200); // sleep so we can have multiple threads enter the critical section
                 return value;
             }
-        }, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        }, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mduPerformanceLogger);
 
         Thread thread1 = new Thread(() -> repo.findModificationsSince(svn, first));
         thread1.start();
@@ -346,7 +350,7 @@ public class MaterialRepositoryIntegrationTest {
         final Material svn = MaterialsMother.svnMaterial("url", null, "username", "password", false, null);
 
         HibernateTemplate mockTemplate = mock(HibernateTemplate.class);
-        repo = new MaterialRepository(repo.getSessionFactory(), goCache, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy) {
+        repo = new MaterialRepository(repo.getSessionFactory(), goCache, 200, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mduPerformanceLogger) {
             @Override
             public MaterialInstance findMaterialInstance(@NonNull Material material) {
                 MaterialInstance result = super.findMaterialInstance(material);
@@ -612,7 +616,7 @@ public class MaterialRepositoryIntegrationTest {
     }
 
     @Test
-    public void hasPipelineEverRunWith_shouldCacheResultsForPipelineNameMaterialIdAndModificationId() {
+    public void hasPipelineEverRunWith_shouldCacheModificationRangesPerPipeline() {
         HgMaterial hgMaterial = MaterialsMother.hgMaterial("hgUrl", "dest");
         MaterialRevision materialRevision = saveOneScmModification(hgMaterial, "user", "file");
         PipelineConfig pipelineConfig = PipelineMother.createPipelineConfig("mingle", new MaterialConfigs(hgMaterial.config()), "dev");
@@ -623,7 +627,7 @@ public class MaterialRepositoryIntegrationTest {
         GoCache spyGoCache = spy(goCache);
         when(spyGoCache.get(any())).thenCallRealMethod();
         doCallRealMethod().when(spyGoCache).put(any(), any());
-        repo = new MaterialRepository(sessionFactory, spyGoCache, 2, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        repo = new MaterialRepository(sessionFactory, spyGoCache, 2, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mduPerformanceLogger);
 
         pipelineSqlMapDao.save(pipeline);
 
@@ -632,7 +636,7 @@ public class MaterialRepositoryIntegrationTest {
         assertThat(repo.hasPipelineEverRunWith("mingle", revisions)).isTrue();
         assertThat(repo.hasPipelineEverRunWith("mingle", revisions)).isTrue();
 
-        verify(spyGoCache, times(1)).put(any(), eq(Boolean.TRUE));
+        verify(spyGoCache, times(1)).put(any(), any(PipelineModificationRanges.class));
     }
 
     @Test
@@ -726,6 +730,27 @@ public class MaterialRepositoryIntegrationTest {
         assertThat(revisionsFor13.getModifications(material).getFirst().getRevision()).isEqualTo("12");
     }
 
+    @Test
+    public void shouldFindMaterialRevisionsForManyPipelinesTogether() {
+        HgMaterial material = new HgMaterial("sdg", null);
+        MaterialRevision firstRevision = new MaterialRevision(material, new Modifications(modification("10"), modification("9"), modification("8")));
+        saveMaterialRev(firstRevision);
+        Pipeline firstPipeline = createPipeline();
+        savePMR(firstRevision, firstPipeline);
+        MaterialRevision secondRevision = new MaterialRevision(material, new Modifications(modification("11")));
+        saveMaterialRev(secondRevision);
+        Pipeline secondPipeline = createPipeline();
+        savePMR(secondRevision, secondPipeline);
+        Pipeline pipelineWithoutRevisions = createPipeline();
+
+        Map<Long, MaterialRevisions> revisions = repo.findMaterialRevisionsForPipelines(List.of(firstPipeline.getId(), secondPipeline.getId(), pipelineWithoutRevisions.getId()));
+
+        assertThat(revisions.get(firstPipeline.getId()).getModifications(material)).extracting(Modification::getRevision).containsExactly("10", "9", "8");
+        assertThat(revisions.get(secondPipeline.getId()).getModifications(material)).extracting(Modification::getRevision).containsExactly("11");
+        assertThat(revisions.get(pipelineWithoutRevisions.getId()).isEmpty()).isTrue();
+        assertThat(revisions.get(firstPipeline.getId())).isEqualTo(repo.findMaterialRevisionsForPipeline(firstPipeline.getId()));
+    }
+
     @Test
     public void shouldFixToAsFromForDependencyMaterialRevisionWhileSavingAndUpdating() {
         Material material = new DependencyMaterial(new CaseInsensitiveString("pipeline_name"), new CaseInsensitiveString("stage_name"));
@@ -1177,6 +1202,49 @@ public class MaterialRepositoryIntegrationTest {
         }
     }
 
+    @Test
+    public void shouldSaveModifiedFilesAlongWithModifications() {
+        final MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
+        final List<Modification> modifications = getModifications(3);
+        for (Modification modification : modifications) {
+            modification.createModifiedFile(modification.getRevision() + "-file1", "folder", ModifiedAction.added);
+            modification.createModifiedFile(modification.getRevision() + "-file2", null, ModifiedAction.deleted);
+        }
+        transactionTemplate.execute(status -> {
+            repo.saveModifications(materialInstance, modifications);
+            return null;
+        });
+
+        Modifications fromDb = repo.getModificationsFor(materialInstance, Pagination.pageByNumber(1, 10, 10));
+        assertThat(fromDb.size()).isEqualTo(3);
+        for (Modification modification : fromDb) {
+            assertThat(modification.getModifiedFiles()).containsExactlyInAnyOrder(
+                new ModifiedFile(modification.getRevision() + "-file1", "folder", ModifiedAction.added),
+                new ModifiedFile(modification.getRevision() + "-file2", null, ModifiedAction.deleted));
+        }
+    }
+
+    @Test
+    public void shouldNotInsertModifiedFilesAgainWhenTheirModificationIsSavedAgain() {
+        final MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
+        final List<Modification> modifications = getModifications(1);
+        modifications.getFirst().createModifiedFile("file1", "folder", ModifiedAction.added);
+        transactionTemplate.execute(status -> {
+            repo.saveModifications(materialInstance, modifications);
+            return null;
+        });
+
+        assertThat(modifications.getFirst().getModifiedFiles()).allMatch(ModifiedFile::hasId);
+
+        transactionTemplate.execute(status -> {
+            repo.getHibernateTemplate().saveOrUpdate(modifications.getFirst());
+            return null;
+        });
+
+        Modifications fromDb = repo.getModificationsFor(materialInstance, Pagination.pageByNumber(1, 10, 10));
+        assertThat(fromDb.getFirst().getModifiedFiles()).hasSize(1);
+    }
+
     @Test
     public void shouldNotBlowUpReportErrorIfAnAttemptIsMadeToInsertOnlyDuplicateModificationsForAGivenMaterial() {
         final MaterialInstance materialInstance = repo.findOrCreateFrom(new GitMaterial(UUID.randomUUID().toString(), "branch"));
@@ -17,6 +17,7 @@ package com.thoughtworks.go.config;
 
 import com.thoughtworks.go.config.commands.EntityConfigUpdateCommand;
 import com.thoughtworks.go.config.update.FullConfigUpdateCommand;
+import com.thoughtworks.go.listener.ConfigChangeSetListener;
 import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.server.domain.Username;
@@ -96,6 +97,34 @@ public class CachedGoConfigTest {
         verify(listener, times(2)).onConfigChange(any());
     }
 
+    @Test
+    public void shouldTellChangeSetListenersWhatChangedSinceTheyWereLastNotified() {
+        when(dataSource.writeWithLock(any(), any())).thenReturn(new GoFileConfigDataSource.GoConfigSaveResult(configHolder, ConfigSaveState.UPDATED));
+        final ConfigChangeSetListener listener = mock(ConfigChangeSetListener.class);
+        cachedGoConfig.registerListener(listener);
+        cachedGoConfig.forceReload();
+
+        cachedGoConfig.writeWithLock(cruiseConfig -> cruiseConfig);
+
+        verify(listener).onConfigChange(eq(configHolder.config), argThat(ConfigChangeSet::isEverything));
+        verify(listener).onConfigChange(eq(configHolder.config), argThat(ConfigChangeSet::isEmpty));
+        verify(listener, never()).onConfigChange(any());
+    }
+
+    @Test
+    public void shouldCountConfigVersionsAndTimeEachListener() {
+        when(dataSource.writeWithLock(any(), any())).thenReturn(new GoFileConfigDataSource.GoConfigSaveResult(configHolder, ConfigSaveState.UPDATED));
+        final ConfigChangedListener listener = mock(ConfigChangedListener.class);
+        cachedGoConfig.registerListener(listener);
+        assertThat(cachedGoConfig.currentVersion()).isZero();
+
+        cachedGoConfig.forceReload();
+        cachedGoConfig.writeWithLock(cruiseConfig -> cruiseConfig);
+
+        assertThat(cachedGoConfig.currentVersion()).isEqualTo(2);
+        assertThat(cachedGoConfig.listenerTimings().byListener().get(listener.getClass().getName()).notificationCount()).isEqualTo(2);
+    }
+
     @Test
     public void shouldNotNotifyWhenConfigIsNullDuringRegistration() {
         final ConfigChangedListener listener = mock(ConfigChangedListener.class);
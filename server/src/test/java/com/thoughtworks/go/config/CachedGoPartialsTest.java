@@ -26,6 +26,8 @@ import com.thoughtworks.go.serverhealth.ServerHealthState;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,6 +63,27 @@ public class CachedGoPartialsTest {
         assertFalse(partials.lastValidPartials().contains(part2));
     }
 
+    @Test
+    public void shouldKeepTheKnownPartialAsValidWhenACopyOfTheSameRevisionIsMarkedAsValid() {
+        PartialConfig copyOfPart1 = PartialConfigMother.withPipeline("p1", new RepoConfigOrigin(configRepo1, "1"));
+        partials.markAsValid(fingerprintForRepo1, copyOfPart1);
+        assertSame(part1, partials.getValid(fingerprintForRepo1));
+
+        PartialConfig nextRevisionOfPart1 = PartialConfigMother.withPipeline("p1", new RepoConfigOrigin(configRepo1, "2"));
+        partials.markAsValid(fingerprintForRepo1, nextRevisionOfPart1);
+        assertSame(nextRevisionOfPart1, partials.getValid(fingerprintForRepo1));
+    }
+
+    @Test
+    public void shouldKeepTheMarkedPartialAsValidWhenItDiffersFromTheKnownPartialOfTheSameRevision() {
+        PartialConfig copyOfLastValidPart1 = PartialConfigMother.withPipeline("p1-as-last-validated", new RepoConfigOrigin(configRepo1, "1"));
+
+        partials.markAsValid(List.of(copyOfLastValidPart1));
+
+        assertSame(copyOfLastValidPart1, partials.getValid(fingerprintForRepo1));
+        assertSame(part1, partials.getKnown(fingerprintForRepo1));
+    }
+
     @Test
     public void shouldMarkAllKnownAsValid() {
         partials.markAllKnownAsValid();
@@ -30,10 +30,12 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.concurrent.CountDownLatch;
 
 import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -69,7 +71,7 @@ public class GoConfigRepoConfigDataSourceTest {
         when(cachedGoConfig.currentConfig()).thenReturn(cruiseConfig);
 
         configWatchList = new GoConfigWatchList(cachedGoConfig, mock(GoConfigService.class));
-        repoConfigDataSource = new GoConfigRepoConfigDataSource(configWatchList, configPluginService, serverHealthService, configRepoService, goConfigService);
+        repoConfigDataSource = new GoConfigRepoConfigDataSource(configWatchList, configPluginService, serverHealthService, configRepoService, goConfigService, new SystemEnvironment());
 
         ScmMaterialConfig material = git("http://my.git");
         ConfigRepoConfig configRepoConfig = ConfigRepoConfig.createConfigRepoConfig(material, "myplugin", "id");
@@ -87,6 +89,49 @@ public class GoConfigRepoConfigDataSourceTest {
         verify(plugin, times(1)).load(eq(folder), any());
     }
 
+    @Test
+    public void shouldNotParseTheSameRevisionAgainWhileItIsBeingParsed() throws Exception {
+        ScmMaterialConfig material = git("http://my.git");
+        cruiseConfig.setConfigRepos(new ConfigReposConfig(ConfigRepoConfig.createConfigRepoConfig(material, "myplugin", "id")));
+        configWatchList.onConfigChange(cruiseConfig);
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        when(plugin.load(any(), any())).thenAnswer(invocation -> {
+            loading.countDown();
+            finishLoad.await();
+            return new PartialConfig();
+        });
+
+        Thread first = new Thread(() -> repoConfigDataSource.onCheckoutComplete(material, folder, getModificationFor("7a8f")));
+        first.start();
+        loading.await();
+
+        Thread second = new Thread(() -> repoConfigDataSource.onCheckoutComplete(material, folder, getModificationFor("7a8f")));
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.sleep(5);
+        }
+        finishLoad.countDown();
+        first.join();
+        second.join();
+
+        verify(plugin, times(1)).load(eq(folder), any());
+        assertThat(repoConfigDataSource.latestPartialConfigForMaterial(material)).isNotNull();
+    }
+
+    @Test
+    public void shouldParseAgainAfterAnotherParseOfTheSameRevisionHasFinished() {
+        ScmMaterialConfig material = git("http://my.git");
+        cruiseConfig.setConfigRepos(new ConfigReposConfig(ConfigRepoConfig.createConfigRepoConfig(material, "myplugin", "id")));
+        configWatchList.onConfigChange(cruiseConfig);
+
+        repoConfigDataSource.onCheckoutComplete(material, folder, getModificationFor("7a8f"));
+        repoConfigDataSource.onCheckoutComplete(material, folder, getModificationFor("7a8f"));
+
+        verify(plugin, times(2)).load(eq(folder), any());
+    }
+
     @Test
     public void shouldAssignConfigOrigin() throws Exception {
         ScmMaterialConfig material = git("http://my.git");
@@ -336,7 +381,7 @@ public class GoConfigRepoConfigDataSourceTest {
         GitMaterialConfig material = git("http://my.git");
         ConfigRepoConfig configRepoConfig = ConfigRepoConfig.createConfigRepoConfig(material, "myplugin", "id");
         GoConfigWatchList goConfigWatchList = mock(GoConfigWatchList.class);
-        repoConfigDataSource = new GoConfigRepoConfigDataSource(goConfigWatchList, configPluginService, serverHealthService, configRepoService, goConfigService);
+        repoConfigDataSource = new GoConfigRepoConfigDataSource(goConfigWatchList, configPluginService, serverHealthService, configRepoService, goConfigService, new SystemEnvironment());
 
         when(goConfigWatchList.getConfigRepoForMaterial(material)).thenReturn(configRepoConfig);
 
@@ -350,7 +395,7 @@ public class GoConfigRepoConfigDataSourceTest {
         GitMaterialConfig material = git("http://my.git");
         ConfigRepoConfig configRepoConfig = ConfigRepoConfig.createConfigRepoConfig(material, "myplugin", "id");
         GoConfigWatchList goConfigWatchList = mock(GoConfigWatchList.class);
-        repoConfigDataSource = new GoConfigRepoConfigDataSource(goConfigWatchList, configPluginService, serverHealthService, configRepoService, goConfigService);
+        repoConfigDataSource = new GoConfigRepoConfigDataSource(goConfigWatchList, configPluginService, serverHealthService, configRepoService, goConfigService, new SystemEnvironment());
 
         when(goConfigWatchList.getConfigRepoForMaterial(material)).thenReturn(configRepoConfig);
         when(goConfigWatchList.hasConfigRepoWithFingerprint(material.getFingerprint())).thenReturn(true);
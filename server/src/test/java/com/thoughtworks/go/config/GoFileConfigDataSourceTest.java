@@ -42,6 +42,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -87,6 +88,43 @@ public class GoFileConfigDataSourceTest {
 
     }
 
+    @Test
+    public void shouldNotValidateWholeConfigOnEntitySavesByDefault() {
+        when(systemEnvironment.get(SystemEnvironment.CONFIG_ENTITY_SAVE_FULL_VALIDATION_INTERVAL_IN_MINUTES)).thenReturn(-1L);
+
+        dataSource.validateWholeConfigIfDue(GoConfigMother.configWithPipelines("p1"));
+        dataSource.validateWholeConfigIfDue(GoConfigMother.configWithPipelines("p1"));
+
+        verify(xmlLoader, never()).validateCruiseConfig(any());
+    }
+
+    @Test
+    public void shouldValidateWholeConfigOnEveryEntitySaveWhenIntervalIsZero() {
+        when(systemEnvironment.get(SystemEnvironment.CONFIG_ENTITY_SAVE_FULL_VALIDATION_INTERVAL_IN_MINUTES)).thenReturn(0L);
+        when(timeProvider.currentTimeMillis()).thenReturn(1000L);
+
+        dataSource.validateWholeConfigIfDue(GoConfigMother.configWithPipelines("p1"));
+        dataSource.validateWholeConfigIfDue(GoConfigMother.configWithPipelines("p1"));
+
+        verify(xmlLoader, times(2)).validateCruiseConfig(any());
+    }
+
+    @Test
+    public void shouldValidateWholeConfigOnEntitySavesAtMostOncePerInterval() {
+        long start = MINUTES.toMillis(60);
+        when(systemEnvironment.get(SystemEnvironment.CONFIG_ENTITY_SAVE_FULL_VALIDATION_INTERVAL_IN_MINUTES)).thenReturn(5L);
+        when(timeProvider.currentTimeMillis()).thenReturn(start, start + MINUTES.toMillis(5) - 1, start + MINUTES.toMillis(5));
+
+        dataSource.validateWholeConfigIfDue(GoConfigMother.configWithPipelines("p1"));
+        verify(xmlLoader, times(1)).validateCruiseConfig(any());
+
+        dataSource.validateWholeConfigIfDue(GoConfigMother.configWithPipelines("p1"));
+        verify(xmlLoader, times(1)).validateCruiseConfig(any());
+
+        dataSource.validateWholeConfigIfDue(GoConfigMother.configWithPipelines("p1"));
+        verify(xmlLoader, times(2)).validateCruiseConfig(any());
+    }
+
     @Test
     public void shouldNotRetryConfigSaveWhenConfigRepoIsNotSetup() throws Exception {
         final String pipelineName = UUID.randomUUID().toString();
@@ -24,19 +24,27 @@ import com.thoughtworks.go.config.rules.Allow;
 import com.thoughtworks.go.config.rules.Rules;
 import com.thoughtworks.go.config.rules.SupportedEntity;
 import com.thoughtworks.go.config.update.PartialConfigUpdateCommand;
+import com.thoughtworks.go.config.update.PartialConfigsUpdateCommand;
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.server.service.ConfigRepoService;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
 import static com.thoughtworks.go.helper.PartialConfigMother.*;
 import static java.util.Optional.ofNullable;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -71,12 +79,12 @@ public class PartialConfigServiceTest {
 
         configWatchList = new GoConfigWatchList(cachedGoConfig, mock(GoConfigService.class));
         goConfigService = mock(GoConfigService.class);
-        repoConfigDataSource = new GoConfigRepoConfigDataSource(configWatchList, configPluginService, serverHealthService, configRepoService, goConfigService);
+        repoConfigDataSource = new GoConfigRepoConfigDataSource(configWatchList, configPluginService, serverHealthService, configRepoService, goConfigService, new SystemEnvironment());
         cachedGoPartials = new CachedGoPartials(serverHealthService);
         serverHealthService = mock(ServerHealthService.class);
 
         updateCommand = null;
-        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper) {
+        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper, new SystemEnvironment()) {
             @Override
             protected PartialConfigUpdateCommand buildUpdateCommand(PartialConfig partial, String fingerprint) {
                 if (null == updateCommand) {
@@ -142,7 +150,7 @@ public class PartialConfigServiceTest {
 
         when(partialConfigHelper.isEquivalent(any(PartialConfig.class), any(PartialConfig.class))).thenReturn(false);
 
-        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper);
+        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper, new SystemEnvironment());
 
         final PartialConfig partial = mock(PartialConfig.class);
         service.onSuccessPartialConfig(configRepoConfig, partial);
@@ -159,7 +167,7 @@ public class PartialConfigServiceTest {
 
         when(partialConfigHelper.isEquivalent(any(PartialConfig.class), any(PartialConfig.class))).thenReturn(true);
 
-        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper);
+        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper, new SystemEnvironment());
 
         service.onSuccessPartialConfig(configRepoConfig, mock(PartialConfig.class));
         verify(cachedGoPartials, never()).cacheAsLastKnown(any(), any());
@@ -240,6 +248,53 @@ public class PartialConfigServiceTest {
         verify(goConfigService).updateConfig(any());
     }
 
+    @Test
+    void mergesPartialsThatArriveDuringAMergeTogetherAndBlamesTheInvalidOne() throws Exception {
+        ConfigRepoConfig repo2 = ConfigRepoConfig.createConfigRepoConfig(git("url2"), "plugin", "id2");
+        ConfigRepoConfig repo3 = ConfigRepoConfig.createConfigRepoConfig(git("url3"), "plugin", "id3");
+        cruiseConfig.getConfigRepos().add(repo2);
+        cruiseConfig.getConfigRepos().add(repo3);
+        PartialConfig p2 = withPipeline("p2", new RepoConfigOrigin(repo2, "1"));
+        PartialConfig p3 = withPipeline("p3", new RepoConfigOrigin(repo3, "1"));
+
+        CountDownLatch firstMergeStarted = new CountDownLatch(1);
+        CountDownLatch firstMergeMayFinish = new CountDownLatch(1);
+        List<UpdateConfigCommand> commands = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            UpdateConfigCommand command = invocation.getArgument(0);
+            commands.add(command);
+            if (commands.size() == 1) {
+                firstMergeStarted.countDown();
+                firstMergeMayFinish.await();
+            }
+            CruiseConfig merged = command.update(new BasicCruiseConfig());
+            if (merged.getPartials().stream().anyMatch(partial -> partial.getGroups().findGroupByPipeline(new CaseInsensitiveString("p3")) != null)) {
+                throw new RuntimeException("p3 is invalid");
+            }
+            return null;
+        }).when(goConfigService).updateConfig(any(UpdateConfigCommand.class));
+
+        Thread first = new Thread(() -> service.onSuccessPartialConfig(configRepoConfig, withPipeline("p1", new RepoConfigOrigin(configRepoConfig, "1"))));
+        first.start();
+        firstMergeStarted.await();
+        Thread second = new Thread(() -> service.onSuccessPartialConfig(repo2, p2));
+        Thread third = new Thread(() -> service.onSuccessPartialConfig(repo3, p3));
+        second.start();
+        third.start();
+        await().atMost(10, TimeUnit.SECONDS).until(() -> second.getState() == Thread.State.BLOCKED && third.getState() == Thread.State.BLOCKED);
+        firstMergeMayFinish.countDown();
+        first.join();
+        second.join();
+        third.join();
+
+        assertEquals(4, commands.size());
+        assertInstanceOf(PartialConfigsUpdateCommand.class, commands.get(1));
+        assertEquals(p2, cachedGoPartials.getValid(repo2.getRepo().getFingerprint()));
+        assertNull(cachedGoPartials.getValid(repo3.getRepo().getFingerprint()));
+        assertEquals(p3, cachedGoPartials.getKnown(repo3.getRepo().getFingerprint()));
+        verify(serverHealthService).update(any());
+    }
+
     @Nested
     class WatchList {
         private ScmMaterialConfig material;
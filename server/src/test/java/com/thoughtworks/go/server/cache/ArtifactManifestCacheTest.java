@@ -0,0 +1,90 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.thoughtworks.go.domain.ArtifactManifest;
+import com.thoughtworks.go.server.service.ArtifactsDirHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ArtifactManifestCacheTest {
+    private static final String JOB_FOLDERS = "pipelines/pipeline-name/label-111/stage-name/1/job-name";
+
+    @TempDir
+    File folder;
+    private File jobRoot;
+    private ArtifactManifestCache cache;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        jobRoot = new File(folder, JOB_FOLDERS);
+        Files.createDirectories(jobRoot.toPath().resolve("cruise-output"));
+        Files.writeString(jobRoot.toPath().resolve("cruise-output/md5.checksum"), "dir/file1=abc123\n");
+        Files.createDirectories(jobRoot.toPath().resolve("dir"));
+        Files.writeString(jobRoot.toPath().resolve("dir/file1"), "hello");
+
+        ArtifactsDirHolder artifactsDirHolder = mock(ArtifactsDirHolder.class);
+        when(artifactsDirHolder.getArtifactsDir()).thenReturn(folder);
+        cache = new ArtifactManifestCache(artifactsDirHolder);
+    }
+
+    @Test
+    public void shouldSaveManifestWithSizesAndChecksumsNextToCachedArtifacts() throws IOException {
+        ArtifactManifest manifest = cache.manifestFor(jobRoot);
+
+        File manifestFile = new File(folder, "cache/artifacts/" + JOB_FOLDERS + ".manifest");
+        assertThat(manifestFile).isFile();
+        assertThat(cache.manifestFile(jobRoot)).isEqualTo(manifestFile);
+        assertThat(manifest.entries()).contains(new ArtifactManifest.Entry("dir", true, 0, null), new ArtifactManifest.Entry("dir/file1", false, 5, "abc123"));
+    }
+
+    @Test
+    public void shouldServeListingsFromSavedManifest() throws IOException {
+        cache.manifestFor(jobRoot);
+        Files.writeString(jobRoot.toPath().resolve("dir/not-uploaded-through-the-server"), "x");
+
+        assertThat(cache.manifestFor(jobRoot).entries()).extracting(ArtifactManifest.Entry::path).doesNotContain("dir/not-uploaded-through-the-server");
+    }
+
+    @Test
+    public void shouldThrowManifestAwayWhenAnArtifactBelowTheJobChanges() throws IOException {
+        cache.manifestFor(jobRoot);
+        File uploaded = jobRoot.toPath().resolve("dir/file2").toFile();
+        Files.writeString(uploaded.toPath(), "x");
+
+        cache.invalidate(uploaded);
+
+        assertThat(cache.manifestFile(jobRoot)).doesNotExist();
+        assertThat(cache.manifestFor(jobRoot).entries()).extracting(ArtifactManifest.Entry::path).contains("dir/file2");
+    }
+
+    @Test
+    public void shouldGiveEntriesRelativeToAFolderOfTheJob() throws IOException {
+        ArtifactManifest manifest = cache.manifestFor(jobRoot);
+
+        assertThat(manifest.entriesUnder(new File(jobRoot, "dir"))).containsExactly(new ArtifactManifest.Entry("file1", false, 5, "abc123"));
+        assertThat(manifest.entriesUnder(folder)).isNull();
+    }
+}
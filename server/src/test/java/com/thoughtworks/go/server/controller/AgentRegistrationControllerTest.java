@@ -39,6 +39,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 
 import static com.thoughtworks.go.util.SystemEnvironment.AGENT_EXTRA_PROPERTIES;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -258,6 +259,37 @@ public class AgentRegistrationControllerTest {
         assertEquals("content", actual);
     }
 
+    @Test
+    public void shouldReturnManifestOfAgentPluginJars(@TempDir Path temporaryFolder) throws Exception {
+        File jar = Files.writeString(temporaryFolder.resolve("task.jar"), "task plugin", UTF_8).toFile();
+        when(pluginsZip.manifest()).thenReturn(new PluginsZip.Manifest("zip-md5", Map.of("external/task.jar", new PluginsZip.AgentPluginJar(jar, "jar-md5"))));
+
+        controller.agentPluginsManifest(response);
+
+        assertEquals("zip-md5", response.getHeader(StandardHeaders.RESPONSE_CONTENT_MD5));
+        assertEquals("jar-md5  external/task.jar\n", response.getContentAsString());
+    }
+
+    @Test
+    public void shouldReturnSingleAgentPluginJarFromManifest(@TempDir Path temporaryFolder) throws Exception {
+        File jar = Files.writeString(temporaryFolder.resolve("task.jar"), "task plugin", UTF_8).toFile();
+        when(pluginsZip.manifest()).thenReturn(new PluginsZip.Manifest("zip-md5", Map.of("external/task.jar", new PluginsZip.AgentPluginJar(jar, "jar-md5"))));
+
+        controller.downloadAgentPlugin("external", "task.jar", response);
+
+        assertEquals("jar-md5", response.getHeader(StandardHeaders.RESPONSE_CONTENT_MD5));
+        assertEquals("task plugin", response.getContentAsString());
+    }
+
+    @Test
+    public void shouldNotReturnFilesThatAreNotInTheAgentPluginsManifest() throws Exception {
+        when(pluginsZip.manifest()).thenReturn(new PluginsZip.Manifest("zip-md5", Map.of()));
+
+        controller.downloadAgentPlugin("..", "cruise-config.xml", response);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatus());
+    }
+
     @Test
     public void shouldReturnChecksumOfTfsJar() throws Exception {
         controller.checkTfsImplVersion(response);
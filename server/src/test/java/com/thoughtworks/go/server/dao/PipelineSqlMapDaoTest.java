@@ -16,9 +16,13 @@
 package com.thoughtworks.go.server.dao;
 
 import com.thoughtworks.go.config.GoConfigDao;
+import com.thoughtworks.go.domain.MaterialRevisions;
 import com.thoughtworks.go.domain.Pipeline;
 import com.thoughtworks.go.domain.buildcause.BuildCause;
+import com.thoughtworks.go.helper.ModificationsMother;
 import com.thoughtworks.go.presentation.pipelinehistory.PipelineInstanceModel;
+import com.thoughtworks.go.presentation.pipelinehistory.PipelineInstanceModels;
+import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModels;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.transaction.SqlMapClientTemplate;
@@ -113,6 +117,30 @@ class PipelineSqlMapDaoTest {
         verify(mockTemplate, times(1)).queryForList(eq("getPipelineRange"), any());
     }
 
+    @Test
+    void loadHistoryByIds_shouldLoadMaterialRevisionsForAllPipelinesOfThePageTogether() {
+        when(sqlMapClientTemplate.queryForList(eq("getPipelineRange"), any())).thenReturn(List.of(2L, 1L));
+        PipelineInstanceModel second = pipelineWithId(2L);
+        PipelineInstanceModel first = pipelineWithId(1L);
+        when(sqlMapClientTemplate.queryForList(eq("getPipelineHistoryByName"), any())).thenReturn(List.of(second, first));
+        MaterialRevisions secondRevisions = ModificationsMother.multipleModifications();
+        MaterialRevisions firstRevisions = ModificationsMother.multipleModifications();
+        when(materialRepository.findMaterialRevisionsForPipelines(List.of(2L, 1L))).thenReturn(Map.of(2L, secondRevisions, 1L, firstRevisions));
+
+        PipelineInstanceModels history = pipelineSqlMapDao.loadHistory("pipelineName", 2, 0);
+
+        assertThat(history).containsExactly(second, first);
+        assertThat(second.getBuildCause().getMaterialRevisions()).isSameAs(secondRevisions);
+        assertThat(first.getBuildCause().getMaterialRevisions()).isSameAs(firstRevisions);
+        verify(materialRepository, never()).findMaterialRevisionsForPipeline(anyLong());
+    }
+
+    private PipelineInstanceModel pipelineWithId(long id) {
+        PipelineInstanceModel model = PipelineInstanceModel.createPipeline("pipelineName", (int) id, String.valueOf(id), BuildCause.createWithEmptyModifications(), new StageInstanceModels());
+        model.setId(id);
+        return model;
+    }
+
     @Nested
     class CacheKeyForBuildCauseByNameAndCounter {
         @Test
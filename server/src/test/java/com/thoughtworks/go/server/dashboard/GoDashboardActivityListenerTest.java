@@ -38,6 +38,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import static org.awaitility.Awaitility.await;
@@ -111,6 +112,43 @@ public class GoDashboardActivityListenerTest {
         verify(handler).call(aConfig);
     }
 
+    @Test
+    public void shouldOnlyUpdateChangedPipelinesWhenNothingButPipelinesChanged() throws Exception {
+        CruiseConfig oldConfig = GoConfigMother.configWithPipelines("p1", "p2");
+        CruiseConfig newConfig = GoConfigMother.deepClone(oldConfig);
+        newConfig.pipelineConfigByName(new CaseInsensitiveString("p2")).getFirstStageConfig().getJobs().first().setTimeout("10");
+        GoDashboardConfigChangeHandler handler = mock(GoDashboardConfigChangeHandler.class);
+        listener = new GoDashboardActivityListener(goConfigService, stageService, pipelinePauseService, pipelineLockService,
+                null, handler, null, null, null);
+
+        listener.initialize();
+        listener.start();
+
+        listener.onConfigChange(newConfig, ConfigChangeSet.between(oldConfig, newConfig));
+        waitForProcessingToHappen();
+
+        verify(handler).call(Set.of(new CaseInsensitiveString("p2")));
+        verify(handler, never()).call(any(CruiseConfig.class));
+    }
+
+    @Test
+    public void shouldUpdateAllPipelinesWhenMoreThanPipelinesChanged() throws Exception {
+        CruiseConfig oldConfig = GoConfigMother.configWithPipelines("p1", "p2");
+        CruiseConfig newConfig = GoConfigMother.deepClone(oldConfig);
+        newConfig.addEnvironment("uat");
+        GoDashboardConfigChangeHandler handler = mock(GoDashboardConfigChangeHandler.class);
+        listener = new GoDashboardActivityListener(goConfigService, stageService, pipelinePauseService, pipelineLockService,
+                null, handler, null, null, null);
+
+        listener.initialize();
+        listener.start();
+
+        listener.onConfigChange(newConfig, ConfigChangeSet.between(oldConfig, newConfig));
+        waitForProcessingToHappen();
+
+        verify(handler).call(newConfig);
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void onInitializationAndStartOfDaemons_shouldRegisterAListener_WhichCallsConfigChangeHandler_ForPipelineConfigChangeHandling() throws Exception {
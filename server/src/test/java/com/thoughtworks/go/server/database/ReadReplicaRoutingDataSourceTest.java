@@ -0,0 +1,105 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.database;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTest {
+    private BasicDataSource primary;
+    private BasicDataSource replica;
+    private ReadReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = database("primary");
+        replica = database("replica");
+        dataSource = new ReadReplicaRoutingDataSource(primary, replica);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void shouldReadFromPrimaryUnlessStaleReadsAreAllowed() throws SQLException {
+        assertThat(databaseName()).isEqualTo("primary");
+        assertThat(dataSource.primaryConnectionCount()).isEqualTo(1);
+        assertThat(dataSource.replicaConnectionCount()).isZero();
+    }
+
+    @Test
+    void shouldReadFromReplicaWhenStaleReadsAreAllowed() {
+        assertThat(ReadReplicaRoutingDataSource.staleReadsAllowed(this::databaseNameUnchecked)).isEqualTo("replica");
+        assertThat(dataSource.replicaConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGoBackToPrimaryOnceTheStaleReadIsDone() throws SQLException {
+        ReadReplicaRoutingDataSource.staleReadsAllowed(() -> ReadReplicaRoutingDataSource.staleReadsAllowed(this::databaseNameUnchecked));
+
+        assertThat(databaseName()).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldReadFromPrimaryWithinATransactionEvenWhenStaleReadsAreAllowed() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(ReadReplicaRoutingDataSource.staleReadsAllowed(this::databaseNameUnchecked)).isEqualTo("primary");
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private String databaseNameUnchecked() {
+        try {
+            return databaseName();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String databaseName() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM whoami")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static BasicDataSource database(String name) throws SQLException {
+        BasicDataSource database = new BasicDataSource();
+        database.setUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime());
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE whoami (name VARCHAR(10))");
+            statement.execute("INSERT INTO whoami VALUES ('" + name + "')");
+        }
+        return database;
+    }
+}
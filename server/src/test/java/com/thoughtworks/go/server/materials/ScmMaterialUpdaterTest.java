@@ -0,0 +1,131 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.config.materials.SubprocessExecutionContext;
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.config.materials.svn.SvnMaterial;
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.Modifications;
+import com.thoughtworks.go.domain.materials.Revision;
+import com.thoughtworks.go.helper.MaterialsMother;
+import com.thoughtworks.go.server.persistence.MaterialRepository;
+import com.thoughtworks.go.server.service.MaterialService;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScmMaterialUpdaterTest {
+    @Mock
+    private MaterialRepository materialRepository;
+    @Mock
+    private LegacyMaterialChecker materialChecker;
+    @Mock
+    private SubprocessExecutionContext subprocessExecutionContext;
+    @Mock
+    private MaterialService materialService;
+    @Mock
+    private SystemEnvironment systemEnvironment;
+    @Mock
+    private MaterialInstance materialInstance;
+
+    private final File folder = new File("flyweight");
+    private final Modifications knownModifications = new Modifications(new Modification("user", "comment", "email", new Date(), "a1b2c3"));
+    private ScmMaterialUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        updater = new ScmMaterialUpdater(materialRepository, materialChecker, subprocessExecutionContext, materialService, systemEnvironment);
+    }
+
+    @Test
+    void shouldSkipFetchWhenUpstreamRefHasNotMoved() {
+        GitMaterial material = mock(GitMaterial.class);
+        when(systemEnvironment.get(SystemEnvironment.MDU_SKIP_FETCH_WHEN_UPSTREAM_UNCHANGED)).thenReturn(true);
+        when(material.isUpstreamAt(eq(folder), revision("a1b2c3"), eq(subprocessExecutionContext))).thenReturn(true);
+
+        updater.insertLatestOrNewModifications(material, materialInstance, folder, knownModifications);
+
+        verifyNoInteractions(materialService, materialChecker, materialRepository);
+    }
+
+    @Test
+    void shouldFetchWhenUpstreamRefHasMoved() {
+        GitMaterial material = mock(GitMaterial.class);
+        List<Modification> newChanges = List.of(new Modification("user", "comment", "email", new Date(), "d4e5f6"));
+        when(systemEnvironment.get(SystemEnvironment.MDU_SKIP_FETCH_WHEN_UPSTREAM_UNCHANGED)).thenReturn(true);
+        when(material.isUpstreamAt(eq(folder), revision("a1b2c3"), eq(subprocessExecutionContext))).thenReturn(false);
+        when(materialService.modificationsSince(eq(material), eq(folder), revision("a1b2c3"), eq(subprocessExecutionContext))).thenReturn(newChanges);
+
+        updater.insertLatestOrNewModifications(material, materialInstance, folder, knownModifications);
+
+        verify(materialRepository).saveModifications(materialInstance, newChanges);
+    }
+
+    @Test
+    void shouldFallBackToAFullUpdateWhenUpstreamRefCannotBeLookedUp() {
+        GitMaterial material = mock(GitMaterial.class);
+        when(systemEnvironment.get(SystemEnvironment.MDU_SKIP_FETCH_WHEN_UPSTREAM_UNCHANGED)).thenReturn(true);
+        when(material.isUpstreamAt(any(), any(), any())).thenThrow(new RuntimeException("ls-remote failed"));
+        when(materialService.modificationsSince(eq(material), eq(folder), revision("a1b2c3"), eq(subprocessExecutionContext))).thenReturn(List.of());
+
+        updater.insertLatestOrNewModifications(material, materialInstance, folder, knownModifications);
+
+        verify(materialService).modificationsSince(eq(material), eq(folder), revision("a1b2c3"), eq(subprocessExecutionContext));
+        verifyNoInteractions(materialRepository);
+    }
+
+    @Test
+    void shouldNotLookUpUpstreamRefWhenTurnedOff() {
+        GitMaterial material = mock(GitMaterial.class);
+        when(systemEnvironment.get(SystemEnvironment.MDU_SKIP_FETCH_WHEN_UPSTREAM_UNCHANGED)).thenReturn(false);
+        when(materialService.modificationsSince(eq(material), eq(folder), revision("a1b2c3"), eq(subprocessExecutionContext))).thenReturn(List.of());
+
+        updater.insertLatestOrNewModifications(material, materialInstance, folder, knownModifications);
+
+        verify(material, never()).isUpstreamAt(any(), any(), any());
+        verify(materialService).modificationsSince(eq(material), eq(folder), revision("a1b2c3"), eq(subprocessExecutionContext));
+    }
+
+    @Test
+    void shouldAlwaysFetchForMaterialsOtherThanGit() {
+        SvnMaterial material = MaterialsMother.svnMaterial();
+        when(materialService.modificationsSince(eq(material), eq(folder), any(), eq(subprocessExecutionContext))).thenReturn(List.of());
+
+        updater.insertLatestOrNewModifications(material, materialInstance, folder, knownModifications);
+
+        verify(materialService).modificationsSince(eq(material), eq(folder), any(), eq(subprocessExecutionContext));
+        verifyNoInteractions(systemEnvironment);
+    }
+
+    private static Revision revision(String revision) {
+        return argThat(r -> r != null && revision.equals(r.getRevision()));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.notifications;
+
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginNotificationBacklogTest {
+    private final TestingClock clock = new TestingClock();
+    private final PluginNotificationBacklog backlog = new PluginNotificationBacklog(true, clock);
+
+    @Test
+    public void shouldQueueTheNextMessageOnItsOwnOnceHalfTheTimeToLiveOfTheQueuedOneHasPassed() {
+        PluginNotificationMessage<String> first = agentStatus("idle");
+        PluginNotificationMessage<String> second = agentStatus("building");
+        PluginNotificationMessage<String> third = agentStatus("idle");
+
+        assertThat(backlog.offer(first, 1000)).isTrue();
+        clock.addMillis(499);
+        assertThat(backlog.offer(second, 1000)).isFalse();
+        clock.addMillis(1);
+        assertThat(backlog.offer(third, 1000)).isTrue();
+
+        assertThat(backlog.postedCount()).isEqualTo(2);
+        assertThat(backlog.coalescedCount()).isEqualTo(1);
+        assertThat(backlog.latest(first)).isSameAs(third);
+        assertThat(backlog.latest(third)).isNull();
+    }
+
+    @Test
+    public void shouldForgetMessagesThatRodeOnAQueuedMessageWhichExpired() {
+        assertThat(backlog.offer(agentStatus("idle"), 1000)).isTrue();
+        assertThat(backlog.offer(agentStatus("building"), 1000)).isFalse();
+        assertThat(backlog.pendingCoalescedCount()).isEqualTo(1);
+
+        clock.addMillis(1000);
+
+        assertThat(backlog.pendingCoalescedCount()).isZero();
+    }
+
+    @Test
+    public void shouldKeepCoalescingWhenMessagesNeverExpire() {
+        assertThat(backlog.offer(agentStatus("idle"), 0)).isTrue();
+        clock.addSeconds(3600);
+
+        assertThat(backlog.offer(agentStatus("building"), 0)).isFalse();
+        assertThat(backlog.pendingCoalescedCount()).isEqualTo(1);
+    }
+
+    private static PluginNotificationMessage<String> agentStatus(String status) {
+        return new PluginNotificationMessage<>("plugin-1", "agent-status", status, "agent-1");
+    }
+}
@@ -83,4 +83,25 @@ public class PluginNotificationMessageListenerTest {
         verify(notificationExtension).notify("pid", "request-name", message.getData());
     }
 
+
+    @Test
+    public void shouldOnlySendLatestOfCoalescedNotifications() {
+        NotificationExtension notificationExtension = mock(NotificationExtension.class);
+        ServerHealthService serverHealthService = mock(ServerHealthService.class);
+        PluginNotificationBacklog backlog = new PluginNotificationBacklog(true);
+        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService, backlog);
+
+        PluginNotificationMessage<?> queued = new PluginNotificationMessage<>("pid", "request-name", "idle", "agent-1");
+        PluginNotificationMessage<?> latest = new PluginNotificationMessage<>("pid", "request-name", "building", "agent-1");
+        assertThat(backlog.offer(queued, 60000)).isTrue();
+        assertThat(backlog.offer(latest, 60000)).isFalse();
+        when(notificationExtension.notify("pid", "request-name", "building")).thenReturn(new Result());
+
+        listener.onMessage(queued);
+        listener.onMessage(queued);
+
+        verify(notificationExtension).notify("pid", "request-name", "building");
+        verifyNoMoreInteractions(notificationExtension);
+        assertThat(backlog.deliveredCount()).isEqualTo(1);
+    }
 }
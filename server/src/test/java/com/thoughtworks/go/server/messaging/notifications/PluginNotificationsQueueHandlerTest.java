@@ -19,6 +19,7 @@ import com.thoughtworks.go.plugin.access.notification.NotificationExtension;
 import com.thoughtworks.go.plugin.infra.PluginManager;
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginDescriptor;
 import com.thoughtworks.go.server.messaging.GoMessage;
+import com.thoughtworks.go.server.messaging.MessageSender;
 import com.thoughtworks.go.server.messaging.MessagingService;
 import com.thoughtworks.go.server.messaging.PluginAwareMessageQueue;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
@@ -30,8 +31,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_COALESCE_AGENT_STATUS;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class PluginNotificationsQueueHandlerTest {
@@ -73,6 +75,60 @@ public class PluginNotificationsQueueHandlerTest {
         assertThat(queueForPlugin3.numberListeners()).isEqualTo(2);
     }
 
+    @Test
+    public void shouldCoalesceQueuedAgentStatusChangesOfTheSameAgent() {
+        MessageSender sender = mock(MessageSender.class);
+        when(messagingService.createQueueSender("PluginNotificationsQueueHandler.plugin-1")).thenReturn(sender);
+        when(notificationExtension.canHandlePlugin("plugin-1")).thenReturn(true);
+        when(systemEnvironment.getNotificationListenerCountForPlugin("plugin-1")).thenReturn(1);
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_COALESCE_AGENT_STATUS)).thenReturn(true);
+        handler.pluginLoaded(getPluginDescriptor("plugin-1"));
+
+        PluginNotificationMessage<String> first = new PluginNotificationMessage<>("plugin-1", "agent-status", "idle", "agent-1");
+        PluginNotificationMessage<String> second = new PluginNotificationMessage<>("plugin-1", "agent-status", "building", "agent-1");
+        PluginNotificationMessage<String> otherAgent = new PluginNotificationMessage<>("plugin-1", "agent-status", "idle", "agent-2");
+        handler.post(first, 60000);
+        handler.post(second, 60000);
+        handler.post(otherAgent, 60000);
+
+        verify(sender).sendMessage(first, 60000);
+        verify(sender).sendMessage(otherAgent, 60000);
+        verifyNoMoreInteractions(sender);
+        PluginNotificationBacklog backlog = handler.backlogs().get("plugin-1");
+        assertThat(backlog.coalescedCount()).isEqualTo(1);
+        assertThat(backlog.latest(first)).isSameAs(second);
+        assertThat(backlog.latest(first)).isNull();
+    }
+
+    @Test
+    public void shouldPostEveryNotificationWithoutACoalescingKey() {
+        MessageSender sender = mock(MessageSender.class);
+        when(messagingService.createQueueSender("PluginNotificationsQueueHandler.plugin-1")).thenReturn(sender);
+        when(notificationExtension.canHandlePlugin("plugin-1")).thenReturn(true);
+        when(systemEnvironment.getNotificationListenerCountForPlugin("plugin-1")).thenReturn(1);
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_COALESCE_AGENT_STATUS)).thenReturn(true);
+        handler.pluginLoaded(getPluginDescriptor("plugin-1"));
+
+        PluginNotificationMessage<String> message = new PluginNotificationMessage<>("plugin-1", "stage-status", "passed");
+        handler.post(message, 60000);
+        handler.post(message, 60000);
+
+        verify(sender, times(2)).sendMessage(message, 60000);
+        assertThat(handler.backlogs().get("plugin-1").coalescedCount()).isZero();
+    }
+
+    @Test
+    public void shouldForgetBacklogOfUnloadedPlugin() {
+        when(notificationExtension.canHandlePlugin("plugin-1")).thenReturn(true);
+        when(systemEnvironment.getNotificationListenerCountForPlugin("plugin-1")).thenReturn(0);
+        handler.pluginLoaded(getPluginDescriptor("plugin-1"));
+        assertThat(handler.backlogs()).containsKey("plugin-1");
+
+        handler.pluginUnLoaded(getPluginDescriptor("plugin-1"));
+
+        assertThat(handler.backlogs()).isEmpty();
+    }
+
     private GoPluginDescriptor getPluginDescriptor(String pluginId) {
         return GoPluginDescriptor.builder().id(pluginId).build();
     }
@@ -19,6 +19,7 @@ import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.git.GitMaterialInstance;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.database.Database;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
@@ -48,10 +49,12 @@ public class MaterialRepositoryTest {
     private MaterialConfigConverter materialConfigConverter;
     private MaterialExpansionService materialExpansionService;
     private Database databaseStrategy;
+    private MDUPerformanceLogger mduPerformanceLogger;
 
     @BeforeEach
     public void setUp() {
         databaseStrategy = mock(Database.class);
+        mduPerformanceLogger = mock(MDUPerformanceLogger.class);
         sessionFactory = mock(SessionFactory.class);
         goCache = mock(GoCache.class);
         ourCustomCache = new HashMap<>();
@@ -59,7 +62,7 @@ public class MaterialRepositoryTest {
         mockHibernateTemplate = mock(HibernateTemplate.class);
         materialConfigConverter = mock(MaterialConfigConverter.class);
         materialExpansionService = mock(MaterialExpansionService.class);
-        materialRepository = new MaterialRepository(sessionFactory, goCache, 4242, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        materialRepository = new MaterialRepository(sessionFactory, goCache, 4242, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, mduPerformanceLogger);
         materialRepository.setHibernateTemplate(mockHibernateTemplate);
         when(goCache.get(anyString())).thenAnswer(invocation -> {
             Object[] arguments = invocation.getArguments();
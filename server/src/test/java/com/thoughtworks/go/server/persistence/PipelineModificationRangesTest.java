@@ -0,0 +1,71 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PipelineModificationRangesTest {
+
+    @Test
+    public void shouldNotContainAnythingToBeginWith() {
+        assertThat(PipelineModificationRanges.NONE.contains(1, 1)).isFalse();
+    }
+
+    @Test
+    public void shouldContainModificationsWithinAddedRangeForThatMaterialOnly() {
+        PipelineModificationRanges ranges = PipelineModificationRanges.NONE.with(1, 10, 20);
+
+        assertThat(ranges.contains(1, 10)).isTrue();
+        assertThat(ranges.contains(1, 15)).isTrue();
+        assertThat(ranges.contains(1, 20)).isTrue();
+        assertThat(ranges.contains(1, 9)).isFalse();
+        assertThat(ranges.contains(1, 21)).isFalse();
+        assertThat(ranges.contains(2, 15)).isFalse();
+    }
+
+    @Test
+    public void shouldMergeOverlappingAndAdjacentRanges() {
+        PipelineModificationRanges ranges = PipelineModificationRanges.NONE
+            .with(1, 10, 20)
+            .with(1, 30, 40)
+            .with(1, 21, 29)
+            .with(1, 5, 12);
+
+        for (long id = 5; id <= 40; id++) {
+            assertThat(ranges.contains(1, id)).isTrue();
+        }
+        assertThat(ranges.contains(1, 4)).isFalse();
+        assertThat(ranges.contains(1, 41)).isFalse();
+    }
+
+    @Test
+    public void shouldKeepDisjointRangesApart() {
+        PipelineModificationRanges ranges = PipelineModificationRanges.NONE.with(1, 10, 20).with(1, 30, 40);
+
+        assertThat(ranges.contains(1, 25)).isFalse();
+        assertThat(ranges.contains(1, 35)).isTrue();
+    }
+
+    @Test
+    public void shouldNotModifyExistingInstance() {
+        PipelineModificationRanges original = PipelineModificationRanges.NONE.with(1, 10, 20);
+        original.with(1, 30, 40);
+
+        assertThat(original.contains(1, 35)).isFalse();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.presentation.models;
 
+import com.thoughtworks.go.domain.ArtifactManifest;
 import com.thoughtworks.go.domain.DirectoryEntry;
 import com.thoughtworks.go.domain.FolderDirectoryEntry;
 import com.thoughtworks.go.domain.JobIdentifier;
@@ -130,6 +131,22 @@ public class DirectoryReaderTest {
         assertThat(entries.getFirst().getUrl()).isEqualTo(expectedUrl);
     }
 
+    @Test
+    public void shouldListTheSameEntriesFromManifestAsFromDisk() throws Exception {
+        TestFileUtil.createTestFile(testFolder, "build.html");
+        File subFolder = TestFileUtil.createTestFolder(testFolder, "testoutput");
+        TestFileUtil.createTestFile(subFolder, "baboon.html");
+        TestFileUtil.createTestFile(subFolder, "apple.html");
+        TestFileUtil.createTestFolder(TestFileUtil.createTestFolder(testFolder, "primate"), "empty");
+        DirectoryReader reader = new DirectoryReader(jobIdentifier);
+
+        ArtifactManifest manifest = ArtifactManifest.scan(testFolder);
+
+        assertThat(reader.listEntries(manifest.entries(), folderRoot)).isEqualTo(reader.listEntries(testFolder, folderRoot));
+        assertThat(reader.listEntries(manifest.entriesUnder(subFolder), folderRoot + "/testoutput"))
+            .isEqualTo(reader.listEntries(subFolder, folderRoot + "/testoutput"));
+    }
+
     @Nested
     public class DirectoriesFirstFileNameOrderTest {
 
@@ -545,6 +545,38 @@ class AgentServiceTest {
             verify(agentInstances).updateAgentRuntimeInfo(runtimeInfo);
         }
 
+        @Test
+        void shouldNotVerifyCookieAgainForHeartbeatOfRegisteredAgent() {
+            AgentInstance agentInstance = AgentInstance.createFromAgent(agent, new SystemEnvironment(), null);
+            when(agentInstances.findAgentAndRefreshStatus("uuid")).thenReturn(agentInstance);
+            doAnswer(invocation -> {
+                agentInstance.update(invocation.getArgument(0));
+                return null;
+            }).when(agentInstances).updateAgentRuntimeInfo(any());
+
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), "cookie"));
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), "cookie"));
+
+            verify(agentDao, times(1)).cookieFor(agentIdentifier);
+            verify(agentInstances, times(1)).updateAgentRuntimeInfo(any());
+        }
+
+        @Test
+        void shouldVerifyCookieAgainAfterNewCookieIsAssigned() {
+            AgentInstance agentInstance = AgentInstance.createFromAgent(agent, new SystemEnvironment(), null);
+            when(agentInstances.findAgentAndRefreshStatus("uuid")).thenReturn(agentInstance);
+            doAnswer(invocation -> {
+                agentInstance.update(invocation.getArgument(0));
+                return null;
+            }).when(agentInstances).updateAgentRuntimeInfo(any());
+
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), "cookie"));
+            agentService.assignCookie(agentIdentifier);
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), "cookie"));
+
+            verify(agentDao, times(2)).cookieFor(agentIdentifier);
+        }
+
         @Test
         void shouldThrowExceptionWhenAgentWithNoCookieTriesToUpdateRuntimeInfo() {
             AgentRuntimeInfo runtimeInfo = new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), null);
@@ -17,6 +17,7 @@ package com.thoughtworks.go.server.service;
 
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.helper.JobIdentifierMother;
+import com.thoughtworks.go.server.cache.ArtifactManifestCache;
 import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
 import org.apache.commons.io.FileExistsException;
 import org.junit.jupiter.api.BeforeEach;
@@ -41,7 +42,8 @@ public class ConsoleServiceTest {
     @BeforeEach
     public void setUp() {
         chooser = mock(ArtifactDirectoryChooser.class);
-        service = new ConsoleService(chooser, mock(ArtifactsDirHolder.class));
+        ArtifactsDirHolder artifactsDirHolder = mock(ArtifactsDirHolder.class);
+        service = new ConsoleService(chooser, artifactsDirHolder, new ArtifactManifestCache(artifactsDirHolder));
     }
 
     @Test
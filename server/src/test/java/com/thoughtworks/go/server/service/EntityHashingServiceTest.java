@@ -21,6 +21,7 @@ import com.thoughtworks.go.domain.config.ConfigurationKey;
 import com.thoughtworks.go.domain.config.ConfigurationProperty;
 import com.thoughtworks.go.domain.config.ConfigurationValue;
 import com.thoughtworks.go.helper.EnvironmentConfigMother;
+import com.thoughtworks.go.helper.GoConfigMother;
 import com.thoughtworks.go.helper.PipelineConfigMother;
 import com.thoughtworks.go.plugin.domain.common.CombinedPluginInfo;
 import com.thoughtworks.go.plugin.domain.common.PluggableInstanceSettings;
@@ -37,6 +38,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 import static com.thoughtworks.go.server.service.EntityHashingService.ETAG_CACHE_KEY;
@@ -146,6 +148,37 @@ public class EntityHashingServiceTest {
         verify(goCache).remove(ETAG_CACHE_KEY);
     }
 
+    @Test
+    void invalidatesOnlyETagsOfChangedPipelinesAndTheirGroupsWhenNothingElseChanged() {
+        BasicCruiseConfig oldConfig = GoConfigMother.configWithPipelines("p1", "p2");
+        BasicCruiseConfig newConfig = GoConfigMother.deepClone(oldConfig);
+        newConfig.pipelineConfigByName(new CaseInsensitiveString("p2")).addParam(new ParamConfig("foo", "bar"));
+        String pluginSettingsKey = PluginSettings.class.getName() + ".plugin-id";
+        String environmentKey = BasicEnvironmentConfig.class.getName() + ".uat";
+        when(goCache.get(ETAG_CACHE_KEY)).thenReturn(new HashSet<>(List.of(pluginSettingsKey, environmentKey)));
+
+        service.onConfigChange(newConfig, ConfigChangeSet.between(oldConfig, newConfig));
+
+        verify(goCache, never()).remove(ETAG_CACHE_KEY);
+        verify(goCache).remove(ETAG_CACHE_KEY, pluginSettingsKey);
+        verify(goCache, never()).remove(ETAG_CACHE_KEY, environmentKey);
+        verify(goCache, times(2)).remove(ETAG_CACHE_KEY, PipelineConfig.class.getName() + ".p2");
+        verify(goCache, times(2)).remove(ETAG_CACHE_KEY, BasicPipelineConfigs.class.getName() + "." + PipelineConfigs.DEFAULT_GROUP);
+        verify(goCache).remove(ETAG_CACHE_KEY, ParamConfig.class.getName() + ".foo");
+        verify(goCache, never()).remove(ETAG_CACHE_KEY, PipelineConfig.class.getName() + ".p1");
+    }
+
+    @Test
+    void invalidatesAllETagsWhenMoreThanPipelinesChanged() {
+        BasicCruiseConfig oldConfig = GoConfigMother.configWithPipelines("p1");
+        BasicCruiseConfig newConfig = GoConfigMother.deepClone(oldConfig);
+        newConfig.addEnvironment("uat");
+
+        service.onConfigChange(newConfig, ConfigChangeSet.between(oldConfig, newConfig));
+
+        verify(goCache).remove(ETAG_CACHE_KEY);
+    }
+
     @Test
     void invalidatesPipelineConfigETagsFromCacheOnPipelineChange() {
         EntityHashingService.PipelineConfigChangedListener listener = service.new PipelineConfigChangedListener();
@@ -147,6 +147,55 @@ public class ValueStreamMapServiceTest {
         assertNode(0, secondLevel.getFirst(), pipelineName, pipelineName, 0);
     }
 
+    @Test
+    public void shouldWorkOutDownstreamPipelinesOnlyOncePerConfig() {
+        String pipelineName = "p1";
+        BuildCause buildCause = PipelineMother.pipeline(pipelineName, new Stage()).getBuildCause();
+        MaterialConfig materialConfig = buildCause.getMaterialRevisions().getMaterialRevision(0).getMaterial().config();
+        PipelineConfig p1Config = PipelineConfigMother.pipelineConfig(pipelineName, new MaterialConfigs(materialConfig));
+        BasicCruiseConfig cruiseConfig = spy(new BasicCruiseConfig(new BasicPipelineConfigs(p1Config)));
+        BasicCruiseConfig newerCruiseConfig = spy(new BasicCruiseConfig(new BasicPipelineConfigs(p1Config)));
+
+        when(pipelineService.buildCauseFor(pipelineName, 1)).thenReturn(buildCause);
+        when(pipelineService.findPipelineByNameAndCounter(pipelineName, 1)).thenReturn(new Pipeline(pipelineName, "p1-label", buildCause, new EnvironmentVariables()));
+        when(goConfigService.currentCruiseConfig()).thenReturn(cruiseConfig, cruiseConfig, newerCruiseConfig);
+
+        valueStreamMapService.getValueStreamMap(new CaseInsensitiveString(pipelineName), 1, user, result);
+        valueStreamMapService.getValueStreamMap(new CaseInsensitiveString(pipelineName), 1, user, result);
+        valueStreamMapService.getValueStreamMap(new CaseInsensitiveString(pipelineName), 1, user, result);
+
+        assertThat(result.isSuccessful()).isTrue();
+        verify(cruiseConfig, times(1)).generatePipelineVsDownstreamMap();
+        verify(newerCruiseConfig, times(1)).generatePipelineVsDownstreamMap();
+    }
+
+    @Test
+    public void shouldPickUpDownstreamPipelinesAddedByAConfigRepoWhenTheMainConfigFileIsUnchanged() {
+        /*
+         * svn => p1 -> p2 (p2 comes from a config repo merged into the newer config)
+         * */
+        String pipelineName = "p1";
+        BuildCause buildCause = PipelineMother.pipeline(pipelineName, new Stage()).getBuildCause();
+        MaterialConfig materialConfig = buildCause.getMaterialRevisions().getMaterialRevision(0).getMaterial().config();
+        PipelineConfig p1Config = PipelineConfigMother.pipelineConfig(pipelineName, new MaterialConfigs(materialConfig));
+        PipelineConfig p2Config = PipelineConfigMother.pipelineConfig("p2", new MaterialConfigs(new DependencyMaterialConfig(p1Config.name(), p1Config.getFirst().name())));
+        BasicCruiseConfig cruiseConfig = new BasicCruiseConfig(new BasicPipelineConfigs(p1Config));
+        BasicCruiseConfig mergedCruiseConfig = new BasicCruiseConfig(new BasicPipelineConfigs(p1Config, p2Config));
+        assertThat(mergedCruiseConfig.getMd5()).isEqualTo(cruiseConfig.getMd5());
+
+        when(pipelineService.buildCauseFor(pipelineName, 1)).thenReturn(buildCause);
+        when(pipelineService.findPipelineByNameAndCounter(pipelineName, 1)).thenReturn(new Pipeline(pipelineName, "p1-label", buildCause, new EnvironmentVariables()));
+        when(goConfigService.currentCruiseConfig()).thenReturn(cruiseConfig, mergedCruiseConfig);
+
+        ValueStreamMapPresentationModel before = valueStreamMapService.getValueStreamMap(new CaseInsensitiveString(pipelineName), 1, user, result);
+        ValueStreamMapPresentationModel after = valueStreamMapService.getValueStreamMap(new CaseInsensitiveString(pipelineName), 1, user, result);
+
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(before.getNodesAtEachLevel()).hasSize(2);
+        assertThat(after.getNodesAtEachLevel()).hasSize(3);
+        assertThat(after.getNodesAtEachLevel().get(2).getFirst().getName()).isEqualTo("p2");
+    }
+
     @Test
     public void shouldGetAllDownstreamPipelinesForVSMOfUpstreamPipelineIfDownstreamPipelineRefersToUpstreamDependencyUsingADifferentCase() {
         /*
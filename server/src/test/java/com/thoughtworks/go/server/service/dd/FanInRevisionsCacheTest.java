@@ -0,0 +1,135 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.helper.ModificationsMother;
+import com.thoughtworks.go.helper.StageMother;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class FanInRevisionsCacheTest {
+    private static final CaseInsensitiveString UPSTREAM = new CaseInsensitiveString("upstream");
+    private static final CaseInsensitiveString DOWNSTREAM = new CaseInsensitiveString("downstream");
+
+    private FanInRevisionsCache cache;
+    private FanInGraph fanInGraph;
+    private PipelineTimeline pipelineTimeline;
+    private MaterialRevisions actualRevisions;
+    private CruiseConfig cruiseConfig;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new FanInRevisionsCache();
+        fanInGraph = mock(FanInGraph.class);
+        pipelineTimeline = mock(PipelineTimeline.class);
+        actualRevisions = ModificationsMother.createHgMaterialRevisions();
+
+        cruiseConfig = mock(CruiseConfig.class);
+        when(cruiseConfig.hasPipelineNamed(any())).thenReturn(true);
+
+        when(fanInGraph.pipelineName()).thenReturn(DOWNSTREAM);
+        when(fanInGraph.upstreamPipelineNames()).thenReturn(Set.of(UPSTREAM));
+        when(fanInGraph.topology()).thenReturn(Map.of("downstream", Set.of("upstream", "git")));
+        when(fanInGraph.computeRevisions(any(), eq(pipelineTimeline))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(pipelineTimeline.instanceCount(UPSTREAM)).thenReturn(1);
+    }
+
+    @Test
+    public void shouldReuseResolvedRevisionsWhenNothingChangedUpstream() {
+        MaterialRevisions first = cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+        MaterialRevisions second = cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+
+        verify(fanInGraph, times(1)).computeRevisions(actualRevisions, pipelineTimeline);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    public void shouldResolveAgainWhenUpstreamPipelineHasRunAgain() {
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+        when(pipelineTimeline.instanceCount(UPSTREAM)).thenReturn(2);
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+
+        verify(fanInGraph, times(2)).computeRevisions(actualRevisions, pipelineTimeline);
+    }
+
+    @Test
+    public void shouldResolveAgainWhenTopologyChangesEvenIfTheMainConfigFileHasNot() {
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+        when(fanInGraph.topology()).thenReturn(Map.of("downstream", Set.of("upstream", "another-upstream", "git")));
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+
+        verify(fanInGraph, times(2)).computeRevisions(actualRevisions, pipelineTimeline);
+    }
+
+    @Test
+    public void shouldResolveAgainWhenActualRevisionsChange() {
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+        MaterialRevisions newerRevisions = ModificationsMother.createHgMaterialRevisions();
+        newerRevisions.getMaterialRevision(0).getLatestModification().setRevision("newer");
+        cache.computeRevisions(fanInGraph, cruiseConfig, newerRevisions, pipelineTimeline);
+
+        verify(fanInGraph, times(1)).computeRevisions(newerRevisions, pipelineTimeline);
+    }
+
+    @Test
+    public void shouldResolveAgainWhenAStageOfAnUpstreamPipelineCompletes() {
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+        cache.stageStatusChanged(StageMother.passedStageInstance("upstream", "stage", "job", null));
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+
+        verify(fanInGraph, times(2)).computeRevisions(actualRevisions, pipelineTimeline);
+    }
+
+    @Test
+    public void shouldNotReuseRevisionsResolvedWhileAStageOfAnUpstreamPipelineCompleted() {
+        when(fanInGraph.computeRevisions(any(), eq(pipelineTimeline))).thenAnswer(invocation -> {
+            cache.stageStatusChanged(StageMother.passedStageInstance("upstream", "stage", "job", null));
+            return invocation.getArgument(0);
+        });
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+
+        verify(fanInGraph, times(2)).computeRevisions(actualRevisions, pipelineTimeline);
+    }
+
+    @Test
+    public void shouldForgetRevisionsOfPipelinesNoLongerInConfig() {
+        cache.computeRevisions(fanInGraph, cruiseConfig, actualRevisions, pipelineTimeline);
+        assertThat(cache.hasResolvedRevisionsFor(DOWNSTREAM)).isTrue();
+
+        CruiseConfig newConfig = mock(CruiseConfig.class);
+        when(newConfig.hasPipelineNamed(any())).thenReturn(true);
+        when(newConfig.hasPipelineNamed(DOWNSTREAM)).thenReturn(false);
+        FanInGraph anotherGraph = mock(FanInGraph.class);
+        when(anotherGraph.upstreamPipelineNames()).thenReturn(Set.of(UPSTREAM));
+        when(anotherGraph.pipelineName()).thenReturn(new CaseInsensitiveString("another"));
+        when(anotherGraph.computeRevisions(any(), eq(pipelineTimeline))).thenAnswer(invocation -> invocation.getArgument(0));
+        cache.computeRevisions(anotherGraph, newConfig, actualRevisions, pipelineTimeline);
+
+        assertThat(cache.hasResolvedRevisionsFor(DOWNSTREAM)).isFalse();
+    }
+}
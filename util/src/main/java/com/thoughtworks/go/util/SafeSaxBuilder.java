@@ -16,10 +16,16 @@
 package com.thoughtworks.go.util;
 
 import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.sax.XMLReaderJDOMFactory;
 
 public class SafeSaxBuilder extends SAXBuilder {
     public SafeSaxBuilder() {
         // Disable DTDs entirely, as we don't use/rely on them - rather than just disallowing external entities
         this.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
     }
+
+    protected SafeSaxBuilder(XMLReaderJDOMFactory readerFactory) {
+        super(readerFactory);
+        this.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+    }
 }